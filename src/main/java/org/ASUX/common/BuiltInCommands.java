@@ -0,0 +1,189 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>The registry of the 'built-in' commands (like '<code>print</code>', '<code>include</code>', '<code>setProperty</code>', ..) of a {@link ConfigFileScannerL3} (and its subclasses) or a {@link ConfigFileScannerL2}.</p>
+ *  <p>Every built-in command begins with a keyword.  So, the 1st word of a line is looked up (one scan of the line's 1st few chars + one HashMap lookup) and ONLY the REGEXP(s) registered for that keyword are matched - using a Pattern that is compiled just once.<br>
+ *     The overwhelming majority of lines (that are NOT built-in commands) are rejected by looking at just their 1st few chars.</p>
+ *  <p>Subclasses of the scanners add their own built-in commands by overriding <code>registerBuiltInCommands()</code> - see {@link ConfigFileScannerL3#registerBuiltInCommands(BuiltInCommands)}.</p>
+ *  <p>This class is NOT thread-safe (and neither are the scanners).</p>
+ */
+public final class BuiltInCommands {
+
+    public static final String CLASSNAME = BuiltInCommands.class.getName();
+
+    /**
+     *  What to do, when a line matches a built-in command's REGEXP.
+     */
+    public interface Handler {
+        /**
+         *  @param _matcher NotNull.  The REGEXP (as passed to {@link BuiltInCommands#register(String, String, Handler)}) has been successfully matched against the line.  So, use _matcher.group(1) etc..
+         *  @throws Exception any problem executing the command (like: a file NOT found)
+         */
+        void exec( Matcher _matcher ) throws Exception;
+    }
+
+    private static final class Command {
+        final Pattern pattern;
+        final Handler handler;
+        Command( final Pattern _pattern, final Handler _handler ) { this.pattern = _pattern; this.handler = _handler; }
+    }
+
+    //--------------------------------------------------------
+    /** key = keyword, value = the commands (in the order registered) that begin with that keyword */
+    private final HashMap<String,ArrayList<Command>> commands = new HashMap<>();
+
+    /** firstChars[c] is true, if any keyword begins with the (ASCII) char c */
+    private final boolean[] firstChars = new boolean[128];
+    private int maxKeywordLength = 0;
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>Registers a built-in command.  If a command is already registered for the keyword, this one is tried AFTER it (in case the 1st REGEXP does NOT match).</p>
+     *  @param _keyword NotNull.  The 1st word of the command (like "print").  Must be ASCII, without whitespace.
+     *  @param _regexp NotNull.  Must match ONLY lines that begin with _keyword (after any whitespace) followed by whitespace.  Typically "^\\s*keyword\\s+(...)\\s*$"
+     *  @param _handler NotNull
+     *  @return this (so that registrations can be chained)
+     *  @throws IllegalArgumentException if _keyword is Not ASCII, or has whitespace
+     *  @throws java.util.regex.PatternSyntaxException if _regexp is Not a valid REGEXP
+     */
+    public BuiltInCommands register( final String _keyword, final String _regexp, final Handler _handler )
+    {
+        final String HDR = CLASSNAME +": register("+ _keyword +","+ _regexp +"): ";
+        if ( _keyword.length() <= 0 || BuiltInCommands.keywordLength( _keyword, 0 ) != _keyword.length() )
+            throw new IllegalArgumentException( HDR +"keyword must be NON-empty and must NOT have any whitespace" );
+        for ( int ix = 0; ix < _keyword.length(); ix ++ )
+            if ( _keyword.charAt( ix ) >= 128 ) throw new IllegalArgumentException( HDR +"keyword must be ASCII" );
+
+        this.commands.computeIfAbsent( _keyword, k -> new ArrayList<>( 1 ) ).add( new Command( Pattern.compile( _regexp ), _handler ) );
+        this.firstChars[ _keyword.charAt( 0 ) ] = true;
+        this.maxKeywordLength = Math.max( this.maxKeywordLength, _keyword.length() );
+        return this;
+    }
+
+    //==============================================================================
+    /**
+     *  @param _line can be null
+     *  @return true if the entire _line matches one of the registered REGEXPs (for the keyword that _line begins with)
+     */
+    public boolean isBuiltInCommand( final String _line ) {
+        final ArrayList<Command> candidates = this.candidates( _line );
+        if ( candidates == null ) return false;
+        for ( Command cmd: candidates )
+            if ( cmd.pattern.matcher( _line ).matches() ) return true;
+        return false;
+    }
+
+    /**
+     *  @param _line can be null
+     *  @return the keyword (as passed to {@link #register(String, String, Handler)}) if {@link #isBuiltInCommand(String)} is true for _line.  Else, null.
+     */
+    public String keywordOf( final String _line ) {
+        final String keyword = this.keyword( _line );
+        final ArrayList<Command> candidates = ( keyword == null ) ? null : this.commands.get( keyword );
+        if ( candidates == null ) return null;
+        for ( Command cmd: candidates )
+            if ( cmd.pattern.matcher( _line ).matches() ) return keyword;
+        return null;
+    }
+
+    /**
+     *  Finds the 1st registered REGEXP (for the keyword that _line begins with) that matches _line, and executes its handler.
+     *  @param _line can be null
+     *  @return true if a handler was executed, else false (that is, _line is NOT a built-in command)
+     *  @throws Exception whatever the handler throws
+     */
+    public boolean exec( final String _line ) throws Exception {
+        final ArrayList<Command> candidates = this.candidates( _line );
+        if ( candidates == null ) return false;
+        for ( Command cmd: candidates ) {
+            final Matcher matcher = cmd.pattern.matcher( _line );
+            if ( matcher.find() ) {
+                cmd.handler.exec( matcher );
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** @return null if _line does NOT begin with a registered keyword (followed by whitespace).  This looks at no more than the 1st few chars of _line (after any leading whitespace). */
+    private ArrayList<Command> candidates( final String _line ) {
+        final String keyword = this.keyword( _line );
+        return ( keyword == null ) ? null : this.commands.get( keyword );
+    }
+
+    /** @return null if _line does NOT begin with a word (followed by whitespace) that COULD be a registered keyword.  Else, that word. */
+    private String keyword( final String _line ) {
+        if ( _line == null ) return null;
+        final int len = _line.length();
+        int begin = 0;
+        while ( begin < len && ConfigFileLexer.isWS( _line.charAt( begin ) ) ) begin ++;
+        if ( begin >= len ) return null;
+        final char c = _line.charAt( begin );
+        if ( c >= 128 || !  this.firstChars[ c ] ) return null; // the vast majority of lines are rejected right here.
+
+        final int limit = Math.min( len, begin + this.maxKeywordLength + 1 ); // No need to look any further, for the whitespace after the keyword
+        int end = begin;
+        while ( end < limit &&  !  ConfigFileLexer.isWS( _line.charAt( end ) ) ) end ++;
+        if ( end >= limit ) return null; // No whitespace after the 1st word, or the 1st word is too long to be a keyword
+        return _line.substring( begin, end );
+    }
+
+    /** @return the # of chars (starting at _begin) up to the 1st whitespace (as in REGEXP '\\s') or the end of _s */
+    private static int keywordLength( final String _s, final int _begin ) {
+        int ix = _begin;
+        while ( ix < _s.length() &&  !  ConfigFileLexer.isWS( _s.charAt( ix ) ) ) ix ++;
+        return ix - _begin;
+    }
+
+    @Override
+    public String toString() {
+        return CLASSNAME +": keywords="+ this.commands.keySet();
+    }
+
+}
@@ -0,0 +1,486 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>A script (as {@link ScriptFileScanner} sees it), COMPILED into an immutable list of {@link Instruction}s - one per line.
+ *     Each line's 'echo' prefix, its built-in command (if any) and its macro-expressions are detected/parsed just ONCE, so that the same script can be run over-n-over (each time, against a different set of properties).</p>
+ *  <p>Use {@link #newExecutor(boolean, LinkedHashMap)} to run it.  The {@link Executor} has the same hasNextLine()/nextLine() loop as {@link ScriptFileScanner} - with the same output (from 'echo', 'print' and 'sleep'), the same changes to the properties (from 'setProperty' and 'properties') and the same {@link Executor#getState()}.</p>
+ *  <p>Macros are still evaluated LATE (that is, as each line is executed), as a 'setProperty' can change what the rest of the script sees - but from the {@link MacroTemplate} parsed while compiling (the line is NOT parsed again).
+ *     An 'include'd file can only be compiled when that 'include' is executed.  It is then re-used, for as long as {@link ParsedFileCache#SHARED} returns the same lines for that file.<br>
+ *     ATTENTION: that cache is disabled by default.  In which case, every 'include'd file is read and compiled afresh - every time its 'include' is executed, in every run.  Enable it (see {@link ParsedFileCache#MAXBYTES_PROPERTY}) to avoid that.</p>
+ *  <p>Instances are immutable and thread-safe.  An {@link Executor} is NOT thread-safe, but any # of them can run the same script concurrently.</p>
+ */
+public final class CompiledScript {
+
+    public static final String CLASSNAME = CompiledScript.class.getName();
+
+    /** What a line of the script does */
+    public enum Op {
+        /** a line that is returned by {@link Executor#nextLine()} */
+        PLAIN( null, null ),
+        /** same as PLAIN, but the line has an 'echo' prefix */
+        ECHO( null, null ),
+        INCLUDE( "include", ConfigFileScannerL3.REGEXP_INCLUDE ),
+        PRINT( "print", ConfigFileScannerL3.REGEXP_PRINT ),
+        SLEEP( "sleep", ScriptFileScanner.REGEXP_SLEEP ),
+        SET_PROPERTY( "setProperty", ScriptFileScanner.REGEXP_SETPROP ),
+        PROPERTIES( "properties", ScriptFileScanner.REGEXP_PROPSFILE );
+
+        /** null for PLAIN and ECHO */
+        public final String keyword;
+        private final Pattern pattern;
+
+        Op( final String _keyword, final String _regexp ) {
+            this.keyword = _keyword;
+            this.pattern = ( _regexp == null ) ? null : Pattern.compile( _regexp );
+        }
+
+        /** @return true, if this is one of the built-in commands (which are executed by {@link Executor#hasNextLine()}, and are never returned by {@link Executor#nextLine()}) */
+        public boolean isBuiltInCommand() { return this.keyword != null; }
+    }
+
+    /** The built-in commands of {@link ScriptFileScanner} (in the same order).  Used ONLY to detect them, while compiling. */
+    private static final BuiltInCommands COMMANDS = new BuiltInCommands();
+    static {
+        for ( Op op: Op.values() )
+            if ( op.isBuiltInCommand() )
+                COMMANDS.register( op.keyword, op.pattern.pattern(), m -> { throw new IllegalStateException( CLASSNAME +": built-in commands are executed by "+ Executor.class.getName() ); } );
+    }
+
+    //--------------------------------------------------------
+    /** A single line of the script, compiled */
+    public static final class Instruction {
+        public final Op op;
+        /** whether the line has an 'echo' prefix (whether it's a built-in command or Not) */
+        public final boolean echoed;
+        /** the line # as humans see it in a text-editor */
+        public final int origLineNum;
+        /** the line as-is (after removal of comments, etc..) */
+        public final String line;
+
+        /** this.line, without any 'echo' prefix */
+        private final String withoutEcho;
+        /** the macro-expressions within this.line, already split into segments */
+        private final MacroTemplate template;
+        /** Same as this.template, but for this.withoutEcho (which is what gets echoed).  null, unless the line is echoed and has macros */
+        private final MacroTemplate echoTemplate;
+        /** For a built-in command WITHOUT macros: the groups of op.pattern (matched ONCE, while compiling).  Else null. */
+        private final String[] args;
+
+        private Instruction( final String _line, final int _origLineNum ) {
+            this.line = _line;
+            this.origLineNum = _origLineNum;
+            this.echoed = ConfigFileScannerL3.checkForEchoPrefix( false, _line );
+            this.withoutEcho = ConfigFileScannerL3.removeEchoPrefix( _line );
+            this.template = MacroTemplate.of( _line );
+            this.echoTemplate = ( this.echoed && this.hasMacros() ) ? MacroTemplate.of( this.withoutEcho ) : null;
+
+            final String keyword = COMMANDS.keywordOf( this.withoutEcho );
+            Op o = this.echoed ? Op.ECHO : Op.PLAIN;
+            for ( Op op: Op.values() )
+                if ( op.isBuiltInCommand() && op.keyword.equals( keyword ) ) o = op;
+            this.op = o;
+            this.args = ( this.op.isBuiltInCommand() &&  !  this.hasMacros() ) ? Instruction.match( this.op, this.withoutEcho ) : null;
+        }
+
+        /** @return true if this line has macro-expressions (that is, ${ASUX::___}) */
+        public boolean hasMacros() {
+            return this.template.getVariableCount() > 0;
+        }
+
+        /** @return the groups of _op.pattern, if found within _line.  Else null */
+        private static String[] match( final Op _op, final String _line ) {
+            final Matcher matcher = _op.pattern.matcher( _line );
+            if (  !  matcher.find() ) return null;
+            final String[] retval = new String[ matcher.groupCount() ];
+            for ( int ix = 0; ix < retval.length; ix ++ )
+                retval[ix] = matcher.group( ix + 1 );
+            return retval;
+        }
+
+        /** @return what {@link ConfigFileScannerL3#currentLine()} would return for this line: macros evaluated and 'echo' prefix removed */
+        private String eval( final boolean _verbose, final LinkedHashMap<String,Properties> _propsSet ) throws Macros.MacroException {
+            if (  !  this.hasMacros() ) return this.withoutEcho;
+            return ConfigFileScannerL3.removeEchoPrefix( Macros.evalThoroughly( _verbose, this.template, _propsSet ) );
+        }
+
+        @Override
+        public String toString() {
+            return this.op +( this.echoed ? "(echo)" : "" ) +" @ line# "+ this.origLineNum +" = ["+ this.line +"]";
+        }
+    }
+
+    //--------------------------------------------------------
+    /** see {@link ConfigFileScanner#getFileName()} */
+    private final String fileName;
+    /** What this was compiled from.  Used ONLY to check whether an 'include'd file has changed (see {@link #compileIncluded(String, ConfigFileScannerL3)}) */
+    private final LineTable lines;
+    private final boolean ok2TrimWhiteSpace;
+    private final boolean bCompressWhiteSpace;
+    private final Instruction[] instructions;
+
+    /** The files 'include'd (directly or indirectly), compiled the 1st time they were included.  Shared with ALL of those files.  key = file-name (as within the 'include' command, after evaluating macros) */
+    private final ConcurrentHashMap<String,CompiledScript> included;
+
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+
+    private CompiledScript( final String _fileName, final LineTable _lines, final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace,
+                            final ConcurrentHashMap<String,CompiledScript> _included )
+    {
+        this.fileName = _fileName;
+        this.lines = _lines;
+        this.ok2TrimWhiteSpace = _ok2TrimWhiteSpace;
+        this.bCompressWhiteSpace = _bCompressWhiteSpace;
+        this.included = _included;
+        this.instructions = new Instruction[ _lines.size() ];
+        for ( int ix = 0; ix < this.instructions.length; ix ++ )
+            this.instructions[ix] = new Instruction( _lines.get( ix ), _lines.origLineNum( ix ) );
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  @param _scanner NotNull, and opened via {@link ConfigFileScanner#openFile(Object, boolean, boolean)} or {@link ConfigFileScanner#openPrecompiled(String, boolean, boolean)}.  Its position does NOT matter (and is NOT changed).
+     *  @return a NotNull compiled version of ALL the lines of _scanner.  'include'd files are compiled with the same trim/compress settings as _scanner.
+     *  @throws IllegalStateException if _scanner was NOT opened, or was opened in streaming-mode
+     */
+    public static CompiledScript compile( final ConfigFileScanner _scanner ) throws IllegalStateException {
+        final String HDR = CLASSNAME +": compile(): ";
+        if ( _scanner.fileName == null )
+            throw new IllegalStateException( HDR +"the scanner has NOT been opened" );
+        if ( _scanner.isStreaming() )
+            throw new IllegalStateException( HDR +"Not possible in streaming-mode ("+ _scanner.getFileName() +")" );
+        return new CompiledScript( _scanner.getFileName(), _scanner.lines, _scanner.ok2TrimWhiteSpace, _scanner.bCompressWhiteSpace, new ConcurrentHashMap<>() );
+    }
+
+    /**
+     *  @param _input see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}.  The default delimiter is used (to use another, open a scanner yourself and use {@link #compile(ConfigFileScanner)})
+     *  @param _ok2TrimWhiteSpace see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}
+     *  @param _bCompressWhiteSpace see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}
+     *  @return a NotNull compiled version of the script
+     *  @throws java.io.FileNotFoundException If filename passed as '@...' does Not exist.
+     *  @throws java.io.IOException any trouble reding the file passed in as '@...'
+     *  @throws Exception any other trouble reading _input
+     */
+    public static CompiledScript compile( final Object _input, final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace )
+                                throws java.io.FileNotFoundException, java.io.IOException, Exception
+    {
+        final ConfigFileScannerL3 scanner = new ConfigFileScannerL3( false );
+        if (  !  scanner.openFile( _input, _ok2TrimWhiteSpace, _bCompressWhiteSpace ) )
+            throw new Exception( CLASSNAME +": compile(): Unable to read "+ _input );
+        return CompiledScript.compile( scanner );
+    }
+
+    //===========================================================================
+    /** @return the compiled version of the file that _scanner just opened, for the 'include _name' command */
+    private CompiledScript compileIncluded( final String _name, final ConfigFileScannerL3 _scanner ) {
+        final CompiledScript cached = this.included.get( _name );
+        if ( cached != null && cached.lines == _scanner.lines ) // ParsedFileCache returns the very same LineTable, unless the file has changed
+            return cached;
+        final CompiledScript retval = new CompiledScript( _scanner.getFileName(), _scanner.lines, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace, this.included );
+        this.included.put( _name, retval );
+        return retval;
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** @return see {@link ConfigFileScanner#getFileName()} */
+    public String getFileName() { return this.fileName; }
+
+    /** @return # of lines (that is, # of instructions) */
+    public int size() { return this.instructions.length; }
+
+    /**
+     *  @param _ix 0-based index (Not the line # as humans see it)
+     *  @return NotNull
+     *  @throws IndexOutOfBoundsException if _ix is invalid
+     */
+    public Instruction get( final int _ix ) throws IndexOutOfBoundsException { return this.instructions[ _ix ]; }
+
+    /**
+     *  @param _verbose Whether you want deluge of debug-output onto System.out.
+     *  @param _propsSet the properties to run against - just like the one passed to {@link ScriptFileScanner#ScriptFileScanner(boolean, LinkedHashMap)}.  NotNull, with a Properties labelled {@link ScriptFileScanner#GLOBALVARIABLES} (see {@link ScriptFileScanner#initProperties()}).  It WILL be modified by 'setProperty' and 'properties' commands.
+     *  @return a NotNull new Executor, positioned before the 1st line of this script
+     */
+    public Executor newExecutor( final boolean _verbose, final LinkedHashMap<String,Properties> _propsSet ) {
+        return new Executor( this, _verbose, _propsSet );
+    }
+
+    @Override
+    public String toString() {
+        return CLASSNAME +"["+ this.fileName +": "+ this.instructions.length +" lines]";
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>Runs a {@link CompiledScript}, exactly as {@link ScriptFileScanner} would run the script it was compiled from.  That is:</p>
+     *  <ul><li>{@link #hasNextLine()} executes the built-in commands ('include', 'print', 'sleep', 'setProperty' and 'properties') - until it finds a line that is NOT a built-in command.</li>
+     *      <li>{@link #nextLine()} returns that line (after evaluating macros and removing the 'echo' prefix).</li>
+     *      <li>Lines with an 'echo' prefix are echoed (both as-is, and after evaluating macros) as they're stepped thru.</li></ul>
+     *  <p>Like the scanner, this steps thru the 'include'd files transparently.  {@link #getState()} refers to the innermost file being executed.</p>
+     */
+    public static final class Executor {
+
+        private final boolean verbose;
+        private final LinkedHashMap<String,Properties> propsSetRef;
+        private OutputSink output = OutputSink.SYSTEM_OUT;
+
+        /** A file being executed.  lineNum is just like {@link ConfigFileScanner#getLineNum()} */
+        private static final class Frame {
+            final CompiledScript script;
+            int lineNum = 0;
+            Frame( final CompiledScript _script ) { this.script = _script; }
+        }
+
+        /** frames.get(0) is the top-level script.  Each 'include' adds a Frame (which is removed, when that file has No more lines) */
+        private final ArrayList<Frame> frames = new ArrayList<>();
+
+        //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+
+        private Executor( final CompiledScript _script, final boolean _verbose, final LinkedHashMap<String,Properties> _propsSet ) {
+            this.verbose = _verbose;
+            this.propsSetRef = _propsSet;
+            this.frames.add( new Frame( _script ) );
+        }
+
+        private Frame current() {
+            return this.frames.get( this.frames.size() - 1 );
+        }
+
+        //==============================================================================
+        /** See {@link ScriptFileScanner#hasNextLine()}
+         *  @return true or false
+         *  @throws java.io.FileNotFoundException If we encounter a 'include' or 'properties' built-in command and the filename passed as '@...' does Not exist.
+         *  @throws java.io.IOException If we encounter a 'include' built-in command and there is any trouble reding the included-file passed in as '@...'
+         *  @throws java.lang.Exception any trouble executing the built-in commands (incl. evaluating the macros within them)
+         */
+        public boolean hasNextLine() throws java.io.FileNotFoundException, java.io.IOException, Exception
+        {
+            while ( true ) {
+                final Frame frame = this.current();
+                if ( frame.lineNum >= frame.script.instructions.length ) {
+                    if ( this.frames.size() <= 1 ) {
+                        this.output.flush(); // just like ConfigFileScannerL3.hasNextLine()
+                        return false;
+                    }
+                    this.frames.remove( this.frames.size() - 1 ); // we are DONE with the 'included' file.. we need to look at the next row in the file that included it.
+                    continue;
+                }
+                final Instruction instr = frame.script.instructions[ frame.lineNum ];
+                if (  !  instr.op.isBuiltInCommand() )
+                    return true;
+                this.advance( frame );
+                this.execBuiltInCommand( instr );
+            }
+        }
+
+        /** See {@link ScriptFileScanner#nextLine()}
+         *  @return the next line (after evaluating macros and removing the 'echo' prefix)
+         *  @throws NoSuchElementException if there are No more lines (in the file being executed)
+         *  @throws Exception if the macros within the line can NOT be evaluated (example: cyclic definitions)
+         */
+        public String nextLine() throws NoSuchElementException, Exception
+        {
+            final Frame frame = this.current();
+            if ( frame.lineNum >= frame.script.instructions.length )
+                throw new NoSuchElementException( CLASSNAME +": nextLine(): No more lines in "+ frame.script.fileName ); // just like java.util.Iterator.next() would.
+            this.advance( frame );
+            return this.currentLine();
+        }
+
+        /** See {@link ConfigFileScannerL3#currentLine()}
+         *  @return the current-line (after evaluating macros and removing the 'echo' prefix)
+         *  @throws Exception if nextLine() has NOT been invoked yet, or if the macros within the line can NOT be evaluated (example: cyclic definitions)
+         */
+        public String currentLine() throws Exception
+        {
+            final Frame frame = this.current();
+            if ( frame.lineNum <= 0 )
+                throw new Exception( CLASSNAME +": currentLine(): invalid currentLineNum=" + frame.lineNum +".  Debug details: state="+ this.getState() );
+            return frame.script.instructions[ frame.lineNum - 1 ].eval( this.verbose, this.propsSetRef );
+        }
+
+        /** @return NotNull.  See {@link #setOutput(OutputSink)} */
+        public OutputSink getOutput() { return this.output; }
+
+        /** See {@link ConfigFileScanner#setOutput(OutputSink)}
+         *  @param _output NotNull.  Where the 'echo' prefix and the 'print' command write to.  Default is {@link OutputSink#SYSTEM_OUT}.
+         */
+        public void setOutput( final OutputSink _output ) {
+            if ( _output == null ) throw new IllegalArgumentException( CLASSNAME +": setOutput(): null" );
+            this.output = _output;
+        }
+
+        /** @return See {@link ConfigFileScannerL3#isLine2bEchoed()}.  Just like the scanner, this looks only 1 level deep.  That is, for a file 'include'd by an 'include'd file, this is about the 'include' line that included it. */
+        public boolean isLine2bEchoed() {
+            final Frame frame = this.frames.get( Math.min( 1, this.frames.size() - 1 ) );
+            return frame.lineNum > 0 && frame.script.instructions[ frame.lineNum - 1 ].echoed;
+        }
+
+        /** @return See {@link ConfigFileScannerL3#getState()}.  Something like: File-name: 'mapsBatch1.txt' @ line# 2 = [line contents as-is] */
+        public String getState() {
+            final Frame frame = this.current();
+            if ( frame.lineNum <= 0 )
+                return ConfigFileScanner.getState( frame.script.fileName, frame.lineNum, -1, null );
+            final Instruction instr = frame.script.instructions[ frame.lineNum - 1 ];
+            return ConfigFileScanner.getState( frame.script.fileName, frame.lineNum, instr.origLineNum, instr.line );
+        }
+
+        //==============================================================================
+        //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+        //==============================================================================
+
+        /** Moves to the next line, and echoes it (if it has an 'echo' prefix) - exactly like ConfigFileScannerL3.evalMacroAndEcho() */
+        private void advance( final Frame _frame ) throws Macros.MacroException, java.io.IOException
+        {
+            _frame.lineNum ++;
+            final Instruction instr = _frame.script.instructions[ _frame.lineNum - 1 ];
+            if (  !  instr.echoed ) return;
+
+            final String preMacroStr = instr.withoutEcho;
+            final String currLnNoMacro = ( instr.echoTemplate != null ) ? Macros.evalThoroughly( this.verbose, instr.echoTemplate, this.propsSetRef ) : preMacroStr;
+            if ( currLnNoMacro.equals( preMacroStr ) ) {
+                this.output.println("\tEcho: " + preMacroStr);
+            } else {
+                this.output.println("\tEcho (As-Is): " + preMacroStr);
+                this.output.println("\tEcho (Macros-substituted): " + ConfigFileScannerL3.removeEchoPrefix( currLnNoMacro ) );
+            }
+        }
+
+        //==============================================================================
+        /** See {@link ConfigFileScannerL3#execBuiltInCommand()} and {@link ScriptFileScanner#registerBuiltInCommands(BuiltInCommands)} */
+        private void execBuiltInCommand( final Instruction _instr ) throws java.io.FileNotFoundException, java.io.IOException, Exception
+        {
+            final String HDR = CLASSNAME +": execBuiltInCommand(): ";
+            final String line = this.currentLine();
+            if ( this.verbose ) System.out.println( HDR + this.getState() +"\n\t\tline="+ line );
+
+            if ( line == null || line.trim().length() <= 0 )
+                throw new Exception("Serious internal error: We have line='"+ line +"'.\nERROR in"+ this.getState() );
+
+            final String[] args = ( _instr.args != null ) ? _instr.args : Instruction.match( _instr.op, line ); // the arguments can change, ONLY if there are macros
+            if ( args == null )
+                throw new Exception( HDR +"After evaluating macros, '"+ line +"' is NOT a valid '"+ _instr.op.keyword +"' command.  See "+ this.getState() );
+
+            switch( _instr.op ) {
+                case INCLUDE:
+                    final CompiledScript script = this.current().script;
+                    final ConfigFileScannerL3 scanner = ConfigFileScannerL3.openIncludedFile( this.verbose, this.propsSetRef, args[0], script.ok2TrimWhiteSpace, script.bCompressWhiteSpace );
+                    this.frames.add( new Frame( script.compileIncluded( args[0], scanner ) ) );
+                    break;
+                case PRINT:         ConfigFileScannerL3.print( this.output, args[0] ); break;
+                case SLEEP:         ScriptFileScanner.sleep( this.verbose, this.output, Integer.parseInt( args[0] ) ); break;
+                case SET_PROPERTY:  ScriptFileScanner.setProperty( this.verbose, this.propsSetRef, args[0], args[1], this::getState ); break;
+                case PROPERTIES:    ScriptFileScanner.loadProperties( this.verbose, this.propsSetRef, args[0], args[1], this::getState ); break;
+                default:
+                    throw new IllegalStateException( HDR +"Not a built-in command: "+ _instr );
+            }
+        }
+
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>For unit-testing purposes only.  Runs the script via an {@link Executor} and via a {@link ScriptFileScanner} (each against its own {@link ScriptFileScanner#initProperties()}),
+     *     and prints what the Executor did (the output of 'echo'/'print', the lines returned by nextLine() and the resulting GLOBAL.VARIABLES) - and whether the scanner did exactly the same.</p>
+     *  @param args [--verbose] @scriptFile
+     */
+    public static void main(String[] args) {
+        final String HDR = CLASSNAME + ": main(): ";
+        try {
+            boolean verbose = false;
+            int ix = 0;
+            if ( "--verbose".equals(args[0]) ) {
+                ix ++;
+                verbose = true;
+            }
+            final String script = args[ix];
+
+            final StringBuilder executed = new StringBuilder();
+            final LinkedHashMap<String,Properties> props1 = ScriptFileScanner.initProperties();
+            final Executor x = CompiledScript.compile( script, true, true ).newExecutor( verbose, props1 );
+            final OutputSink out1 = OutputSink.buffered( executed, OutputSink.DEFAULT_BUFFER_SIZE );
+            x.setOutput( out1 );
+            while ( x.hasNextLine() ) {
+                final String line = x.nextLine();
+                out1.flush();
+                executed.append( "nextLine()= [" ).append( line ).append( "] @ " ).append( x.getState() ).append( '\n' );
+            }
+            executed.append( "GLOBAL.VARIABLES= " ).append( new java.util.TreeMap<>( props1.get( ScriptFileScanner.GLOBALVARIABLES ) ) ).append( '\n' );
+
+            final StringBuilder scanned = new StringBuilder();
+            final LinkedHashMap<String,Properties> props2 = ScriptFileScanner.initProperties();
+            final ScriptFileScanner o = new ScriptFileScanner( verbose, props2 );
+            final OutputSink out2 = OutputSink.buffered( scanned, OutputSink.DEFAULT_BUFFER_SIZE );
+            o.setOutput( out2 );
+            o.openFile( script, true, true );
+            while ( o.hasNextLine() ) {
+                final String line = o.nextLine();
+                out2.flush();
+                scanned.append( "nextLine()= [" ).append( line ).append( "] @ " ).append( o.getState() ).append( '\n' );
+            }
+            scanned.append( "GLOBAL.VARIABLES= " ).append( new java.util.TreeMap<>( props2.get( ScriptFileScanner.GLOBALVARIABLES ) ) ).append( '\n' );
+
+            System.out.print( executed );
+            final boolean same = executed.toString().equals( scanned.toString() );
+            System.out.println( "Same as "+ ScriptFileScanner.class.getName() +": "+ same );
+            if (  !  same ) System.out.print( scanned );
+		} catch (Exception e) {
+			e.printStackTrace(System.err); // main().  For Unit testing
+			System.err.println( HDR + "Unexpected Internal ERROR, while processing " + ((args==null || args.length<=0)?"[No CmdLine Args":args[0]) +"]" );
+			System.exit(91); // This is a serious failure. Shouldn't be happening.
+        }
+    }
+
+}
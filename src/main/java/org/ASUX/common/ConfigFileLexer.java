@@ -0,0 +1,225 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>This class is a hand-written, single-pass, character-level lexer that does ALL of the following to ONE line - without any REGEXP and without any intermediate Strings:</p>
+ *  <ul><li>compression of whitespace (equivalent to <code>line.replaceAll("\\s\\s+", " ")</code>)</li>
+ *      <li>skipping empty/whitespace-only lines</li>
+ *      <li>skipping lines that begin with '#', '//' or '--'</li>
+ *      <li>stripping trailing comments that begin with '#' or '//' (along with the whitespace preceding them)</li>
+ *      <li>trimming of leading and trailing whitespace (equivalent to String.trim())</li></ul>
+ *  <p>The results are IDENTICAL (character for character) to what the older REGEXP-based implementation produced, incl. its quirks (see comments within the code).</p>
+ *  <p>The compression happens in-place within a reusable char-buffer, and everything after that is just bookkeeping of a [begin,end) range within that buffer.  The only object created per surviving line is the final String (and not even that, when writing into a {@link LineTable.Builder}).</p>
+ *  <p>This class is NOT thread-safe.  Each {@link ConfigFileLineReader} has its own instance.</p>
+ */
+public class ConfigFileLexer {
+
+    public static final String CLASSNAME = ConfigFileLexer.class.getName();
+
+    //--------------------------------------------------------
+    private final boolean ok2TrimWhiteSpace;
+    private final boolean bCompressWhiteSpace;
+
+    private char[] buf = new char[ 256 ];
+    private int begin = 0;  // result of lexInPlace() is the range [begin,end) within this.buf
+    private int end = 0;
+
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+
+    /** <p>The only constructor - public/private/protected</p>
+     *  @param _ok2TrimWhiteSpace true or false, whether to REMOVE any leading and trailing whitespace.  Example: For YAML processing, trimming is devastating.
+     *  @param _bCompressWhiteSpace whether to replace multiple successive whitespace characters with a single space.
+     */
+    public ConfigFileLexer( final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace ) {
+        this.ok2TrimWhiteSpace = _ok2TrimWhiteSpace;
+        this.bCompressWhiteSpace = _bCompressWhiteSpace;
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>Use this to avoid creating a String for the raw line.  Fill the returned array (from index 0), and then invoke {@link #lex(int)}.</p>
+     *  @param _minCapacity the # of chars that the caller intends to write into the returned array
+     *  @return the lexer's own internal (reusable) buffer, whose length is at least _minCapacity
+     */
+    public char[] buffer( final int _minCapacity ) {
+        if ( this.buf.length < _minCapacity )
+            this.buf = new char[ Math.max( _minCapacity, this.buf.length * 2 ) ];
+        return this.buf;
+    }
+
+    /**
+     *  @param _rawLine a NotNull raw line (as read from the file)
+     *  @return null if the line is to be skipped (it's empty or a comment), else the line after stripping comments and whitespace
+     */
+    public String lex( final String _rawLine ) {
+        final int len = _rawLine.length();
+        _rawLine.getChars( 0, len, this.buffer( len ), 0 );
+        return this.lex( len );
+    }
+
+    /**
+     *  @param _len the # of chars of the raw line, that have been placed (starting at index 0) into the array returned by {@link #buffer(int)}
+     *  @return null if the line is to be skipped (it's empty or a comment), else the line after stripping comments and whitespace
+     */
+    public String lex( final int _len ) {
+        return this.lexInPlace( _len ) ? new String( this.buf, this.begin, this.end - this.begin ) : null;
+    }
+
+    /**
+     *  <p>Same as {@link #lex(int)}, but the result is appended to the given Builder - so No String is created at all.</p>
+     *  @param _len the # of chars of the raw line, that have been placed (starting at index 0) into the array returned by {@link #buffer(int)}
+     *  @param _dst NotNull
+     *  @param _origLineNum the line-number (as humans see it in a text-editor, starting from 1) of the raw line
+     *  @return false if the line is to be skipped (it's empty or a comment), else true (after appending to _dst)
+     */
+    public boolean lex( final int _len, final LineTable.Builder _dst, final int _origLineNum ) {
+        if (  !  this.lexInPlace( _len ) ) return false;
+        _dst.add( this.buf, this.begin, this.end - this.begin, _origLineNum );
+        return true;
+    }
+
+    //===========================================================================
+    /**
+     *  The actual lexer.  The result is the range [this.begin, this.end) within this.buf
+     *  @param _len the # of chars of the raw line, that have been placed (starting at index 0) into this.buf
+     *  @return false if the line is to be skipped (it's empty or a comment)
+     */
+    private boolean lexInPlace( int _len ) {
+        final char[] b = this.buf;
+
+        // 1. replaceAll("\\s\\s+", " ") - a run of 2 or more whitespace chars becomes a single space.  A run of exactly 1 whitespace char is left as-is (it could be a TAB).
+        if ( this.bCompressWhiteSpace ) {
+            int w = 0;
+            for ( int r = 0; r < _len; ) {
+                if ( isWS( b[r] ) && r + 1 < _len && isWS( b[r+1] ) ) {
+                    r += 2;
+                    while ( r < _len && isWS( b[r] ) ) r ++;
+                    b[ w++ ] = ' ';
+                } else {
+                    b[ w++ ] = b[ r++ ];
+                }
+            }
+            _len = w;
+        }
+
+        // 2. Empty line? ('^\\s*$')
+        if ( this.isAllWS( 0, _len ) ) return false;
+
+        // 3. '^#.*'  '^//.*'  '^--.*'  Quirk: these REGEXPs fail to match if there are line-terminator chars anywhere in the line ('.' does Not match them)
+        if ( b[0] == '#' && this.hasNoLineTerminator( 1, _len ) ) return false;
+        if ( _len >= 2 ) {
+            if ( b[0] == '/' && b[1] == '/' && this.hasNoLineTerminator( 2, _len ) ) return false;
+            if ( b[0] == '-' && b[1] == '-' && this.hasNoLineTerminator( 2, _len ) ) return false;
+        }
+
+        int begin = 0;
+        int end = _len;
+
+        // 4. '\\s*#.*' - cut off from the whitespace preceding the 1st '#'.  Then trim.
+        for ( int ix = begin; ix < end; ix ++ ) {
+            if ( b[ix] == '#' ) {
+                end = this.backOverWS( begin, ix );
+                if ( this.ok2TrimWhiteSpace ) { begin = this.trimBegin( begin, end ); end = this.trimEnd( begin, end ); }
+                break;
+            }
+        }
+
+        // 5. '\\s*//.*' - cut off from the whitespace preceding the 1st '//' (of what remains after step 4).  Then trim.
+        for ( int ix = begin; ix + 1 < end; ix ++ ) {
+            if ( b[ix] == '/' && b[ix+1] == '/' ) {
+                end = this.backOverWS( begin, ix );
+                if ( this.ok2TrimWhiteSpace ) { begin = this.trimBegin( begin, end ); end = this.trimEnd( begin, end ); }
+                break;
+            }
+        }
+
+        // 6. after all the comment pre-processing above.. has the line become equivalent to empty-line?
+        if ( this.isAllWS( begin, end ) ) return false;
+
+        // 7. trim both leading and trailing whitespace
+        if ( this.ok2TrimWhiteSpace ) { begin = this.trimBegin( begin, end ); end = this.trimEnd( begin, end ); }
+
+        this.begin = begin;
+        this.end = end;
+        return true;
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** @return true if the char is what the REGEXP '\\s' matches: [ \t\n\x0B\f\r] */
+    public static boolean isWS( final char c ) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    /** @return true if the char is one of those that the REGEXP '.' does NOT match (by default) */
+    private static boolean isLineTerminator( final char c ) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private boolean isAllWS( final int _begin, final int _end ) {
+        for ( int ix = _begin; ix < _end; ix ++ )
+            if (  !  isWS( this.buf[ix] ) ) return false;
+        return true;
+    }
+
+    private boolean hasNoLineTerminator( final int _begin, final int _end ) {
+        for ( int ix = _begin; ix < _end; ix ++ )
+            if ( isLineTerminator( this.buf[ix] ) ) return false;
+        return true;
+    }
+
+    /** @return the start of the run of whitespace that immediately precedes _ix (but no further back than _begin) */
+    private int backOverWS( final int _begin, int _ix ) {
+        while ( _ix > _begin && isWS( this.buf[ _ix - 1 ] ) ) _ix --;
+        return _ix;
+    }
+
+    // String.trim() removes all chars whose codepoint is less than or equal to ' ' (which is NOT the same as '\\s')
+    private int trimBegin( int _begin, final int _end ) {
+        while ( _begin < _end && this.buf[ _begin ] <= ' ' ) _begin ++;
+        return _begin;
+    }
+    private int trimEnd( final int _begin, int _end ) {
+        while ( _end > _begin && this.buf[ _end - 1 ] <= ' ' ) _end --;
+        return _end;
+    }
+
+}
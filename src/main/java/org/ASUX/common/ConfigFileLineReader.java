@@ -0,0 +1,294 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.ASUX.common;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>This class is the 'engine' behind {@link ConfigFileScanner#openFile(Object, boolean, boolean)}.  It pulls one 'raw' line at a time from a java.util.Scanner (or, for files, from a {@link MappedFileLineSplitter}), strips comments and whitespace (via {@link ConfigFileLexer}), and hands back only the lines that survive (along with their ORIGINAL line-number, as humans see it in a text-editor).</p>
+ *  <p>It can be used in 2 ways:<ul><li>{@link #readNext()} to simply step thru the surviving lines (which is how openFile() loads everything into memory)</li>
+ *     <li>{@link #fill(int)}, {@link #get(int)} and {@link #discardBefore(int)} - to maintain a BOUNDED read-ahead window of lines (which is how {@link ConfigFileScanner#openFileStreaming(Object, boolean, boolean, int)} keeps memory flat, no matter how big the input is)</li></ul></p>
+ *  <p>Line-indexes used by the window-methods are 0-based and absolute (that is, the index of the line amongst ALL the surviving lines since the beginning of the input), so that callers never need to know what has been discarded.</p>
+ */
+public class ConfigFileLineReader implements java.io.Closeable {
+
+    public static final String CLASSNAME = ConfigFileLineReader.class.getName();
+
+    //--------------------------------------------------------
+    protected final boolean verbose;
+
+    private final java.util.Scanner scanner;         // exactly one of these 2 is Not-null
+    private final MappedFileLineSplitter splitter;
+
+    private final ConfigFileLexer lexer; // strips comments and whitespace
+
+    private int origLineNum = 0;        // # of raw lines read so far from this.scanner
+    private String line = null;         // result of the most recent readNext()
+    private int lineOrigLineNum = -1;   // the original line-number of 'this.line'
+
+    //--------------------------------------------------------
+    // the bounded read-ahead window (a circular buffer), used via fill(), get() and discardBefore()
+    private final String[] window;
+    private final int[] windowOrigLineNums;
+    private int windowBase = 0;     // absolute index of the oldest line still retained
+    private int windowCount = 0;    // # of lines currently retained
+    private boolean exhausted = false;
+
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+
+    /** <p>The only constructor - public/private/protected</p>
+     *  @param _verbose Whether you want deluge of debug-output onto System.out.
+     *  @param _scanner a NotNull java.util.Scanner, whose delimiter has already been set.  This object will close it, when {@link #close()} is invoked.
+     *  @param _ok2TrimWhiteSpace true or false, whether to REMOVE any leading and trailing whitespace.  Example: For YAML processing, trimming is devastating.
+     *  @param _bCompressWhiteSpace whether to replace multiple successive whitespace characters with a single space.
+     *  @param _readAheadWindow the maximum # of lines that will be retained in memory via {@link #fill(int)} (values less than 2 are treated as 2, as we need the current-line + the peeked-line)
+     */
+    public ConfigFileLineReader( final boolean _verbose, final java.util.Scanner _scanner,
+                                final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace, final int _readAheadWindow )
+    {
+        this( _verbose, _scanner, null, _ok2TrimWhiteSpace, _bCompressWhiteSpace, _readAheadWindow );
+    }
+
+    /** <p>Same as {@link #ConfigFileLineReader(boolean, java.util.Scanner, boolean, boolean, int)}, but reads from a memory-mapped file</p>
+     *  @param _verbose Whether you want deluge of debug-output onto System.out.
+     *  @param _splitter a NotNull {@link MappedFileLineSplitter}.  This object will close it, when {@link #close()} is invoked.
+     *  @param _ok2TrimWhiteSpace true or false, whether to REMOVE any leading and trailing whitespace.  Example: For YAML processing, trimming is devastating.
+     *  @param _bCompressWhiteSpace whether to replace multiple successive whitespace characters with a single space.
+     *  @param _readAheadWindow the maximum # of lines that will be retained in memory via {@link #fill(int)} (values less than 2 are treated as 2, as we need the current-line + the peeked-line)
+     */
+    public ConfigFileLineReader( final boolean _verbose, final MappedFileLineSplitter _splitter,
+                                final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace, final int _readAheadWindow )
+    {
+        this( _verbose, null, _splitter, _ok2TrimWhiteSpace, _bCompressWhiteSpace, _readAheadWindow );
+    }
+
+    private ConfigFileLineReader( final boolean _verbose, final java.util.Scanner _scanner, final MappedFileLineSplitter _splitter,
+                                final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace, final int _readAheadWindow )
+    {
+        this.verbose = _verbose;
+        this.scanner = _scanner;
+        this.splitter = _splitter;
+
+        this.lexer = new ConfigFileLexer( _ok2TrimWhiteSpace, _bCompressWhiteSpace );
+
+        final int sz = Math.max( 2, _readAheadWindow );
+        this.window = new String[ sz ];
+        this.windowOrigLineNums = new int[ sz ];
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  Reads raw lines from the java.util.Scanner (or the memory-mapped file), until one survives the removal of comments and empty-lines.
+     *  @return true if a line was read (see {@link #line()} and {@link #origLineNum()}), false if the end of input was reached.
+     */
+    public boolean readNext()
+    {   final String HDR = CLASSNAME +": readNext(): ";
+        while ( this.hasNextRaw() ) {
+            this.origLineNum ++;
+            final String line = this.lexer.lex( this.loadRaw( HDR ) );
+            if ( line == null ) continue; // comment or empty line
+
+            if ( this.verbose ) System.out.println( HDR +" TRIMMED line=[" + line +"]" );
+            this.line = line;
+            this.lineOrigLineNum = this.origLineNum;
+            return true;
+        }
+        // scanner.hasNext() only throws a RUNTIMEEXCEPTION: IllegalStateException - if this scanner is closed
+        // scanner.next() only throws a RUNTIMEEXCEPTION: NoSuchElementException - if no more tokens are available
+
+        this.line = null;
+        this.lineOrigLineNum = -1;
+        return false;
+    }
+
+    /**
+     *  <p>Same as {@link #readNext()}, except that the surviving line is appended to the given Builder - without creating a String for it.  {@link #line()} is NOT updated by this method.</p>
+     *  @param _dst NotNull
+     *  @return true if a line was appended, false if the end of input was reached.
+     */
+    public boolean readNextInto( final LineTable.Builder _dst )
+    {   final String HDR = CLASSNAME +": readNextInto(): ";
+        while ( this.hasNextRaw() ) {
+            this.origLineNum ++;
+            if (  !  this.lexer.lex( this.loadRaw( HDR ), _dst, this.origLineNum ) ) continue; // comment or empty line
+
+            if ( this.verbose ) System.out.println( HDR +" kept line # "+ this.origLineNum +" as entry # "+ _dst.size() );
+            this.line = null;
+            this.lineOrigLineNum = this.origLineNum;
+            return true;
+        }
+        this.line = null;
+        this.lineOrigLineNum = -1;
+        return false;
+    }
+
+    /**
+     *  Places the current raw line into the lexer's buffer - avoiding a String for the raw line whenever possible.
+     *  @return the # of chars placed into the lexer's buffer, or 0 if the line is trivially a comment or empty-line (which the lexer will reject immediately)
+     */
+    private int loadRaw( final String HDR ) {
+        if ( this.splitter != null && ! this.verbose ) {
+            if ( this.splitter.isTriviallySkippable() )
+                return 0; // No need to even look at the chars of this comment/empty line
+            if ( this.splitter.isAscii() ) {
+                // No need to create a String for the raw line.  Widen the bytes directly into the lexer's buffer.
+                final int len = this.splitter.length();
+                this.splitter.copyAscii( this.lexer.buffer( len ) );
+                return len;
+            }
+        }
+        final String raw = this.nextRaw();
+        if ( this.verbose ) System.out.println( HDR +"AS-IS line=[" + raw +"]" );
+        final int len = raw.length();
+        raw.getChars( 0, len, this.lexer.buffer( len ), 0 );
+        return len;
+    }
+
+    // For the memory-mapped file, hasNextRaw() moves onto the next line, and nextRaw() merely creates the String for it.
+    private boolean hasNextRaw() {
+        return ( this.splitter != null ) ? this.splitter.next() : this.scanner.hasNext();
+    }
+    private String nextRaw() {
+        return ( this.splitter != null ) ? this.splitter.string() : this.scanner.next();
+    }
+
+    /** @return the line read by the most-recent successful {@link #readNext()}, or null */
+    public String line() { return this.line; }
+
+    /** @return the line-number (as humans see it in a text-editor, starting from 1) of the line read by the most-recent successful {@link #readNext()}, or -1 */
+    public int origLineNum() { return this.lineOrigLineNum; }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  Makes sure the line at (absolute, 0-based) index _ix is in the read-ahead window, reading more input ONLY if necessary.
+     *  @param _ix 0-based absolute index (amongst all the surviving lines)
+     *  @return true if that line exists, false if the input ended before that line
+     *  @throws IllegalStateException if _ix refers to a line already discarded, or a line too far ahead (beyond the bounded window)
+     */
+    public boolean fill( final int _ix ) throws IllegalStateException
+    {   final String HDR = CLASSNAME +": fill("+ _ix +"): ";
+        if ( _ix < this.windowBase )
+            throw new IllegalStateException( HDR +"line has already been discarded from the read-ahead window, which currently starts at index "+ this.windowBase );
+        if ( _ix >= this.windowBase + this.window.length )
+            throw new IllegalStateException( HDR +"line is beyond the read-ahead window of "+ this.window.length +" lines, which currently starts at index "+ this.windowBase );
+
+        while ( _ix >= this.windowBase + this.windowCount ) {
+            if ( this.exhausted || ! this.readNext() ) {
+                this.exhausted = true;
+                return false;
+            }
+            final int slot = ( this.windowBase + this.windowCount ) % this.window.length;
+            this.window[ slot ] = this.line;
+            this.windowOrigLineNums[ slot ] = this.lineOrigLineNum;
+            this.windowCount ++;
+        }
+        return true;
+    }
+
+    /**
+     *  @param _ix 0-based absolute index, which must be within the read-ahead window (see {@link #fill(int)})
+     *  @return the line at that index
+     *  @throws IndexOutOfBoundsException if the line is Not within the read-ahead window
+     */
+    public String get( final int _ix ) throws IndexOutOfBoundsException {
+        return this.window[ this.slot( _ix ) ];
+    }
+
+    /**
+     *  @param _ix 0-based absolute index, which must be within the read-ahead window (see {@link #fill(int)})
+     *  @return the line-number (as humans see it in a text-editor, starting from 1) of the line at that index
+     *  @throws IndexOutOfBoundsException if the line is Not within the read-ahead window
+     */
+    public int origLineNum( final int _ix ) throws IndexOutOfBoundsException {
+        return this.windowOrigLineNums[ this.slot( _ix ) ];
+    }
+
+    /**
+     *  @param _ix 0-based absolute index
+     *  @return true if that line is currently retained within the read-ahead window
+     */
+    public boolean isInWindow( final int _ix ) {
+        return _ix >= this.windowBase && _ix < this.windowBase + this.windowCount;
+    }
+
+    /**
+     *  Releases all lines whose index is less than _ix, so that the window can move forward.
+     *  @param _ix 0-based absolute index
+     */
+    public void discardBefore( final int _ix ) {
+        while ( this.windowCount > 0 && this.windowBase < _ix ) {
+            this.window[ this.windowBase % this.window.length ] = null; // let GC do its thing
+            this.windowBase ++;
+            this.windowCount --;
+        }
+        if ( this.windowCount <= 0 && this.windowBase < _ix && this.exhausted )
+            this.windowBase = _ix;
+    }
+
+    /** @return the # of surviving lines read so far (whether or not they've been discarded since) */
+    public int count() { return this.windowBase + this.windowCount; }
+
+    /** @return true if the end of the input has been reached */
+    public boolean isExhausted() { return this.exhausted; }
+
+    /** @return the maximum # of lines that this object will retain in memory */
+    public int getReadAheadWindow() { return this.window.length; }
+
+    //===========================================================================
+    private int slot( final int _ix ) throws IndexOutOfBoundsException {
+        if (  !  this.isInWindow( _ix ) )
+            throw new IndexOutOfBoundsException( CLASSNAME +": line-index "+ _ix +" is Not within the read-ahead window ["+ this.windowBase +","+ (this.windowBase + this.windowCount) +")" );
+        return _ix % this.window.length;
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** Closes the underlying java.util.Scanner (and hence the InputStream it was reading) or the memory-mapped file */
+    @Override
+    public void close() {
+        if ( this.splitter != null ) {
+            try { this.splitter.close(); } catch( java.io.IOException e ) { if ( this.verbose ) e.printStackTrace(System.out); } // nothing else we can do about it
+        } else {
+            this.scanner.close();
+        }
+        this.exhausted = true;
+    }
+
+}
@@ -34,10 +34,6 @@ package org.ASUX.common;
 
 import org.ASUX.common.Tuple;
 
-import java.util.regex.*;
-import java.util.ArrayList;
-import java.util.Iterator;
-
 import java.io.InputStream;
 import java.io.FileInputStream;
 import java.io.ByteArrayOutputStream;
@@ -52,14 +48,14 @@ import static org.junit.Assert.*;
  *  This class and its subclasses ({@link ScriptFileScanner} and {@link PropertiesFileScanner}) are key to the org.ASUX projects.</p>
  *  <p><b>Strongly recommend you use  {@link PropertiesFileScanner}, {@link ScriptFileScanner} or  {@link OSScriptFileScanner}</b> instead of this class, unless you need something very specifically limited in capability.</p>
  *  <p>This class represents a bunch of tools, to help make it easy to work with the <em>Configuration</em> and <em>Property</em> files + allowing those file to be very human-friendly w.r.t .comments etc...<br>
- *  This class immediately loads the entire contents into Memory ({@link #openFile(Object, boolean, boolean)}), and offers the ability to {@link #deepClone(ConfigFileScanner)} itself (which is a fantastic feature for recursions/loops, as very well demonstrated by subclasses like BatchFileGrammer/BatchFileProcessor of org.ASUX.YAML project).</p>
+ *  This class immediately loads the entire contents into Memory ({@link #openFile(Object, boolean, boolean)}) - unless you opt for the streaming-mode ({@link #openFileStreaming(Object, boolean, boolean, int)}) with its bounded read-ahead window - and offers the ability to {@link #deepClone(ConfigFileScanner)} itself (which is a fantastic feature for recursions/loops, as very well demonstrated by subclasses like BatchFileGrammer/BatchFileProcessor of org.ASUX.YAML project).</p>
  *  <p>This class implements _ONLY_ the line-based interface of java.util.Scanner ({@link #hasNextLine()}, {@link #nextLine()}, {@link #delimiter()}, {@link #useDelimiter(String)}).<br>
  *    In addition, there are important enhancements like '<em>{@link #currentLine()}, {@link #getCommandCount()}, {@link #getLineNum()}, {@link #getState()}</em>', which help with showing error-messages &amp; stats regarding the Configuration-file being processed.</p>
- *  <p>In addition, this offers the ability to 'peek ahead' {@link #peekNextLine()}, to see what's on the next line, without have to invoke hasNextLine(), nextLine() .. and the ability to {@link #rewind()} to the beginning of the file and start scanning all over again.  To efficiently re-use Java objects, you can take advantage of {@link #reset()}, which will force you to invoke {@link #openFile(Object, boolean, boolean)} again before you can use an existing object of this class.</p>
+ *  <p>In addition, this offers the ability to 'peek ahead' {@link #peekNextLine()}, to see what's on the next line, without have to invoke hasNextLine(), nextLine() .. and the ability to {@link #rewind()} to the beginning of the file and start scanning all over again (or jump anywhere in constant-time, via {@link #seekToLine(int)}, {@link #mark()} and {@link #resetToMark()}).  To efficiently re-use Java objects, you can take advantage of {@link #reset()}, which will force you to invoke {@link #openFile(Object, boolean, boolean)} again before you can use an existing object of this class.</p>
  *  <p>Finally, the class offers you, both the right-way and wrong-way :-) .. to handle errors within Config-files.  For the right-way, it will throw Exceptions (from nextLine(), currentLine()).  ALternatively, if you'd prefer NO Exceptions, and instead prefer to have 'null' returned, you can use the 'NotNull' variant methods: {@link #nextLineOrNull()} and {@link #currentLineOrNull()}</p>
  *  <p>There are many protected methods (like: ), that can be leveraged by sub-classes.  To better understand how to do that, spend time to understand {@link ConfigFileScannerL2}, {@link PropertiesFileScanner} and {@link ScriptFileScanner}</p>
  */
-public abstract class ConfigFileScanner implements java.io.Serializable {
+public abstract class ConfigFileScanner implements java.io.Serializable, Cloneable {
 
     private static final long serialVersionUID = 110L;
     public static final String CLASSNAME = ConfigFileScanner.class.getName();
@@ -75,14 +71,34 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
     /** bCompressWhiteSpace whether to replace multiple successive whitespace characters with a single space. */
     protected boolean bCompressWhiteSpace = true; // defaults
 
-    protected ArrayList<String> lines; // = new ArrayList<>();
-    protected ArrayList<Integer> origLineNumbers; //  = new ArrayList<>();
+    /** The lines (after stripping comments and whitespace), along with their original line-numbers.  Immutable, and hence may be shared. */
+    protected LineTable lines = LineTable.EMPTY;
+
+    /** Size and last-modified time of the '@filename', captured BEFORE it was read by {@link #openFile(Object, boolean, boolean)}.  null for anything else.  Used by {@link #saveCompiled(String)} */
+    protected PrecompiledFile.SourceStamp sourceStamp = null;
+
 
-    protected transient Iterator<String> iterator = null;  // <<- transient class variable.  Will not be part of deepClone() method.
+    /** <p>The Strings for the 2 lines of this.recentFrom most recently asked for (typically, the current-line and the peeked/next line), in slots # (index % 2) - see {@link #lineAt(int)}.<br>
+     *  LineTable's own one-entry cache is shared by ALL the scanners of that file, and nextLine()/peekNextLine() alternate between 2 lines.  So that cache would miss (and allocate) nearly every time.</p> */
+    private transient LineTable recentFrom = null;
+    private transient int recentIx0 = -1;
+    private transient String recentLine0 = null;
+    private transient int recentIx1 = -1;
+    private transient String recentLine1 = null;
 
-    /** ATTENTION: This is supposed to indicate line-numbers as humans see it (starting from 1 onwards).  _NOT_ as C-array-index! */
+    /** Not-Null IF-AND-ONLY-IF this object was opened via {@link #openFileStreaming(Object, boolean, boolean, int)}.  In that case, this.lines is NOT used. */
+    protected transient ConfigFileLineReader streamReader = null;
+
+    /** ATTENTION: This is supposed to indicate line-numbers as humans see it (starting from 1 onwards).  _NOT_ as C-array-index!<br>
+     *  This is the ONLY state needed to know where we are within this.lines (it's also the 0-based index of the NEXT line).  -1 means rewind() has Not been invoked yet. */
     protected int currentLineNum = -1;
 
+    /** see {@link #mark()} and {@link #resetToMark()} */
+    protected transient Position markedPosition = null;
+
+    /** Where the 'echo' prefix and the 'print' command (of the subclasses) write to.  See {@link #setOutput(OutputSink)}.  transient, as it's shared with (Not copied into) any clone */
+    protected transient OutputSink output = OutputSink.SYSTEM_OUT;
+
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
 
     /** <p>The only constructor - public/private/protected</p>
@@ -102,11 +118,14 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
      */
     public void reset() {
         this.fileName = null;
-        this.lines = new ArrayList<>();
-        this.origLineNumbers = new ArrayList<>();
+        this.lines = LineTable.EMPTY;
+        this.sourceStamp = null;
+
+        if ( this.streamReader != null ) this.streamReader.close();
+        this.streamReader = null;
 
-        this.iterator = null;
         this.currentLineNum = -1;
+        this.markedPosition = null;
 
         this.resetFlagsForEachLine();
     }
@@ -129,6 +148,20 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
     public boolean getVerbose() {   return this.verbose;    }
     public void setVerbose( final boolean _verbose ) {  this.verbose = _verbose; }
 
+    /** @return NotNull.  See {@link #setOutput(OutputSink)} */
+    public OutputSink getOutput() { return this.output; }
+
+    /**
+     * <p>Where the output of the 'echo' prefix and the 'print' command (see {@link ConfigFileScannerL3}) goes.  Default is {@link OutputSink#SYSTEM_OUT}.</p>
+     * <p>A buffered sink is flushed when there are No more lines (that is, when {@link #hasNextLine()} returns false), before a 'sleep' command, and whenever you invoke {@link OutputSink#flush()}.
+     *    The scanners of the 'include'd files write to the same sink.  Debug-output (see {@link #setVerbose(boolean)}) continues to go to System.out.</p>
+     * @param _output NotNull
+     */
+    public void setOutput( final OutputSink _output ) {
+        assertTrue( _output != null );
+        this.output = _output;
+    }
+
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     /** This function is exclusively for use within the go() - the primary function within this class - to make this very efficient when responding to the many isXXX() methods in this class.
      */
@@ -138,7 +171,8 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
     /** This class aims to mimic java.util.Scanner's hasNextLine() and nextLine().  Scanner has reset().  I prefer rewind().  reset() is still defined, but has draconian-implications - as if openFile() was never called!
      */
     public void rewind() {
-        this.iterator = this.lines.iterator();
+        if ( this.streamReader != null && this.currentLineNum > 0 )
+            throw new IllegalStateException( CLASSNAME +": rewind(): Not possible, as ["+ this.getFileName() +"] was opened in streaming-mode and line# "+ this.currentLineNum +" has already been read" );
         this.currentLineNum = 0; // Both -1 and 0 are invalid values.  1st line # is always === '1'.  That way it helps the user to debug batch-file issues.
 
         this.resetFlagsForEachLine();
@@ -173,8 +207,8 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
      */
     protected static final String currentLine( final ConfigFileScanner __this ) throws Exception
     {   final String HDR = CLASSNAME +": (STATIC-METHOD)currentLine(): ";
-        if ( __this.currentLineNum > 0 && __this.currentLineNum <= __this.lines.size() ) {
-            return __this.lines.get ( __this.currentLineNum - 1 );
+        if ( __this.hasLineAt( __this.currentLineNum - 1 ) ) {
+            return __this.lineAt( __this.currentLineNum - 1 );
         } else {
             throw new Exception( HDR +": currentLine(): invalid currentLineNum=" +__this.currentLineNum +".  Debug details: state="+ __this.getState() );
         }
@@ -188,13 +222,59 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
      */
     protected static final String currentLineOrNull( final ConfigFileScanner __this )
     {
-        if ( __this.currentLineNum > 0 && __this.currentLineNum <= __this.lines.size() ) {
-            return __this.lines.get ( __this.currentLineNum - 1 );
+        if ( __this.hasLineAt( __this.currentLineNum - 1 ) ) {
+            return __this.lineAt( __this.currentLineNum - 1 );
         } else {
             return null;
         }
     }
 
+    //===========================================================================
+    /**
+     *  <p>All access to the lines read by openFile() (or openFileStreaming()) is via this method (and {@link #origLineNumAt(int)}, {@link #hasLineAt(int)}), so that it does NOT matter whether all lines are in memory or not.</p>
+     *  @param _ix 0-based index (Not the line # as humans see it)
+     *  @return the line (after removal of comments, etc..)
+     *  @throws IndexOutOfBoundsException if _ix is invalid (or in streaming-mode, is Not within the read-ahead window)
+     */
+    protected String lineAt( final int _ix ) throws IndexOutOfBoundsException {
+        if ( this.streamReader != null )
+            return this.streamReader.get( _ix );
+        if ( this.recentFrom != this.lines ) { // a different file (or, after reset() or deserialization)
+            this.recentFrom = this.lines;
+            this.recentIx0 = this.recentIx1 = -1;
+            this.recentLine0 = this.recentLine1 = null;
+        }
+        if ( ( _ix & 1 ) == 0 ) {
+            if ( this.recentIx0 != _ix ) { this.recentLine0 = this.lines.stringAt( _ix ); this.recentIx0 = _ix; }
+            return this.recentLine0;
+        } else {
+            if ( this.recentIx1 != _ix ) { this.recentLine1 = this.lines.stringAt( _ix ); this.recentIx1 = _ix; }
+            return this.recentLine1;
+        }
+    }
+
+    /**
+     *  @param _ix 0-based index (Not the line # as humans see it)
+     *  @return the line # (as humans see it in a text-editor) of the line at index _ix
+     *  @throws IndexOutOfBoundsException if _ix is invalid (or in streaming-mode, is Not within the read-ahead window)
+     */
+    protected int origLineNumAt( final int _ix ) throws IndexOutOfBoundsException {
+        if ( this.streamReader != null )
+            return this.streamReader.origLineNum( _ix );
+        return this.lines.origLineNum( _ix );
+    }
+
+    /**
+     *  @param _ix 0-based index (Not the line # as humans see it)
+     *  @return true if the line at index _ix is available (in streaming-mode: whether it's within the read-ahead window)
+     */
+    protected boolean hasLineAt( final int _ix ) {
+        if ( _ix < 0 ) return false;
+        if ( this.streamReader != null )
+            return this.streamReader.isInWindow( _ix );
+        return this.lines != null && _ix < this.lines.size();
+    }
+
     //==============================================================================
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     //==============================================================================
@@ -225,6 +305,8 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
      * @return a number &gt;=0 (if no errors parsing / loading batch-file).. or -1 if any trouble with ConfigFile.
      */
     public int getCommandCount()  {
+        if ( this.streamReader != null )
+            return this.streamReader.count(); // # of lines read SO FAR
         return (this.lines != null) ? this.lines.size(): -1;
     }
 
@@ -258,13 +340,30 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
         if ( __this.fileName == null || __this.currentLineNum < 0 )
             return "ConfigFile ["+ __this.getFileName() +"] is in invalid state";
         else if ( __this.currentLineNum == 0 )
-            return "ConfigFile ["+ __this.getFileName() +"] has _JUST_ been Opened, and nextLine() has NOT YET been invoked";
+            return ConfigFileScanner.getState( __this.getFileName(), 0, -1, null );
+        else
+            return ConfigFileScanner.getState( __this.getFileName(), __this.currentLineNum, __this.origLineNumAt( __this.currentLineNum - 1), ConfigFileScanner.currentLineOrNull( __this ) );
+    }
+
+    /**
+     *  The implementation of {@link #getState(ConfigFileScanner)}, for use by those (like {@link CompiledScript.Executor}) that step thru the lines WITHOUT a scanner.
+     *  @param _fileName see {@link #getFileName()}
+     *  @param _lineNum see {@link #getLineNum()}
+     *  @param _origLineNum the line # (as humans see it in a text-editor) of the current-line
+     *  @param _line the current-line as-is
+     *  @return something like: ConfigFile [@mapsBatch1.txt] @ line# 2 = [line contents as-is]
+     */
+    static String getState( final String _fileName, final int _lineNum, final int _origLineNum, final String _line ) {
+        if ( _lineNum < 0 )
+            return "ConfigFile ["+ _fileName +"] is in invalid state";
+        else if ( _lineNum == 0 )
+            return "ConfigFile ["+ _fileName +"] has _JUST_ been Opened, and nextLine() has NOT YET been invoked";
         else {
-            final String s = "@ line# "+ __this.origLineNumbers.get( __this.currentLineNum - 1) +" = ["+ ConfigFileScanner.currentLineOrNull( __this ) +"]";
-            if ( __this.getFileName().startsWith("@") ) {
-                return "File-name: '"+ __this.getFileName().substring(1) +"' "+ s;
+            final String s = "@ line# "+ _origLineNum +" = ["+ _line +"]";
+            if ( _fileName.startsWith("@") ) {
+                return "File-name: '"+ _fileName.substring(1) +"' "+ s;
             } else {
-                return "inline-content/InputStream provided: '"+ __this.getFileName() +"' "+ s;
+                return "inline-content/InputStream provided: '"+ _fileName +"' "+ s;
             }
         }
     }
@@ -279,6 +378,13 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
      */
     @Override
     public String toString() {
+        if ( this.streamReader != null ) {
+            final StringBuffer s = new StringBuffer();
+            for( int ix = Math.max( 0, this.currentLineNum - 1 );   this.streamReader.isInWindow( ix );   ix ++ ) {
+                s.append( this.streamReader.get( ix ) ).append( System.lineSeparator() );
+            } // for
+            return s.toString();
+        }
         if ( this.lines == null || this.lines.size() <= 0 )
             return "";
         else {
@@ -310,10 +416,12 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
      */
     public static final boolean hasNextLine( final ConfigFileScanner __this )
     {   // final String HDR = CLASSNAME +": (STATIC-METHOD)hasNextLine(): ";
+        if ( __this.streamReader != null )
+            return __this.currentLineNum >= 0 && __this.streamReader.fill( __this.currentLineNum ); // index of the next-line === current line # (as line # starts from 1)
         if ( __this.lines == null ) return false;
-        if ( __this.iterator == null )
+        if ( __this.currentLineNum < 0 )
             __this.rewind();
-        return __this.iterator.hasNext();
+        return __this.currentLineNum < __this.lines.size(); // index of the next-line === current line # (as line # starts from 1)
     }
 
     //===========================================================================
@@ -322,9 +430,14 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
      *  @throws IndexOutOfBoundsException if this method is NOT-PROPERLY called within a loop() based on the conditional: hasNextLine()
      */
     public String peekNextLine() throws IndexOutOfBoundsException {
+        if ( this.streamReader != null ) {
+            if ( this.currentLineNum < 0 || ! this.streamReader.fill( this.getLineNum() ) )
+                throw new IndexOutOfBoundsException( CLASSNAME +": peekNextLine(): No more lines in "+ this.getFileName() );
+            return this.streamReader.get( this.getLineNum() );
+        }
         if ( this.lines == null ) return null;
-        if ( this.iterator == null ) return null;
-        return this.lines.get ( this.getLineNum() ); // compare this return-value with that of currentLine()
+        if ( this.currentLineNum < 0 ) return null;
+        return this.lineAt( this.getLineNum() ); // compare this return-value with that of currentLine()
     }
 
     //===========================================================================
@@ -352,6 +465,130 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
         ConfigFileScanner.nextLineOrNull( this );
     }
 
+    //===========================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //===========================================================================
+
+    /**
+     *  <p>An alternative to the hasNextLine()/nextLine() protocol, for use with java.util.stream pipelines.  Use <code>lines().parallel()</code> to use all the CPU-cores.</p>
+     *  <p>The stream has ALL the lines of this file (after removal of comments and whitespace), as-is.  It is independent of the current position of this object (which is unaffected), and NO built-in commands are executed (so, 'include' lines are Not expanded).</p>
+     *  @return a NotNull Stream, backed by a sized and splittable Spliterator
+     *  @throws IllegalStateException if this object was opened in streaming-mode
+     */
+    public java.util.stream.Stream<String> lines() throws IllegalStateException {
+        if ( this.streamReader != null )
+            throw new IllegalStateException( CLASSNAME +": lines(): Not possible, as ["+ this.getFileName() +"] was opened in streaming-mode" );
+        return java.util.stream.StreamSupport.stream( this.lines.spliterator(), false );
+    }
+
+    //===========================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //===========================================================================
+
+    /**
+     *  <p>An immutable snapshot of where a scanner is, within its file - and (if the scanner is currently within an 'include'd file) where the 'include'd scanner is, recursively.</p>
+     *  <p>Obtain one via {@link ConfigFileScanner#position()} or {@link ConfigFileScanner#mark()}, and go back to it (in constant time) via {@link ConfigFileScanner#seek(Position)} or {@link ConfigFileScanner#resetToMark()}.<br>
+     *     A Position is meaningful ONLY for the scanner that created it.</p>
+     */
+    public static final class Position implements java.io.Serializable {
+        private static final long serialVersionUID = 1L;
+
+        /** see {@link ConfigFileScanner#getLineNum()} */
+        public final int lineNum;
+        /** the 'include'd scanner that was active at the time (or null) */
+        public final ConfigFileScanner included;
+        /** the position within {@link #included} (null if {@link #included} is null) */
+        public final Position includedPosition;
+
+        public Position( final int _lineNum, final ConfigFileScanner _included, final Position _includedPosition ) {
+            this.lineNum = _lineNum;
+            this.included = _included;
+            this.includedPosition = _includedPosition;
+        }
+
+        @Override
+        public String toString() {
+            return "line# "+ this.lineNum + ( ( this.included == null ) ? "" : " .. --> .. "+ this.included.getFileName() +" "+ this.includedPosition );
+        }
+    }
+
+    /**
+     *  <p>Subclasses that support 'include' MUST override this, to also capture the position within the 'include'd scanner.</p>
+     *  @return a NotNull snapshot of the current position.  Cost is proportional to the depth of 'include's.
+     */
+    public Position position() {
+        return new Position( this.currentLineNum, null, null );
+    }
+
+    /**
+     *  <p>Go back (or forward) to a position that was obtained from THIS object via {@link #position()}.  This takes constant time (per level of 'include'), regardless of how far the jump is.</p>
+     *  <p>Subclasses that support 'include' MUST override this (invoking super.seek() 1st), to also restore the position within the 'include'd scanner.</p>
+     *  @param _pos NotNull
+     *  @throws IndexOutOfBoundsException if _pos is Not valid for this object
+     *  @throws IllegalStateException if this object was opened in streaming-mode (and _pos is Not the current position)
+     */
+    public void seek( final Position _pos ) throws IndexOutOfBoundsException, IllegalStateException {
+        this.validateSeek( _pos );
+        this.currentLineNum = _pos.lineNum;
+        this.onCursorMoved();
+    }
+
+    /**
+     *  <p>Checks - WITHOUT changing anything - whether {@link #seek(Position)} can go to _pos.  seek() invokes this 1st, so that an invalid _pos leaves this object untouched.</p>
+     *  <p>Subclasses that support 'include' MUST override this (invoking super.validateSeek() 1st), to also validate the position within the 'include'd scanner.</p>
+     *  @param _pos NotNull
+     *  @throws IndexOutOfBoundsException if _pos is Not valid for this object
+     *  @throws IllegalStateException if this object was opened in streaming-mode (and _pos is Not the current position)
+     */
+    protected void validateSeek( final Position _pos ) throws IndexOutOfBoundsException, IllegalStateException {
+        final String HDR = CLASSNAME +": validateSeek("+ _pos +"): ";
+        if ( _pos.lineNum != this.currentLineNum ) {
+            if ( this.streamReader != null )
+                throw new IllegalStateException( HDR +"Not possible, as ["+ this.getFileName() +"] was opened in streaming-mode" );
+            if ( _pos.lineNum < 0 || _pos.lineNum > this.lines.size() )
+                throw new IndexOutOfBoundsException( HDR +"invalid line# for ["+ this.getFileName() +"] which has "+ this.lines.size() +" lines" );
+        }
+    }
+
+    /**
+     *  <p>Jump directly to a line within THIS file (exiting any 'include'd file that is currently being processed).</p>
+     *  <p>After this, {@link #currentLine()} returns line # _lineNum and {@link #nextLine()} returns the line after.  So, seekToLine(0) is equivalent to {@link #rewind()}.</p>
+     *  <p>Line #s are as returned by {@link #getLineNum()} (that is, counting only non-comment/non-empty lines, starting from 1).</p>
+     *  @param _lineNum 0 &lt;= _lineNum &lt;= {@link #getCommandCount()}
+     *  @throws IndexOutOfBoundsException if _lineNum is invalid
+     *  @throws IllegalStateException if this object was opened in streaming-mode (and _lineNum is Not the current line)
+     */
+    public void seekToLine( final int _lineNum ) throws IndexOutOfBoundsException, IllegalStateException {
+        this.seek( new Position( _lineNum, null, null ) );
+    }
+
+    /**
+     *  Remembers the current position (see {@link #position()}), so that you can come back to it via {@link #resetToMark()}.  Any previous mark is forgotten.
+     *  @return the position that was remembered
+     */
+    public Position mark() {
+        this.markedPosition = this.position();
+        return this.markedPosition;
+    }
+
+    /**
+     *  Go back to the position remembered by the most-recent {@link #mark()}.  The mark is retained, so you can come back to it repeatedly (as for a loop).
+     *  @throws IllegalStateException if {@link #mark()} was Not invoked (or a {@link #reset()} or a clone happened since)
+     */
+    public void resetToMark() throws IllegalStateException {
+        if ( this.markedPosition == null )
+            throw new IllegalStateException( CLASSNAME +": resetToMark(): mark() was Not invoked on ["+ this.getFileName() +"]" );
+        this.seek( this.markedPosition );
+    }
+
+    /**
+     *  <p>Invoked after every {@link #seek(Position)}, so that subclasses can re-compute whatever they've cached about the current-line (which nextLine() would normally do).</p>
+     *  <p>Implementations must NOT have any side-effects like echo-ing or executing built-in commands (those already happened when the line was first read).</p>
+     */
+    protected void onCursorMoved() {
+        this.resetFlagsForEachLine();
+    }
+
     //===========================================================================
     /**
      *  <p>This method is the common implementation body for both nextLine() and nextLineOrNull().</p>
@@ -361,12 +598,18 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
      */
     protected static final String nextLineOrNull( final ConfigFileScanner __this ) {
         final String HDR = CLASSNAME +": (STATIC-METHOD)nextLineOrNull(): ";
-        __this.iterator.next();
+        if ( __this.streamReader != null ) {
+            if ( ! __this.streamReader.fill( __this.currentLineNum ) )
+                throw new java.util.NoSuchElementException( HDR +"No more lines in "+ __this.getFileName() ); // just like java.util.Iterator.next() would.
+            __this.streamReader.discardBefore( __this.currentLineNum ); // we only need to retain the NEW current-line.
+        } else if ( __this.currentLineNum < 0 || __this.currentLineNum >= __this.lines.size() ) {
+            throw new java.util.NoSuchElementException( HDR +"No more lines in "+ __this.getFileName() ); // just like java.util.Iterator.next() would.
+        }
         __this.currentLineNum ++;
         __this.resetFlagsForEachLine(); // so that the isXXX() methods invoked of this class -- now that we're on NEW/NEXT line -- will NOT take a shortcut!
 
         if ( __this.verbose ) System.out.println( HDR +"\t" + __this.getState() );
-        return __this.lines.get ( __this.currentLineNum - 1 );
+        return __this.lineAt( __this.currentLineNum - 1 );
     }
 
     //==============================================================================
@@ -393,110 +636,269 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
         this.reset(); // just in case.
         this.fileName = _input;
 
-        String line = null;
-        try {
-            java.util.Scanner scanner = null;
-            if ( this.fileName.toString().startsWith("@") ) {
-                if ( this.verbose ) System.out.println( HDR +"this.fileName.toString()='"+ this.fileName.toString() +"'" );
-                final InputStream istrm = new FileInputStream( this.fileName.toString().substring(1) );
-                scanner = new java.util.Scanner( istrm );
-            } else {
-                if ( this.fileName instanceof String ) {
-                    // what I thought was filename is __ACTUALLY__  __INLINE-CONTENT__ to be parsed as-is
-                    scanner = new java.util.Scanner( this.fileName.toString() );
-                    if ( this.verbose ) System.out.println( HDR +" using special delimiter <"+ scanner.delimiter() +"> for INLINE Batch-commands provided via cmdline" );
-                } else if ( this.fileName instanceof InputStream ) {
-                    scanner = new java.util.Scanner( (InputStream) this.fileName );
-                    if ( this.verbose ) System.out.println( HDR +" content provided via java.io.InputStream" );
-                } else {
-                    throw new Exception();
+        // A file that was read before (whether by this object or by another ConfigFileScanner) need Not be read and lexed again.
+        ParsedFileCache.Key cacheKey = null;
+        if ( this.fileName instanceof String && this.fileName.toString().startsWith("@") ) {
+            final java.io.File file = new java.io.File( this.fileName.toString().substring(1) );
+            this.sourceStamp = PrecompiledFile.SourceStamp.of( file ); // BEFORE reading it (or looking it up in the cache)
+            // the cache is disabled by default.  In which case, don't even bother with canonicalizing the path (nor with the synchronized lookup)
+            if ( ParsedFileCache.SHARED.getMaxBytes() > 0 ) {
+                cacheKey = ParsedFileCache.keyFor( file, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace, this.delimiter );
+                final LineTable cached = ParsedFileCache.SHARED.get( cacheKey );
+                if ( cached != null ) {
+                    if ( this.verbose ) System.out.println( HDR +"using cached contents of file [" + this.fileName +"] - "+ ParsedFileCache.SHARED );
+                    this.lines = cached;
+                    this.rewind(); // rewind the pointer to the 1st line in the batch file.
+                    return true;
                 }
             }
-            if ( this.verbose ) System.out.println( HDR +"successfully opened file [" + this.fileName +"]" );
+        }
+
+        // try-with-resources, so that the file is closed even if reading/lexing fails midway
+        try ( ConfigFileLineReader reader = this.createLineReader( HDR, 2 ) ) {
+            final LineTable.Builder builder = new LineTable.Builder();
+            while ( reader.readNextInto( builder ) ) {
+                // nothing else to do.  The lexer writes each surviving line (and its original line#) directly into the builder
+            }
+            this.lines = builder.build();
+        }
+        if ( cacheKey != null ) ParsedFileCache.SHARED.put( cacheKey, this.lines );
+        this.rewind(); // rewind the pointer to the 1st line in the batch file.
+        return true;
+    }
 
-            scanner.useDelimiter( this.delimiter );
-            if ( this.verbose ) System.out.println( HDR +" using special delimiter <"+ scanner.delimiter() +"> for INLINE Batch-commands provided via cmdline" );
+    //===========================================================================
+    /**
+     *  <p>This is the opt-in STREAMING alternative to {@link #openFile(Object, boolean, boolean)}.</p>
+     *  <p>Instead of loading the entire contents into memory, lines are pulled from the source-of-input ON DEMAND by {@link #hasNextLine()}, {@link #nextLine()} and {@link #peekNextLine()}, and only a bounded read-ahead window of lines is ever retained.
+     *     So, you can start processing a huge file (or an endless java.io.InputStream like System.in) immediately, with memory staying flat regardless of the size of input.</p>
+     *  <p>{@link #getLineNum()} and {@link #getState()} work exactly as they do after openFile().<br>
+     *     But, going backwards is Not possible: {@link #rewind()} (after the 1st line has been read) and {@link #deepClone(ConfigFileScanner)} will throw an IllegalStateException.<br>
+     *     Also, {@link #getCommandCount()} is the # of lines read SO FAR, and {@link #toString()} shows only the lines currently in the read-ahead window.</p>
+     *  @param _input see {@link #openFile(Object, boolean, boolean)}
+     *  @param _ok2TrimWhiteSpace true or false, whether to REMOVE any leading and trailing whitespace.  Example: For YAML processing, trimming is devastating.
+     *  @param _bCompressWhiteSpace whether to replace multiple successive whitespace characters with a single space.
+     *  @param _readAheadWindow the maximum # of (non-comment, non-empty) lines to retain in memory.  Minimum is 2 (the current-line and the peeked-line)
+     *  @return true (successful and NO errors) or false (any error or issue/trouble whatsoever)
+     *  @throws java.io.FileNotFoundException If filename passed as '@...' does Not exist.
+     *  @throws java.io.IOException any trouble reding the file passed in as '@...'
+     *  @throws java.lang.Exception either this function throws or will return false.
+     */
+    public boolean openFileStreaming( final Object _input, final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace, final int _readAheadWindow )
+                    throws java.io.FileNotFoundException, java.io.IOException, Exception
+    {
+        final String HDR = CLASSNAME +": openFileStreaming("+ _input +","+ _ok2TrimWhiteSpace +","+ _bCompressWhiteSpace +","+ _readAheadWindow +"): ";
 
-            // different way to detect comments, and to remove them.
-			Pattern emptyPattern        = Pattern.compile( "^\\s*$" ); // empty line
-			Pattern hashlinePattern     = Pattern.compile( "^#.*" ); // from start of line ONLY
-			Pattern hashPattern         = Pattern.compile(  "\\s*#.*" );
-			Pattern slashlinePattern    = Pattern.compile( "^//.*" ); // from start of line ONLY
-			Pattern slashPattern        = Pattern.compile(  "\\s*//.*" );
-			Pattern dashlinepattern = Pattern.compile( "^--.*" );
+        this.ok2TrimWhiteSpace = _ok2TrimWhiteSpace;
+        this.bCompressWhiteSpace = _bCompressWhiteSpace;
+        this.reset(); // just in case.
+        this.fileName = _input;
 
-            // int nonEmptyCmdLinenum = 0;
+        this.streamReader = this.createLineReader( HDR, _readAheadWindow );
+        this.rewind(); // Not a true rewind.  Just puts the pointer BEFORE the 1st line in the batch file.
+        return true;
+    }
 
-            //---------------------------
-            for ( int origLineNum=1;   scanner.hasNext();   origLineNum++ ) {
-                line = scanner.next();
+    /**
+     * @return true if this object was opened via {@link #openFileStreaming(Object, boolean, boolean, int)}
+     */
+    public boolean isStreaming() {
+        return this.streamReader != null;
+    }
 
-                //---------------------------
-                if ( _bCompressWhiteSpace ) {
-                    line = line.replaceAll("\\s\\s+", " ");
-                }
-                if ( this.verbose ) System.out.println( HDR +"AS-IS line=[" + line +"]" );
-
-                Matcher emptyMatcher = emptyPattern.matcher( line );
-                if ( emptyMatcher.matches() ) continue;
-                Matcher hashlineMatcher = hashlinePattern.matcher( line );
-                if ( hashlineMatcher.matches() ) continue;
-                Matcher slashlineMatcher = slashlinePattern.matcher( line );
-                if ( slashlineMatcher.matches() ) continue;
-                Matcher dashlineMatcher = dashlinepattern.matcher( line );
-                if ( dashlineMatcher.matches() ) continue;
-
-                //---------------------------
-                // if we are here, then the line does ___NOT___ start with # or.. // or --
-                Matcher hashMatcher     = hashPattern.matcher( line );
-                if (hashMatcher.find()) {
-                    if ( this.verbose ) System.out.println( HDR +"I found the text "+ hashMatcher.group() +" starting at index "+  hashMatcher.start()+ " and ending at index "+ hashMatcher.end() );    
-                    line = line.substring( 0, hashMatcher.start() );
-                    if ( _ok2TrimWhiteSpace ) line = line.trim(); // trim both leading and trailing whitespace
-                }
-                Matcher slashMatcher    = slashPattern.matcher( line );
-                if (slashMatcher.find()) {
-                    if ( this.verbose ) System.out.println( HDR +"I found the text "+ slashMatcher.group() +" starting at index "+  slashMatcher.start() +" and ending at index "+ slashMatcher.end() );    
-                    line = line.substring( 0, slashMatcher.start() );
-                    if ( _ok2TrimWhiteSpace ) line = line.trim(); // trim both leading and trailing whitespace
-                }
+    //===========================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //===========================================================================
+
+    /**
+     *  <p>Saves what {@link #openFile(Object, boolean, boolean)} read, as a pre-compiled file (see {@link PrecompiledFile}), for use later by {@link #openPrecompiled(String, boolean, boolean)}.</p>
+     *  @param _compiledFile where to write
+     *  @throws IllegalStateException if this object was Not opened via openFile() on a '@filename'
+     *  @throws java.io.IOException if the source file has changed since it was read, or any trouble reading the source file (for its checksum) or writing the pre-compiled file
+     */
+    public void saveCompiled( final String _compiledFile ) throws IllegalStateException, java.io.IOException {
+        if ( this.streamReader != null || this.fileName == null || ! this.fileName.toString().startsWith("@") || this.sourceStamp == null )
+            throw new IllegalStateException( CLASSNAME +": saveCompiled(): only a '@filename' opened via openFile() can be pre-compiled, Not ["+ this.fileName +"]" );
+        PrecompiledFile.write( _compiledFile, this.fileName.toString().substring(1), this.sourceStamp, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace, this.delimiter, this.lines );
+    }
+
+    /**
+     *  <p>Same as {@link #openFile(Object, boolean, boolean)} on the source file that _compiledFile was created from - but WITHOUT any lexing, when possible.</p>
+     *  <p>If the source file has changed since it was compiled (or the pre-compiled file was created with different trim/compress/delimiter settings), this falls back to openFile() on the source file.</p>
+     *  @param _compiledFile a file created by {@link #saveCompiled(String)}
+     *  @param _ok2TrimWhiteSpace see {@link #openFile(Object, boolean, boolean)}
+     *  @param _bCompressWhiteSpace see {@link #openFile(Object, boolean, boolean)}
+     *  @return true (successful and NO errors) or false (any error or issue/trouble whatsoever)
+     *  @throws java.io.FileNotFoundException If _compiledFile (or, when falling back, the source file) does Not exist.
+     *  @throws java.io.IOException if _compiledFile is Not a valid pre-compiled file, or any trouble reading the source file
+     *  @throws java.lang.Exception see {@link #openFile(Object, boolean, boolean)}
+     */
+    public boolean openPrecompiled( final String _compiledFile, final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace )
+                    throws java.io.FileNotFoundException, java.io.IOException, Exception
+    {
+        final String HDR = CLASSNAME +": openPrecompiled("+ _compiledFile +","+ _ok2TrimWhiteSpace +","+ _bCompressWhiteSpace +"): ";
+        final PrecompiledFile pf = PrecompiledFile.read( _compiledFile );
+        final boolean bSameSettings = pf.ok2TrimWhiteSpace == _ok2TrimWhiteSpace && pf.bCompressWhiteSpace == _bCompressWhiteSpace && pf.delimiter.equals( this.delimiter );
+        if ( pf.lines == null || ! bSameSettings ) {
+            if ( this.verbose ) System.out.println( HDR +"source ["+ pf.sourcePath +"] has changed (or settings differ).  So, falling back to reading the source." );
+            return this.openFile( "@"+ pf.sourcePath, _ok2TrimWhiteSpace, _bCompressWhiteSpace );
+        }
 
-                // after all the comment pre-processing above.. check if the line has become equivalent to empty-line.. 
-                emptyMatcher = emptyPattern.matcher( line ); // after all the above trimming, is the line pretty much whitespace?
-                if ( emptyMatcher.matches() ) continue;
+        this.ok2TrimWhiteSpace = _ok2TrimWhiteSpace;
+        this.bCompressWhiteSpace = _bCompressWhiteSpace;
+        this.reset(); // just in case.
+        this.fileName = "@"+ pf.sourcePath; // so that error-messages refer to the source file
+        this.sourceStamp = pf.sourceStamp;
+        this.lines = pf.lines;
+        this.rewind(); // rewind the pointer to the 1st line in the batch file.
+        return true;
+    }
 
-                //---------------------------
-                if ( _ok2TrimWhiteSpace ) line = line.trim(); // trim both leading and trailing whitespace
-                if ( this.verbose ) System.out.println( HDR +" TRIMMED line=[" + line +"]" );
+    //===========================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //===========================================================================
 
-                //---------------------------
-                // nonEmptyCmdLinenum ++;
-                this.lines.add( line );
-                this.origLineNumbers.add( origLineNum );
-                // alternatively use a Map<Integer,Integer>.put( nonEmptyCmdLinenum, origLineNum )
+    /**
+     *  <p>Opens MANY files concurrently (each via {@link #openFile(Object, boolean, boolean)} on a NEW object), instead of one after another.</p>
+     *  <p>Unlike invoking openFile() in a loop, this does NOT stop at the 1st failure.  ALL the sources are attempted, and if any fail, a single Exception is thrown that lists ALL the failed sources (each failure's Exception is attached via {@link Throwable#getSuppressed()}).</p>
+     *  @param <T> any subclass of ConfigFileScanner
+     *  @param _sources NotNull collection of whatever {@link #openFile(Object, boolean, boolean)} accepts (typically "@filename" Strings)
+     *  @param _ok2TrimWhiteSpace see {@link #openFile(Object, boolean, boolean)}
+     *  @param _bCompressWhiteSpace see {@link #openFile(Object, boolean, boolean)}
+     *  @param _factory invoked once per source (possibly from multiple threads concurrently), to create the object to invoke openFile() on.  Example: <code>() -&gt; new ScriptFileScanner( verbose, propsSet )</code>
+     *  @param _executor where to do the work.  If null, {@link #newDefaultExecutor()} is used (and shutdown before this method returns).
+     *  @return a NotNull list, in the SAME order as _sources
+     *  @throws Exception if one or more of the sources could Not be opened
+     */
+    public static <T extends ConfigFileScanner> java.util.List<T> openAll( final java.util.Collection<?> _sources, final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace,
+                                    final java.util.function.Supplier<T> _factory, final java.util.concurrent.Executor _executor ) throws Exception
+    {   final String HDR = CLASSNAME +": openAll(): ";
+        final java.util.concurrent.ExecutorService owned = ( _executor == null ) ? ConfigFileScanner.newDefaultExecutor() : null;
+        try {
+            final java.util.List< java.util.concurrent.CompletableFuture<T> > futures = ConfigFileScanner.openAllAsync( _sources, _ok2TrimWhiteSpace, _bCompressWhiteSpace, _factory, ( owned != null ) ? owned : _executor );
+
+            final java.util.List<T> retval = new java.util.ArrayList<>( futures.size() );
+            final java.util.List<Throwable> failures = new java.util.ArrayList<>();
+            final StringBuilder failedNames = new StringBuilder();
+            final java.util.Iterator<?> srcIter = _sources.iterator();
+            for ( java.util.concurrent.CompletableFuture<T> f: futures ) {
+                final Object src = srcIter.next();
+                try {
+                    retval.add( f.join() );
+                } catch ( java.util.concurrent.CompletionException | java.util.concurrent.CancellationException e ) {
+                    failures.add( ( e.getCause() != null ) ? e.getCause() : e );
+                    failedNames.append( failedNames.length() > 0 ? ", " : "" ).append( src );
+                }
             }
+            if ( failures.size() > 0 ) {
+                final Exception e = new Exception( HDR +"failed to open "+ failures.size() +" of "+ futures.size() +" sources: "+ failedNames );
+                for ( Throwable t: failures )
+                    e.addSuppressed( t );
+                throw e;
+            }
+            return retval;
+        } finally {
+            if ( owned != null ) owned.shutdown();
+        }
+    }
 
-            //---------------------------
-            scanner.close();
-            this.rewind(); // rewind the pointer to the 1st line in the batch file.
-            return true;
+    /**
+     *  <p>Same as {@link #openAll(java.util.Collection, boolean, boolean, java.util.function.Supplier, java.util.concurrent.Executor)}, but returns immediately, with one Future per source - for those who'd like to start using the 1st files, while the rest are still being loaded.</p>
+     *  <p>A failed future's Exception-message always includes the name of the source.</p>
+     *  @param <T> any subclass of ConfigFileScanner
+     *  @param _sources NotNull collection of whatever {@link #openFile(Object, boolean, boolean)} accepts (typically "@filename" Strings)
+     *  @param _ok2TrimWhiteSpace see {@link #openFile(Object, boolean, boolean)}
+     *  @param _bCompressWhiteSpace see {@link #openFile(Object, boolean, boolean)}
+     *  @param _factory invoked once per source (possibly from multiple threads concurrently), to create the object to invoke openFile() on.
+     *  @param _executor NotNull.  Where to do the work.  See {@link #newDefaultExecutor()}.
+     *  @return a NotNull list of futures, in the SAME order as _sources
+     */
+    public static <T extends ConfigFileScanner> java.util.List< java.util.concurrent.CompletableFuture<T> > openAllAsync( final java.util.Collection<?> _sources,
+                                    final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace,
+                                    final java.util.function.Supplier<T> _factory, final java.util.concurrent.Executor _executor )
+    {   final String HDR = CLASSNAME +": openAllAsync(): ";
+        final java.util.List< java.util.concurrent.CompletableFuture<T> > futures = new java.util.ArrayList<>( _sources.size() );
+        for ( Object src: _sources ) {
+            futures.add( java.util.concurrent.CompletableFuture.supplyAsync( () -> {
+                try {
+                    final T scanner = _factory.get();
+                    if (  !  scanner.openFile( src, _ok2TrimWhiteSpace, _bCompressWhiteSpace ) )
+                        throw new Exception( HDR +"openFile() failed for ["+ src +"]" );
+                    return scanner;
+                } catch ( Exception e ) {
+                    // make sure the name of the file is part of the message (java.io.FileNotFoundException already does that)
+                    final Exception e2 = ( e.getMessage() != null && e.getMessage().contains( String.valueOf( src ) ) ) ? e : new Exception( HDR +"["+ src +"]: "+ e, e );
+                    throw new java.util.concurrent.CompletionException( e2 );
+                }
+            }, _executor ) );
+        }
+        return futures;
+    }
 
-        // scanner.hasNext() only throws a RUNTIMEEXCEPTION: IllegalStateException - if this scanner is closed
-        // scanner.next() only throws a RUNTIMEEXCEPTION: NoSuchElementException - if no more tokens are available
+    /**
+     *  <p>The default Executor for {@link #openAll(java.util.Collection, boolean, boolean, java.util.function.Supplier, java.util.concurrent.Executor)}.  As loading files is I/O-bound, a thread per file is ideal.</p>
+     *  <p>On JDK 21+ this is an Executor that uses a virtual thread per task.  On older JDKs (where virtual threads are Not available) this is a pool of daemon threads - 2 per CPU core.</p>
+     *  @return a NotNull ExecutorService, which the caller must shutdown
+     */
+    public static java.util.concurrent.ExecutorService newDefaultExecutor() {
+        try {
+            // via reflection, as this library must continue to compile and run on JDKs older than 21
+            final java.lang.reflect.Method m = java.util.concurrent.Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" );
+            return (java.util.concurrent.ExecutorService) m.invoke( null );
+        } catch ( ReflectiveOperationException | RuntimeException e ) {
+            // fall thru.  Example: JDK 19/20 throws UnsupportedOperationException, unless preview-features are enabled
+        }
+        final int nThreads = 2 * Runtime.getRuntime().availableProcessors();
+        return java.util.concurrent.Executors.newFixedThreadPool( nThreads, r -> {
+            final Thread t = new Thread( r, CLASSNAME +"-openAll" );
+            t.setDaemon( true );
+            return t;
+        });
+    }
 
-		} catch (PatternSyntaxException e) {
-			e.printStackTrace(System.err); // PatternSyntaxException! too fatal an error, to allow program/application to continue to run.
-			System.err.println( "\n\n"+ HDR +"Unexpected Internal ERROR, while checking for patterns for line= [" + line +"]. Exception Message: "+ e );
-			System.exit(91); // This is a serious failure. Shouldn't be happening.
-        // } catch (java.io.IOException e) {
-        //     e.printStackTrace(System.err); // IOException! too fatal an error, to allow program/application to continue to run.
-        //     System.err.println( "\n\n"+ HDR +"Failure to read/write IO for file ["+ this.fileName +"]. Exception Message: "+ e );
-		// 	System.exit(91); // This is a serious failure. Shouldn't be happening.
-        // } catch (Exception e) {
-        //     e.printStackTrace(System.err);// General Exception! too fatal an error, to allow program/application to continue to run.
-        //     System.err.println( HDR +"Unknown Internal error: "+ e );
+    //===========================================================================
+    /**
+     *  Common code for {@link #openFile(Object, boolean, boolean)} and {@link #openFileStreaming(Object, boolean, boolean, int)}, to convert this.fileName into a java.util.Scanner
+     *  @param HDR prefix for debug-output
+     *  @param _readAheadWindow see {@link ConfigFileLineReader}
+     *  @return a NotNull object
+     *  @throws java.io.FileNotFoundException If filename passed as '@...' does Not exist.
+     *  @throws java.lang.Exception if this.fileName is neither a String nor an InputStream
+     */
+    private ConfigFileLineReader createLineReader( final String HDR, final int _readAheadWindow ) throws java.io.FileNotFoundException, Exception
+    {
+        java.util.Scanner scanner = null;
+        if ( this.fileName.toString().startsWith("@") ) {
+            if ( this.verbose ) System.out.println( HDR +"this.fileName.toString()='"+ this.fileName.toString() +"'" );
+            if ( MappedFileLineSplitter.isUsable( this.delimiter ) ) {
+                // fast-path: memory-map the file, and split into lines directly on the bytes.  Beyond MAX_MAPPABLE_SIZE, we fall back to java.util.Scanner.
+                final java.io.File f = new java.io.File( this.fileName.toString().substring(1) );
+                if ( f.length() <= MappedFileLineSplitter.MAX_MAPPABLE_SIZE ) {
+                    final MappedFileLineSplitter splitter = new MappedFileLineSplitter( f.getPath(), this.delimiter );
+                    if ( this.verbose ) System.out.println( HDR +"successfully memory-mapped file [" + this.fileName +"] using delimiter <"+ this.delimiter +">" );
+                    return new ConfigFileLineReader( this.verbose, splitter, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace, _readAheadWindow );
+                }
+            }
+            final InputStream istrm = new FileInputStream( this.fileName.toString().substring(1) );
+            scanner = new java.util.Scanner( istrm );
+        } else {
+            if ( this.fileName instanceof String ) {
+                // what I thought was filename is __ACTUALLY__  __INLINE-CONTENT__ to be parsed as-is
+                scanner = new java.util.Scanner( this.fileName.toString() );
+                if ( this.verbose ) System.out.println( HDR +" using special delimiter <"+ scanner.delimiter() +"> for INLINE Batch-commands provided via cmdline" );
+            } else if ( this.fileName instanceof InputStream ) {
+                scanner = new java.util.Scanner( (InputStream) this.fileName );
+                if ( this.verbose ) System.out.println( HDR +" content provided via java.io.InputStream" );
+            } else {
+                throw new Exception();
+            }
         }
-        return false;
+        if ( this.verbose ) System.out.println( HDR +"successfully opened file [" + this.fileName +"]" );
+
+        scanner.useDelimiter( this.delimiter );
+        if ( this.verbose ) System.out.println( HDR +" using special delimiter <"+ scanner.delimiter() +"> for INLINE Batch-commands provided via cmdline" );
+
+        return new ConfigFileLineReader( this.verbose, scanner, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace, _readAheadWindow );
     }
 
     //==============================================================================
@@ -523,12 +925,63 @@ public abstract class ConfigFileScanner implements java.io.Serializable {
      * @param _orig the original NON-Null object
      */
     protected void deepCloneFix( final ConfigFileScanner _orig ) {
-            // because this class has at least one TRANSIENT class-variable.. ..
-            // we need to 'restore' that object's transient variable to a 'replica'
-            this.iterator = this.lines.iterator();
-            for ( int ix = 0; ix < this.currentLineNum; ix++ )
-                this.iterator.next(); // This will advance this.iterator to the right position, as java.lang.Iterator is NOT clonable/NOT SERIALIZABLE.
-                // we rarely CLONE an object of this class, when it's still pointing to line #1.  So, this ABOVE for-loop is just fine.
+            if ( _orig.streamReader != null )
+                throw new IllegalStateException( CLASSNAME +": deepCloneFix(): Not possible, as ["+ _orig.getFileName() +"] was opened in streaming-mode" );
+            // The position within the file is just this.currentLineNum (an index into this.lines), which was serialized along with everything else.  So, nothing to restore.
+            this.markedPosition = null;
+            this.output = _orig.output;
+    }
+
+    /** this.output is transient.  Whether de-serialized by {@link #deepClone(ConfigFileScanner)} (which then shares _orig's) or by anyone else, it must NOT be left null - else the 1st 'echo' or 'print' fails with a NullPointerException.
+     *  @param _in see java.io.Serializable
+     *  @throws java.io.IOException see java.io.Serializable
+     *  @throws ClassNotFoundException see java.io.Serializable
+     */
+    private void readObject( final ObjectInputStream _in ) throws java.io.IOException, ClassNotFoundException {
+        _in.defaultReadObject();
+        this.output = OutputSink.SYSTEM_OUT; // the default, just as in a newly created object
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** <p>A much cheaper alternative to {@link #deepClone(ConfigFileScanner)}, for when you need MANY clones.</p>
+     *  <p>Instead of serializing the entire object (incl. every line of the file), the clone SHARES the immutable content (see {@link LineTable}) with the original, and copies ONLY the mutable state: the position within the file, the per-line flags and the chain of 'include'd scanners.
+     *     References to collaborators (like propsSetRef) are shared, just as {@link #deepCloneFix(ConfigFileScanner)} does.  The cost is proportional to the depth of the 'include' chain, Not the size of the file.</p>
+     *  @param <T> any subclass of ConfigFileScanner
+     *  @param _orig what you want to clone.  It must NOT have been opened in streaming-mode.
+     *  @return a NotNull clone (of exactly the same class as _orig)
+     *  @throws IllegalStateException if _orig was opened via {@link #openFileStreaming(Object, boolean, boolean, int)}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends ConfigFileScanner> T structuralClone( final T _orig ) throws IllegalStateException {
+        assertTrue( _orig != null );
+        try {
+            final T newobj = (T) _orig.clone();
+            newobj.structuralCloneFix( _orig );
+            return newobj;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException( CLASSNAME +": structuralClone(): Unexpected Internal ERROR, as this class implements Cloneable", e );
+        }
+    }
+
+    /** Only for use by {@link #structuralClone(ConfigFileScanner)}.  It's a shallow field-by-field copy (via java.lang.Object.clone()) */
+    @Override
+    protected ConfigFileScanner clone() throws CloneNotSupportedException {
+        return (ConfigFileScanner) super.clone();
+    }
+
+    /**
+     * <p>In order to allow structuralClone() to work seamlessly up and down the class-hierarchy.. subclasses must EXTEND (invoke super.structuralCloneFix() first) this method, to replace any MUTABLE objects they own, with copies.</p>
+     * <p>At this point, this object is a shallow copy of _orig (all fields are identical).</p>
+     * @param _orig the original NON-Null object
+     */
+    protected void structuralCloneFix( final ConfigFileScanner _orig ) {
+        if ( _orig.streamReader != null )
+            throw new IllegalStateException( CLASSNAME +": structuralCloneFix(): Not possible, as ["+ _orig.getFileName() +"] was opened in streaming-mode" );
+        // this.lines is immutable, and hence shared.  The position (this.currentLineNum) is a primitive and was already copied.
+        this.markedPosition = null;
     }
 
     //==============================================================================
@@ -80,6 +80,7 @@ public class ConfigFileScannerL2 extends ConfigFileScanner {
     public static final String REGEXP_OBJECT_REFERENCE = "[?]*[@!]" + REGEXP_NAME;
 
     public static final String REGEXP_ECHO = "^\\s*echo\\s+(\\S.*\\S)\\s*$";
+    private static final Pattern ECHO_PATTERN = Pattern.compile( REGEXP_ECHO );
     public static final String REGEXP_INCLUDE = "^\\s*include\\s+(" + REGEXP_OBJECT_REFERENCE + ")\\s*$";
     public static final String REGEXP_PRINT = "^\\s*print\\s+(\\S.*\\S|\\.)\\s*$";
 
@@ -96,9 +97,14 @@ public class ConfigFileScannerL2 extends ConfigFileScanner {
      * object-lifecycle is maintained by some other class (as in, creating new
      * LinkedHashMap&lt;&gt;(), putting content into it, updating content as File is
      * further processed, ..)
+     * Ideally a {@link PropertySets} (as created by ScriptFileScanner.initProperties()), so that
+     * Macro-evaluation uses its lock-free index.
      */
     protected transient LinkedHashMap<String, Properties> propsSetRef;
 
+    /** See {@link #builtInCommands()}.  transient, as the handlers refer to THIS object (so, NOT to be shared with any clone) */
+    private transient BuiltInCommands builtInCommands = null;
+
     // ==============================================================================
     // @@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     // ==============================================================================
@@ -229,8 +235,8 @@ public class ConfigFileScannerL2 extends ConfigFileScanner {
      */
     public static boolean checkForEchoPrefix( final boolean _verbose, final String line )
     {   final String HDR = CLASSNAME +": checkForEchoPrefix(): ";
-        final Pattern echoPattern = Pattern.compile( REGEXP_ECHO );
-        final Matcher echoMatcher = echoPattern.matcher( line );
+        if ( line.indexOf( "echo" ) < 0 ) return false; // cheap check, before the REGEXP
+        final Matcher echoMatcher = ECHO_PATTERN.matcher( line );
         if (echoMatcher.find()) {
             if ( _verbose ) System.out.println( HDR +": I found the command to be ECHO-ed '"+ echoMatcher.group(1) +"' starting at index "+  echoMatcher.start() +" and ending at index "+ echoMatcher.end() );    
             if ( _verbose ) System.out.println( HDR +"\t Detected 'ECHO' prefix in Line # "+ line );
@@ -250,21 +256,15 @@ public class ConfigFileScannerL2 extends ConfigFileScanner {
     {   final String HDR = CLASSNAME +": removeEchoPrefix(): ";
         if ( _line == null ) return null;
 
-        try {
-            final Pattern echoPattern = Pattern.compile( REGEXP_ECHO );
-            final Matcher echoMatcher = echoPattern.matcher( _line );
-            if (echoMatcher.find()) {
-                // if ( _verbose ) System.out.println( HDR +": I found the command to be ECHO-ed '"+ echoMatcher.group(1) +"' starting at index "+  echoMatcher.start() +" and ending at index "+ echoMatcher.end() );    
-                return echoMatcher.group(1);
-            } else {
-                return _line;
-            } // if-else
-        } catch (PatternSyntaxException e) {
-			e.printStackTrace(System.err); // too serious an internal-error.  Immediate bug-fix required.  The application/Program will exit .. in 2nd line below.
-			System.err.println( HDR + ": Unexpected Internal ERROR, while checking for pattern ("+ REGEXP_ECHO +")." );
-			System.exit(91); // This is a serious failure. Shouldn't be happening.
-        }
-        return null; // we shouldn't be getting here, due to 'System.exit()' within above catch()
+        if ( _line.indexOf( "echo" ) < 0 ) return _line; // cheap check, before the REGEXP
+
+        final Matcher echoMatcher = ECHO_PATTERN.matcher( _line );
+        if (echoMatcher.find()) {
+            // if ( _verbose ) System.out.println( HDR +": I found the command to be ECHO-ed '"+ echoMatcher.group(1) +"' starting at index "+  echoMatcher.start() +" and ending at index "+ echoMatcher.end() );    
+            return echoMatcher.group(1);
+        } else {
+            return _line;
+        } // if-else
     }
 
     //===========================================================================
@@ -284,6 +284,15 @@ public class ConfigFileScannerL2 extends ConfigFileScanner {
             return super.getState();
     }
 
+    //===========================================================================
+
+    @Override
+    public void setOutput( final OutputSink _output ) {
+        super.setOutput(_output);
+        if ( this.includedFileScanner != null )
+            this.includedFileScanner.setOutput(_output);
+    }
+
     //===========================================================================
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     //===========================================================================
@@ -337,6 +346,7 @@ public class ConfigFileScannerL2 extends ConfigFileScanner {
             } // while-loop
 
             if ( this.verbose ) System.out.println( HDR +": returning FALSE!" );
+            this.output.flush(); // an explicit flush-point: No more output is possible, until the user does something else with this object
             return false; // if we ended the above while-loop, super.hasNextLine() is FALSE!
 
         // } catch (Exception e) {
@@ -420,10 +430,10 @@ public class ConfigFileScannerL2 extends ConfigFileScanner {
 
         if ( this.isLine2bEchoed() ) {
             if ( bNoChange ) {
-                System.out.println("\tEcho: " + preMacroStr);
+                this.output.println("\tEcho: " + preMacroStr);
             } else {
-                System.out.println("\tEcho (As-Is): " + preMacroStr);
-                System.out.println("\tEcho (Macros-substituted): " + ConfigFileScannerL2.removeEchoPrefix( currLnNoMacro ) );
+                this.output.println("\tEcho (As-Is): " + preMacroStr);
+                this.output.println("\tEcho (Macros-substituted): " + ConfigFileScannerL2.removeEchoPrefix( currLnNoMacro ) );
             }
         }
 
@@ -434,9 +444,33 @@ public class ConfigFileScannerL2 extends ConfigFileScanner {
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     //==============================================================================
 
+    /**
+     *  <p>The built-in commands of this object, as registered by {@link #registerBuiltInCommands(BuiltInCommands)} (lazily, the 1st time they're needed).</p>
+     *  @return NotNull
+     */
+    protected final BuiltInCommands builtInCommands() {
+        if ( this.builtInCommands == null ) {
+            final BuiltInCommands commands = new BuiltInCommands();
+            this.registerBuiltInCommands( commands );
+            this.builtInCommands = commands;
+        }
+        return this.builtInCommands;
+    }
+
+    /**
+     *  <p>Registers the built-in commands that {@link #isBuiltInCommand(String)} and {@link #execBuiltInCommand()} will be processing 'internally' within this class.</p>
+     *  <p>In this class, those would be the REGEXP for 'print ...' and 'include @...'.  Subclasses should override this method, invoke super.registerBuiltInCommands() and then register their own.</p>
+     *  @param _commands NotNull
+     */
+    protected void registerBuiltInCommands( final BuiltInCommands _commands ) {
+        _commands.register( "include", REGEXP_INCLUDE, m -> this.onIncludeCmd( m.group(1) ) );
+        _commands.register( "print",   REGEXP_PRINT,   m -> this.onPrintCmd( m.group(1) ) ); // Note: A line like 'print -' would FAIL to match \\S.*\\S
+    }
+
+    //==============================================================================
     /**
      *  <p>This method is used to simply tell whether 'current-line' matches the REGEXP patterns that execBuiltInCommand() will be processing 'internally' within this class</p>
-     *  <p>In this class, those would be the REGEXP for 'print ...' and 'include @...'</p>
+     *  <p>In this class, those would be the REGEXP for 'print ...' and 'include @...' (and, whatever subclasses register via {@link #registerBuiltInCommands(BuiltInCommands)})</p>
      *  @param nextLn current line or 'peek-forward' line
      *  @return true if the line will be processed 'internally'
      */
@@ -445,9 +479,8 @@ public class ConfigFileScannerL2 extends ConfigFileScanner {
         if ( nextLn == null ) return false;
         final String noprefix = removeEchoPrefix( nextLn );
         if ( this.verbose ) System.out.println( HDR + "noprefix="+ noprefix );
-        if ( this.verbose ) System.out.println( HDR + "noprefix.matches( REGEXP_PRINT )="+ noprefix.matches( REGEXP_PRINT ) );
 
-        return noprefix.matches( REGEXP_PRINT ) || noprefix.matches( REGEXP_INCLUDE );
+        return this.builtInCommands().isBuiltInCommand( noprefix );
     }
 
     //==============================================================================
@@ -457,6 +490,7 @@ public class ConfigFileScannerL2 extends ConfigFileScanner {
     /** <p>New Method added to this subclass.  Implement your command parsing and do as appropriate.</p>
      *  <p>ATTENTION: Safely assume that any 'echo' prefix parsing and any 'print' parsing has happened already in a TRANSAPARENT way.</p>
      *  <p>This method is automatically invoked _WITHIN_ nextLine().  nextLine() is inherited from the parent {@link org.ASUX.common.ConfigFileScanner}.</p>
+     *  <p>The current-line is dispatched (by its 1st word) to whatever was registered via {@link #registerBuiltInCommands(BuiltInCommands)}.</p>
      *  @return true if all 'normal', and false IF-AND-ONLY-IF any problems (you are advised to throw Exception instead)
      *  @throws java.io.FileNotFoundException If we encounter a 'include' built-in command and the filename passed as '@...' does Not exist.
      *  @throws java.io.IOException If we encounter a 'include' built-in command and there is any trouble reding the included-file passed in as '@...'
@@ -472,48 +506,36 @@ public class ConfigFileScannerL2 extends ConfigFileScanner {
             // we should have weeded out 'whitespace-only' lines as part of openFile().
             // If user's Properties (loaded into this.allPropsRef) lead to a MACRO EXPRESSION that is null.. that is the user's problem to figure out what the heck is this exception.
 
-        try {
-            final Pattern includePattern = Pattern.compile( REGEXP_INCLUDE );
-            final Matcher includeMatcher = includePattern.matcher( this.currentLineAfterMacroEval );
-            if (includeMatcher.find()) {
-                if ( this.verbose ) System.out.println( HDR +": I found the INCLUDE command: '"+ includeMatcher.group(1) +"' starting at index "+  includeMatcher.start() +" and ending at index "+ includeMatcher.end() );    
-                String includeFileName = includeMatcher.group(1); // this.currentLineAfterMacroEval.substring( includeMatcher.start(), includeMatcher.end() );
-                if ( this.verbose ) System.out.println( HDR +"includeFileName='"+ includeFileName +"' and includeFileName.startsWith(?)="+ includeFileName.startsWith("?") +" includeFileName.substring(1)='"+ includeFileName.substring(1) + "'" );
-                final boolean bOkIfMissing = includeFileName.startsWith("?"); // that is, the script-file line was:- 'properties kwom=?fnwom'
-                includeFileName = includeFileName.startsWith("?") ? includeFileName.substring(1) : includeFileName; // remove the '?' prefix from key/lhs string
-                if ( this.verbose ) System.out.println( HDR +"includeFileName='"+ includeFileName );
-
-                this.includedFileScanner = this.create();
-                try {
-                    final boolean success = this.includedFileScanner.openFile( includeFileName, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace );
-                    if ( ! success )
-                        throw new Exception( "Unknown internal exception opening file: "+ includeFileName );
-                } catch ( java.io.FileNotFoundException fnfe) {
-                    if (  !   bOkIfMissing )
-                        throw fnfe;
-                }
-                if ( this.verbose ) System.out.println( HDR +"\t INCLUDE # "+ this.includedFileScanner );
-                return true; // !!!!!!!!!!!!!!!! ATTENTION !!!!!!!!!!!!!!!! method returns here.
-            } // if
-
-            Pattern printPattern = Pattern.compile( REGEXP_PRINT ); // Note: A line like 'print -' would FAIL to match \\S.*\\S
-            Matcher printMatcher    = printPattern.matcher( this.currentLineAfterMacroEval );
-            if (printMatcher.find()) {
-                if ( this.verbose ) System.out.println( CLASSNAME +": I found the text "+ printMatcher.group() +" starting at index "+  printMatcher.start() +" and ending at index "+ printMatcher.end() );    
-                final String printExpression  = printMatcher.group(1); // this.currentLineAfterMacroEval.substring( printMatcher.start(), printMatcher.end() );
-                onPrintCmd( printExpression ); // Note: We've already evaluated Macros, but the time we get to this IF-block.
-                return true; // !!!!!!!!!!!!!!!! ATTENTION !!!!!!!!!!!!!!!! method returns here.
-            }
-
-            // if we're here, then this class did NOT process the current line
-            return false;
+        // if the following returns false, then this class did NOT process the current line
+        return this.builtInCommands().exec( this.currentLineAfterMacroEval );
+    }
 
-        } catch (PatternSyntaxException e) {
-			e.printStackTrace(System.err); // too serious an internal-error.  Immediate bug-fix required.  The application/Program will exit .. in 2nd line below.
-			System.err.println( HDR + ": Unexpected Internal ERROR, while checking for pattern ("+ REGEXP_ECHO +")." );
-			System.exit(91); // This is a serious failure. Shouldn't be happening.
+    //==============================================================================
+    /**
+     *  <p>The 'include @filename' built-in command.</p>
+     *  @param includeFileName whatever is to the RIGHT side of the 'include' command in the Config file.
+     *  @throws java.io.FileNotFoundException if the file does Not exist (and the file-name does NOT have a '?' prefix)
+     *  @throws Exception any trouble reading the included-file
+     */
+    private void onIncludeCmd( String includeFileName ) throws java.io.FileNotFoundException, Exception
+    {
+        final String HDR = CLASSNAME +": onIncludeCmd(): ";
+        if ( this.verbose ) System.out.println( HDR +"includeFileName='"+ includeFileName +"' and includeFileName.startsWith(?)="+ includeFileName.startsWith("?") +" includeFileName.substring(1)='"+ includeFileName.substring(1) + "'" );
+        final boolean bOkIfMissing = includeFileName.startsWith("?"); // that is, the script-file line was:- 'properties kwom=?fnwom'
+        includeFileName = includeFileName.startsWith("?") ? includeFileName.substring(1) : includeFileName; // remove the '?' prefix from key/lhs string
+        if ( this.verbose ) System.out.println( HDR +"includeFileName='"+ includeFileName );
+
+        this.includedFileScanner = this.create();
+        this.includedFileScanner.output = this.output;
+        try {
+            final boolean success = this.includedFileScanner.openFile( includeFileName, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace );
+            if ( ! success )
+                throw new Exception( "Unknown internal exception opening file: "+ includeFileName );
+        } catch ( java.io.FileNotFoundException fnfe) {
+            if (  !   bOkIfMissing )
+                throw fnfe;
         }
-        return false; // we shouldn't be getting here, due to 'System.exit()' within above catch()
+        if ( this.verbose ) System.out.println( HDR +"\t INCLUDE # "+ this.includedFileScanner );
     }
 
     //==============================================================================
@@ -545,15 +567,99 @@ public class ConfigFileScannerL2 extends ConfigFileScanner {
             // !!!!!!!!!!!!!!!!!!!!! ATTENTION !!!!!!!!!!!!!!!!!!!
             // How do we allow sub-classes to INFLUENCE what is 'printed':  Example:    print !lookupContent (within subclasses)
             // NOTE: A simple workaround:   Within subclasses.. for a Config/Batch file, we need 2 lines:  (1) use !lookupContent (2) print -
-            System.out.println( str2output ); // println (<--- end-of-line EOL character is output)
+            this.output.println( str2output ); // println (<--- end-of-line EOL character is output)
 
         } else {
-            System.out.print( str2output +" " ); // print only (<--- NO end-of-line EOL character outputted.)
+            this.output.print( str2output +" " ); // print only (<--- NO end-of-line EOL character outputted.)
             // Why add a ' ' at the end?
             // Because I currently do NOT support printing ANY WhiteSpace (incl. Tabs).. .. so successive 'print' commands have at least 1 space separating the output
         }
+        // No flush here.  OutputSink.SYSTEM_OUT flushes every write anyway.  A buffered OutputSink is flushed by hasNextLine(), once there are No more lines.
+    }
 
-        System.out.flush();
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     * <p>Same as {@link ConfigFileScanner#lines()} - that is, one element for EVERY line of this file - with the 'echo' prefix removed and macros evaluated.</p>
+     * <p>Unlike {@link #hasNextLine()}/{@link #nextLine()}, the built-in commands ('include' and 'print') are NOT executed and NOT skipped: they're in this stream too (macros evaluated), exactly where they are in the file.
+     *    So, 'include'd files are NOT descended into.</p>
+     * <p>Macros are evaluated against a FROZEN copy of the properties (taken when this method is invoked), so this stream can be processed in parallel, while the properties continue to be modified.  Nothing is echoed.</p>
+     * @return a NotNull Stream, backed by a sized and splittable Spliterator
+     * @throws IllegalStateException if this object was opened in streaming-mode.  Also thrown (while the stream is being processed) if a macro can Not be evaluated.
+     */
+    public java.util.stream.Stream<String> linesAfterMacroEval() throws IllegalStateException {
+        final String HDR = CLASSNAME + ": linesAfterMacroEval(): ";
+        final LinkedHashMap<String, Properties> frozen = Macros.snapshot( this.propsSetRef );
+        // each variable is resolved just once per part of the stream (as split for parallel processing), as the properties are frozen
+        return MacroBulkEvaluator.evalLazily( this.lines().map( ConfigFileScannerL2::removeEchoPrefix ), frozen, HDR, this.getFileName() ); // same order as nextLine()
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     * See {@link ConfigFileScanner#position()}.  This override captures the position within the 'include'd file (if any), recursively.
+     * @return a NotNull snapshot of the current position
+     */
+    @Override
+    public Position position() {
+        return new Position( this.currentLineNum, this.includedFileScanner, ( this.includedFileScanner == null ) ? null : this.includedFileScanner.position() );
+    }
+
+    /**
+     * See {@link ConfigFileScanner#seek(Position)}.  This override restores the 'include'd scanner (if any) and its position, recursively.  {@link #seekToLine(int)} therefore exits any 'include'd file.
+     * @param _pos NotNull, and obtained from THIS object
+     * @throws IndexOutOfBoundsException if _pos is Not valid for this object
+     * @throws IllegalStateException if this object was opened in streaming-mode (and _pos is Not the current position)
+     */
+    @Override
+    public void seek( final Position _pos ) throws IndexOutOfBoundsException, IllegalStateException {
+        this.validateSeek( _pos ); // before touching anything, so that a bad _pos leaves this object (and the 'include' chain) as-is
+        this.includedFileScanner = (ConfigFileScannerL2) _pos.included;
+        if ( this.includedFileScanner != null )
+            this.includedFileScanner.seek( _pos.includedPosition );
+        super.seek( _pos ); // this will invoke onCursorMoved()
+    }
+
+    /**
+     * See {@link ConfigFileScanner#validateSeek(Position)}.  This override also validates the 'include'd scanner's position, recursively.
+     * @param _pos NotNull
+     * @throws IndexOutOfBoundsException if _pos is Not valid for this object (incl. if it was obtained from a different kind of scanner)
+     * @throws IllegalStateException if this object was opened in streaming-mode (and _pos is Not the current position)
+     */
+    @Override
+    protected void validateSeek( final Position _pos ) throws IndexOutOfBoundsException, IllegalStateException {
+        super.validateSeek( _pos );
+        if ( _pos.included == null )
+            return;
+        if (   !   ( _pos.included instanceof ConfigFileScannerL2 ) || _pos.includedPosition == null )
+            throw new IndexOutOfBoundsException( CLASSNAME +": validateSeek("+ _pos +"): Not a position within ["+ this.getFileName() +"]" );
+        ((ConfigFileScannerL2) _pos.included).validateSeek( _pos.includedPosition );
+    }
+
+    /**
+     * See {@link ConfigFileScanner#onCursorMoved()}.  Re-computes the per-line state (whether line is to be echoed, ..) for the new current-line - without echo-ing anything.
+     */
+    @Override
+    protected void onCursorMoved() {
+        if ( this.includedFileScanner != null )
+            return; // the 'include'd scanner has already re-computed its own per-line state, within its own seek()
+        super.onCursorMoved();
+        if ( this.currentLineNum <= 0 ) return; // rewound.  No current-line.
+        final String HDR = CLASSNAME + ": onCursorMoved(): ";
+        final String line = this.lineAt( this.currentLineNum - 1 );
+        this.bLine2bEchoed = ConfigFileScannerL2.checkForEchoPrefix( this.verbose, line );
+        try {
+            // Unlike nextLine(), there is NO echo-ing here.  The line was already echoed when it was read the 1st time.
+            this.currentLineAfterMacroEval = Macros.evalThoroughly( this.verbose, ConfigFileScannerL2.removeEchoPrefix( line ), this.propsSetRef );
+        } catch (Exception e) {
+            // same as nextLineOrNull() - garbage-in-garbage-out.  Dump the error on the user, and the current-line will be null.
+            e.printStackTrace(System.err);
+            System.err.println( "\n\n"+ HDR + " Unexpected Internal ERROR @ " + this.getState() +"." );
+        }
     }
 
     //==============================================================================
@@ -586,6 +692,18 @@ public class ConfigFileScannerL2 extends ConfigFileScanner {
         this.propsSetRef = _orig.propsSetRef;
     }
 
+    /**
+     * Extends {@link ConfigFileScanner#structuralCloneFix(ConfigFileScanner)}.  The 'include'd scanner (if any) has a position of its own, so it needs to be cloned as well (recursively).  this.propsSetRef continues to be shared.
+     * @param _orig the original NON-Null object
+     */
+    @Override
+    protected void structuralCloneFix( final ConfigFileScanner _orig ) {
+        super.structuralCloneFix(_orig);
+        this.builtInCommands = null; // the handlers refer to _orig
+        if ( this.includedFileScanner != null )
+            this.includedFileScanner = ConfigFileScanner.structuralClone( this.includedFileScanner );
+    }
+
     //==============================================================================
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     //==============================================================================
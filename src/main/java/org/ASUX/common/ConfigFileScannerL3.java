@@ -36,8 +36,13 @@ import java.util.regex.*;
 
 import org.ASUX.common.Macros.MacroException;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Properties;
 
 import java.io.File;
@@ -81,7 +86,9 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
     public static final String REGEXP_OBJECT_REFERENCE = "[?]*[@!]" + REGEXP_NAME;
 
     public static final String REGEXP_ECHO = "^\\s*echo\\s+(\\S.*\\S)\\s*$";
+    private static final Pattern ECHO_PATTERN = Pattern.compile( REGEXP_ECHO );
     public static final String REGEXP_INCLUDE = "^\\s*include\\s+(" + REGEXP_OBJECT_REFERENCE + ")\\s*$";
+    private static final Pattern INCLUDE_PATTERN = Pattern.compile( REGEXP_INCLUDE );
     public static final String REGEXP_PRINT = "^\\s*print\\s+(\\S.*\\S|\\.)\\s*$";
 
     // @@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
@@ -95,6 +102,8 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
      * object-lifecycle is maintained by some other class (as in, creating new
      * LinkedHashMap&lt;&gt;(), putting content into it, updating content as File is
      * further processed, ..)
+     * Ideally a {@link PropertySets} (as created by ScriptFileScanner.initProperties()), so that
+     * Macro-evaluation uses its lock-free index.
      */
     protected transient LinkedHashMap<String, Properties> propsSetRef;
 
@@ -104,6 +113,28 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
      */
     protected ConfigFileScannerL3 includedFileScanner = null;
 
+    /** Memoized result of {@link #currentLine()}: valid only while the raw current-line is memoRawLine and the properties are at memoVersion.  null means nothing memoized. */
+    private transient String memoRawLine = null;
+    private transient long memoVersion = -1;
+    private transient String memoLine = null;
+
+    /** Non-null only if {@link #trackMacroDependencies()} was invoked.  key = line# (see {@link ConfigFileScanner#getLineNum()}) */
+    private transient MacroDependencies macroDependencies = null;
+
+    /** Non-null only if {@link #trackMacroDependencies()} was invoked.  key = line# of an 'include' line, value = the scanner of that 'include'd file - kept even after we're done with it, so that {@link #reevaluateAll(String, Collection)} can get to its lines */
+    private transient HashMap<Integer,ConfigFileScannerL3> trackedIncludes = null;
+
+    /** See {@link #setFlattenStaticIncludes(boolean)} */
+    private boolean bFlattenStaticIncludes = false;
+
+    /** Non-null IF-AND-ONLY-IF openFile() flattened the static 'include's (see {@link #setFlattenStaticIncludes(boolean)}).
+     *  Line # N (see {@link ConfigFileScanner#getLineNum()}) came from the file flattenedSources[ flattenedSourceOfLine[ N-1 ] ].  Never modified (so, shared by all clones). */
+    private String[] flattenedSources = null;
+    private int[] flattenedSourceOfLine = null;
+
+    /** See {@link #builtInCommands()}.  transient, as the handlers refer to THIS object (so, NOT to be shared with any clone) */
+    private transient BuiltInCommands builtInCommands = null;
+
     // ==============================================================================
     // @@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     // ==============================================================================
@@ -159,6 +190,11 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
         // this.resetFlagsForEachLine(); this is already invoked within super.reset()
 
         this.includedFileScanner = null;
+        this.flattenedSources = null;
+        this.flattenedSourceOfLine = null;
+        this.forgetMemoizedLine();
+        if ( this.macroDependencies != null ) this.macroDependencies.clear(); // the line#s will refer to different lines
+        if ( this.trackedIncludes != null ) this.trackedIncludes.clear();
         // if ( this.propsSetRef != null ) this.propsSetRef.clear(); <---- WARNING: !!!!!!!!!!!!!!!!!!!
         // The lifecycle of the instance/object pointed to by 'propsSetRef' is owned by someone else!!!
     }
@@ -222,9 +258,7 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
         if (this.includedFileScanner != null)
             return this.includedFileScanner.currentLine();
 
-        final String currLnNoMacro = Macros.evalThoroughly( this.verbose, super.currentLine(), this.propsSetRef );
-        final String nextLn = ConfigFileScannerL3.removeEchoPrefix( currLnNoMacro );
-        return nextLn;
+        return this.currentLineAfterMacroEval();
     }
 
     //=============================================================================
@@ -240,9 +274,7 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
             return this.includedFileScanner.currentLineOrNull();
 
         try {
-            final String currLnNoMacro = Macros.evalThoroughly( this.verbose, super.currentLine(), this.propsSetRef );
-            final String nextLn = ConfigFileScannerL3.removeEchoPrefix( currLnNoMacro );
-            return nextLn;
+            return this.currentLineAfterMacroEval();
         } catch (Exception e) {
             if ( this.verbose ) e.printStackTrace(System.err); // Static Method. So.. can't avoid dumping this on the user.
             if ( this.verbose ) System.out.println( HDR +"Ignoring above exception and continuing by returning null" );
@@ -250,6 +282,137 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
         }
     }
 
+    //=============================================================================
+    /**
+     *  <p>The current-line, after Macro-evaluation and after removing any 'echo' prefix.</p>
+     *  <p>Macros are evaluated LATE (that is, every time this is invoked) - so that a 'setProperty' executed after this line was read, is still reflected.
+     *     But, if this.propsSetRef is a {@link PropertySets}, the result is memoized for as long as the cursor does NOT move and the properties do NOT change (see {@link PropertySets#getVersion()}).</p>
+     *  <p>If {@link #trackMacroDependencies()} was invoked, the variables that the result depends on are recorded as well.</p>
+     */
+    private String currentLineAfterMacroEval() throws Exception
+    {
+        final String rawLine = super.currentLine();
+        final PropertySets propsSet = ( this.propsSetRef instanceof PropertySets ) ? (PropertySets) this.propsSetRef : null;
+        if ( propsSet == null && this.macroDependencies == null )
+            return ConfigFileScannerL3.removeEchoPrefix( Macros.evalThoroughly( this.verbose, rawLine, this.propsSetRef ) );
+
+        final long version = ( propsSet == null ) ? -1 : propsSet.getVersion();
+        if ( propsSet != null && this.memoRawLine != null && version == this.memoVersion && this.memoRawLine.equals( rawLine ) )
+            return this.memoLine; // if dependencies are being tracked, they were recorded when this was memoized
+
+        final String line;
+        final boolean cacheable;
+        final long evalVersion;
+        if ( this.macroDependencies != null ) {
+            final ArrayList<String> dependencies = new ArrayList<>();
+            final MacroResolver resolver = new MacroResolver( this.verbose, this.propsSetRef );
+            try {
+                line = ConfigFileScannerL3.removeEchoPrefix( resolver.resolve( rawLine, dependencies ) );
+            } finally {
+                this.macroDependencies.record( this.currentLineNum, dependencies );
+            }
+            cacheable =  !  resolver.consultedLiveProperties();
+            evalVersion = version; // read BEFORE evaluating.  So, at worst, the result gets re-evaluated unnecessarily.
+        } else {
+            final PropertySets.Evaluation eval = propsSet.evaluate( this.verbose, rawLine );
+            line = ConfigFileScannerL3.removeEchoPrefix( eval.result );
+            cacheable = eval.cacheable;
+            evalVersion = eval.version;
+        }
+        if ( propsSet != null ) {
+            this.memoRawLine = cacheable ? rawLine : null; // a result that depended on System.env (or any other 'live' Properties) is never memoized.
+            this.memoVersion = evalVersion;
+            this.memoLine = line;
+        }
+        return line;
+    }
+
+    private void forgetMemoizedLine() {
+        this.memoRawLine = null;
+        this.memoLine = null;
+    }
+
+    //=============================================================================
+    /**
+     *  <p>From now on, record the variables that each line's macro-evaluation depends on (as {@link #currentLine()} is invoked for each line).<br>
+     *     Then, when a Properties changes, use {@link #reevaluate(String, Collection)} to re-evaluate ONLY the lines affected - rather than re-running the entire script.</p>
+     *  <p>Any file 'include'd from now on, tracks its own dependencies.  They're recorded against the 'include' line as well (see {@link MacroDependencies#recordInclude(int, MacroDependencies)}).</p>
+     *  @return the NotNull {@link MacroDependencies} of this object (the same one, if invoked again)
+     */
+    public MacroDependencies trackMacroDependencies() {
+        if ( this.macroDependencies == null ) {
+            this.macroDependencies = new MacroDependencies();
+            this.trackedIncludes = new HashMap<>();
+        }
+        return this.macroDependencies;
+    }
+
+    /** @return null, unless {@link #trackMacroDependencies()} was invoked */
+    public MacroDependencies getMacroDependencies() {
+        return this.macroDependencies;
+    }
+
+    /**
+     *  <p>Re-evaluates the macros within ONLY those lines (of the lines read so far) that depend on the given keys of the Properties with label _label (and, records their dependencies afresh).</p>
+     *  <p>Typical use: a file loaded via '<code>properties label=@file</code>' has changed.  Reload it into the Properties within this.propsSetRef, and pass in {@link MacroDependencies#changedKeys(Properties, Properties)}.</p>
+     *  <p>The affected lines within 'include'd files are re-evaluated as well, but are reported against the line# of the 'include' line (with the 'include' line as-is as the value).  Use {@link #reevaluateAll(String, Collection)} to get them individually.</p>
+     *  @param _label the label (within this.propsSetRef) of the Properties that changed.  Can be null.
+     *  @param _changedKeys NotNull
+     *  @return a NotNull map of line# (see {@link ConfigFileScanner#getLineNum()}) to what {@link #currentLine()} would now return for that line.  Lines NOT affected are NOT in here.
+     *  @throws IllegalStateException if {@link #trackMacroDependencies()} was NOT invoked
+     *  @throws Exception if the macros within any of those lines can NOT be evaluated anymore (example: cyclic definitions)
+     */
+    public LinkedHashMap<Integer,String> reevaluate( final String _label, final Collection<String> _changedKeys ) throws Exception
+    {
+        final LinkedHashMap<Integer,String> retval = new LinkedHashMap<>();
+        for ( Map.Entry<Position,String> e: this.reevaluateAll( _label, _changedKeys ).entrySet() ) {
+            final int lineNum = e.getKey().lineNum;
+            if ( e.getKey().included == null )
+                retval.put( lineNum, e.getValue() );
+            else
+                retval.putIfAbsent( lineNum, this.lineAt( lineNum - 1 ) ); // something within the 'include'd file changed
+        }
+        return retval;
+    }
+
+    /**
+     *  <p>Same as {@link #reevaluate(String, Collection)}, but the lines within 'include'd files (recursively) are reported individually.</p>
+     *  <p>Each line is identified by its {@link Position} - for a line of this file, that's just its line# - and for a line within an 'include'd file: the line# of the 'include' line, the scanner of that file, and the line's position within that scanner.</p>
+     *  @param _label the label (within this.propsSetRef) of the Properties that changed.  Can be null.
+     *  @param _changedKeys NotNull
+     *  @return a NotNull map (in the order of the lines) of position to what {@link #currentLine()} would now return for that line.  Lines NOT affected are NOT in here.
+     *  @throws IllegalStateException if {@link #trackMacroDependencies()} was NOT invoked
+     *  @throws Exception if the macros within any of those lines can NOT be evaluated anymore (example: cyclic definitions)
+     */
+    public LinkedHashMap<Position,String> reevaluateAll( final String _label, final Collection<String> _changedKeys ) throws Exception
+    {
+        final String HDR = this.getHDRPrefix() +": reevaluateAll("+ _label +","+ _changedKeys +"): ";
+        if ( this.macroDependencies == null )
+            throw new IllegalStateException( HDR +"trackMacroDependencies() was NOT invoked" );
+        this.forgetMemoizedLine();
+
+        final LinkedHashMap<Position,String> retval = new LinkedHashMap<>();
+        final BitSet affected = this.macroDependencies.affectedBy( _label, _changedKeys );
+        final MacroResolver resolver = new MacroResolver( this.verbose, this.propsSetRef ); // the properties do NOT change while we're in here
+        for ( int lineNum = affected.nextSetBit( 0 ); lineNum >= 0; lineNum = affected.nextSetBit( lineNum + 1 ) ) {
+            final ConfigFileScannerL3 included = this.trackedIncludes.get( lineNum );
+            if ( included != null ) {
+                // An 'include' line is Never returned by nextLine().  So, it's the lines within the 'include'd file that matter.
+                for ( Map.Entry<Position,String> e: included.reevaluateAll( _label, _changedKeys ).entrySet() )
+                    retval.put( new Position( lineNum, included, e.getKey() ), e.getValue() );
+                continue;
+            }
+            final ArrayList<String> dependencies = new ArrayList<>();
+            try {
+                retval.put( new Position( lineNum, null, null ), ConfigFileScannerL3.removeEchoPrefix( resolver.resolve( this.lineAt( lineNum - 1 ), dependencies ) ) );
+            } finally {
+                this.macroDependencies.record( lineNum, dependencies );
+            }
+        }
+        if ( this.verbose ) System.out.println( HDR +"re-evaluated "+ retval.size() +" lines: "+ retval.keySet() );
+        return retval;
+    }
+
     //===========================================================================
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     //===========================================================================
@@ -262,8 +425,8 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
      */
     public static boolean checkForEchoPrefix( final boolean _verbose, final String line )
     {   final String HDR = CLASSNAME +": checkForEchoPrefix(): ";
-        final Pattern echoPattern = Pattern.compile( REGEXP_ECHO );
-        final Matcher echoMatcher = echoPattern.matcher( line );
+        if ( line.indexOf( "echo" ) < 0 ) return false; // cheap check, before the REGEXP
+        final Matcher echoMatcher = ECHO_PATTERN.matcher( line );
         if (echoMatcher.find()) {
             if ( _verbose ) System.out.println( HDR +": I found the command to be ECHO-ed '"+ echoMatcher.group(1) +"' starting at index "+  echoMatcher.start() +" and ending at index "+ echoMatcher.end() );    
             if ( _verbose ) System.out.println( HDR +"\t Detected 'ECHO' prefix in Line # "+ line );
@@ -283,21 +446,15 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
     {   final String HDR = CLASSNAME +": removeEchoPrefix(): ";
         if ( _line == null ) return null;
 
-        try {
-            final Pattern echoPattern = Pattern.compile( REGEXP_ECHO );
-            final Matcher echoMatcher = echoPattern.matcher( _line );
-            if (echoMatcher.find()) {
-                // if ( _verbose ) System.out.println( HDR +": I found the command to be ECHO-ed '"+ echoMatcher.group(1) +"' starting at index "+  echoMatcher.start() +" and ending at index "+ echoMatcher.end() );    
-                return echoMatcher.group(1);
-            } else {
-                return _line;
-            } // if-else
-        } catch (PatternSyntaxException e) {
-			e.printStackTrace(System.err); // too serious an internal-error.  Immediate bug-fix required.  The application/Program will exit .. in 2nd line below.
-			System.err.println( HDR + ": Unexpected Internal ERROR, while checking for pattern ("+ REGEXP_ECHO +")." );
-			System.exit(91); // This is a serious failure. Shouldn't be happening.
-        }
-        return null; // we shouldn't be getting here, due to 'System.exit()' within above catch()
+        if ( _line.indexOf( "echo" ) < 0 ) return _line; // cheap check, before the REGEXP
+
+        final Matcher echoMatcher = ECHO_PATTERN.matcher( _line );
+        if (echoMatcher.find()) {
+            // if ( _verbose ) System.out.println( HDR +": I found the command to be ECHO-ed '"+ echoMatcher.group(1) +"' starting at index "+  echoMatcher.start() +" and ending at index "+ echoMatcher.end() );    
+            return echoMatcher.group(1);
+        } else {
+            return _line;
+        } // if-else
     }
 
     //===========================================================================
@@ -312,10 +469,25 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
     public String getState() {
         if ( this.includedFileScanner != null )
             return this.includedFileScanner.getState();
+        else if ( this.flattenedSources != null && this.currentLineNum > 0 )
+            return ConfigFileScanner.getState( this.getSourceFileName(), this.currentLineNum, this.origLineNumAt( this.currentLineNum - 1 ), ConfigFileScanner.currentLineOrNull( this ) );
         else
             return super.getState();
     }
 
+    /**
+     * Unlike {@link ConfigFileScanner#getFileName()}, this is the 'include'd file, if the current-line came from one (whether that 'include' was flattened or Not).
+     * @return the file-name (as passed to openFile() or to the 'include' command) that the current-line came from
+     */
+    public String getSourceFileName() {
+        if ( this.includedFileScanner != null )
+            return this.includedFileScanner.getSourceFileName();
+        else if ( this.flattenedSources != null && this.currentLineNum > 0 && this.currentLineNum <= this.flattenedSourceOfLine.length )
+            return this.flattenedSources[ this.flattenedSourceOfLine[ this.currentLineNum - 1 ] ];
+        else
+            return this.getFileName();
+    }
+
     //===========================================================================
 
     /**
@@ -341,6 +513,13 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
             this.includedFileScanner.setVerbose(_verbose);
     }
 
+    @Override
+    public void setOutput( final OutputSink _output ) {
+        super.setOutput(_output);
+        if ( this.includedFileScanner != null )
+            this.includedFileScanner.setOutput(_output);
+    }
+
     //===========================================================================
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     //===========================================================================
@@ -364,7 +543,10 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
         } else {
             // Attention!!! Since we are DONE with 'included' file.. we need to look at the next row in _THIS_ file.
             this.includedFileScanner = null;
-            return ConfigFileScannerL3.hasNextLine( this );
+            final boolean retval = ConfigFileScannerL3.hasNextLine( this );
+            if (  !  retval )
+                this.output.flush(); // an explicit flush-point: No more output is possible, until the user does something else with this object
+            return retval;
         }
     }
 
@@ -475,6 +657,7 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
 
         // this.bLine2bEchoed must be set PRIOR to calling evalMacroAndEcho() 4 lines below.
         String nextLn = super.nextLine();
+        this.forgetMemoizedLine();
         this.bLine2bEchoed = ConfigFileScannerL3.checkForEchoPrefix( this.verbose, nextLn );
         nextLn = ConfigFileScannerL3.removeEchoPrefix( nextLn );
 
@@ -498,6 +681,7 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
             return this.includedFileScanner.nextLineOrNull();
 
         String nextLn = super.nextLineOrNull();
+        this.forgetMemoizedLine();
         // this.bLine2bEchoed must be set PRIOR to calling evalMacroAndEcho() 4 lines below.
         this.bLine2bEchoed = ConfigFileScannerL3.checkForEchoPrefix( this.verbose, nextLn );
         nextLn = ConfigFileScannerL3.removeEchoPrefix( nextLn );
@@ -532,10 +716,10 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
 
         if ( this.isLine2bEchoed() ) {
             if ( bNoChange ) {
-                System.out.println("\tEcho: " + preMacroStr);
+                this.output.println("\tEcho: " + preMacroStr);
             } else {
-                System.out.println("\tEcho (As-Is): " + preMacroStr);
-                System.out.println("\tEcho (Macros-substituted): " + ConfigFileScannerL3.removeEchoPrefix( currLnNoMacro ) );
+                this.output.println("\tEcho (As-Is): " + preMacroStr);
+                this.output.println("\tEcho (Macros-substituted): " + ConfigFileScannerL3.removeEchoPrefix( currLnNoMacro ) );
             }
         }
 
@@ -546,24 +730,48 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     //==============================================================================
 
+    /**
+     *  <p>The built-in commands of this object, as registered by {@link #registerBuiltInCommands(BuiltInCommands)} (lazily, the 1st time they're needed).</p>
+     *  @return NotNull
+     */
+    protected final BuiltInCommands builtInCommands() {
+        if ( this.builtInCommands == null ) {
+            final BuiltInCommands commands = new BuiltInCommands();
+            this.registerBuiltInCommands( commands );
+            this.builtInCommands = commands;
+        }
+        return this.builtInCommands;
+    }
+
+    /**
+     *  <p>Registers the built-in commands that {@link #isBuiltInCommand(String)} and {@link #execBuiltInCommand()} will be processing 'internally' within this class.</p>
+     *  <p>In this class, those would be the REGEXP for 'print ...' and 'include @...'.<br>
+     *     Subclasses (that have built-in commands of their own) should override this method, invoke super.registerBuiltInCommands() and then register their own.  There is No need to override isBuiltInCommand() or execBuiltInCommand().</p>
+     *  @param _commands NotNull
+     */
+    protected void registerBuiltInCommands( final BuiltInCommands _commands ) {
+        _commands.register( "include", REGEXP_INCLUDE, m -> this.onIncludeCmd( m.group(1) ) );
+        _commands.register( "print",   REGEXP_PRINT,   m -> this.onPrintCmd( m.group(1) ) ); // Note: A line like 'print -' would FAIL to match \\S.*\\S
+    }
+
+    //==============================================================================
     /**
      *  <p>This method is used to simply tell whether 'current-line' matches the REGEXP patterns that execBuiltInCommand() will be processing 'internally' within this class</p>
-     *  <p>In this class, those would be the REGEXP for 'print ...' and 'include @...'</p>
+     *  <p>In this class, those would be the REGEXP for 'print ...' and 'include @...' (and, whatever subclasses register via {@link #registerBuiltInCommands(BuiltInCommands)})</p>
      *  @param nextLn current line or 'peek-forward' line
      *  @return true if the line will be processed 'internally'
      */
     protected boolean isBuiltInCommand( final String nextLn ) {
         final String HDR = this.getHDRPrefix() +": isBuiltInCommand(): ";
-        if ( this.includedFileScanner != null )
-            return this.includedFileScanner.isBuiltInCommand( nextLn );
+        if ( this.includedFileScanner != null && this.includedFileScanner.isBuiltInCommand( nextLn ) )
+            return true;
 
         if ( nextLn == null ) return false;
 
         final String noprefix = removeEchoPrefix( nextLn );
         if ( this.verbose ) System.out.println( HDR + "noprefix="+ noprefix );
-        if ( this.verbose ) System.out.println( HDR + "noprefix.matches( REGEXP_PRINT )="+ noprefix.matches( REGEXP_PRINT ) );
 
-        final boolean retb = noprefix.matches( REGEXP_PRINT ) || noprefix.matches( REGEXP_INCLUDE );
+        final boolean retb = this.builtInCommands().isBuiltInCommand( noprefix );
         if ( this.verbose ) System.out.println( HDR + "is "+ (retb ? "" : "NOT") +" a BUILT-IN COMMAND: "+ nextLn );
         return retb;
     }
@@ -575,6 +783,7 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
     /** <p>New Method added to this subclass.  Implement your command parsing and do as appropriate.</p>
      *  <p>ATTENTION: Safely assume that any 'echo' prefix parsing and any 'print' parsing has happened already in a TRANSAPARENT way.</p>
      *  <p>This method is automatically invoked _WITHIN_ nextLine().  nextLine() is inherited from the parent {@link org.ASUX.common.ConfigFileScanner}.</p>
+     *  <p>The current-line is dispatched (by its 1st word) to whatever was registered via {@link #registerBuiltInCommands(BuiltInCommands)}.  If this object is within an 'include'd file, the 'include'd scanner gets the 1st chance.</p>
      *  @return true if all 'normal', and false IF-AND-ONLY-IF any problems (you are advised to throw Exception instead)
      *  @throws java.io.FileNotFoundException If we encounter a 'include' built-in command and the filename passed as '@...' does Not exist.
      *  @throws java.io.IOException If we encounter a 'include' built-in command and there is any trouble reding the included-file passed in as '@...'
@@ -583,10 +792,10 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
     protected boolean execBuiltInCommand() throws java.io.FileNotFoundException, java.io.IOException, Exception
     {
         final String HDR = this.getHDRPrefix() +": execBuiltInCommand(): ";
-        if ( this.includedFileScanner != null )
-            return this.includedFileScanner.execBuiltInCommand();
+        if ( this.includedFileScanner != null && this.includedFileScanner.execBuiltInCommand() )
+            return true;
 
-        final String line = (this.includedFileScanner != null) ?  this.includedFileScanner.currentLine() : this.currentLine();
+        final String line = this.currentLine(); // if within an 'include'd file, this is the current-line of that file
 
         if ( this.verbose ) System.out.println( HDR + this.getState() +"\n\t\tline="+ line );
 
@@ -595,64 +804,76 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
             // we should have weeded out 'whitespace-only' lines as part of openFile().
             // If user's Properties (loaded into this.allPropsRef) lead to a MACRO EXPRESSION that is null.. that is the user's problem to figure out what the heck is this exception.
 
-        try {
-            final Pattern includePattern = Pattern.compile( REGEXP_INCLUDE );
-            final Matcher includeMatcher = includePattern.matcher( line );
-            if (includeMatcher.find()) {
-                if ( this.verbose ) System.out.println( HDR +": I found the INCLUDE command: '"+ includeMatcher.group(1) +"' starting at index "+  includeMatcher.start() +" and ending at index "+ includeMatcher.end() );    
-                String includeFileName = includeMatcher.group(1); // line.substring( includeMatcher.start(), includeMatcher.end() );
-                if ( this.verbose ) System.out.println( HDR +"includeFileName='"+ includeFileName +"' and includeFileName.startsWith(?)="+ includeFileName.startsWith("?") +" includeFileName.substring(1)='"+ includeFileName.substring(1) + "'" );
+        // if the following returns false, then this class did NOT process the current line
+        return this.builtInCommands().exec( line );
+    }
 
-                final boolean bOkIfMissing = includeFileName.startsWith("?"); // that is, the script-file line was:- 'properties kwom=?fnwom'
-                includeFileName = includeFileName.startsWith("?") ? includeFileName.substring(1) : includeFileName; // remove the '?' prefix from key/lhs string
-                if ( this.verbose ) System.out.println( HDR +"includeFileName='"+ includeFileName +"'" );
+    //==============================================================================
+    /**
+     *  <p>The 'include @filename' built-in command.</p>
+     *  @param _includeFileName whatever is to the RIGHT side of the 'include' command in the Config file.
+     *  @throws java.io.FileNotFoundException if the file does Not exist (and the file-name does NOT have a '?' prefix)
+     *  @throws Exception any trouble reading the included-file
+     */
+    private void onIncludeCmd( final String _includeFileName ) throws java.io.FileNotFoundException, Exception
+    {
+        final String HDR = this.getHDRPrefix() +": onIncludeCmd(): ";
+        this.includedFileScanner = ConfigFileScannerL3.openIncludedFile( this.verbose, this.propsSetRef, _includeFileName, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace );   // ConfigFileScannerL2 would instead invoke:- this.create()
+        this.includedFileScanner.output = this.output;
+        if ( this.macroDependencies != null ) {
+            // so that the dependencies of the 'include'd file remain reachable (from the 'include' line), even after we're done with that file
+            this.macroDependencies.recordInclude( this.currentLineNum, this.includedFileScanner.trackMacroDependencies() );
+            this.trackedIncludes.put( this.currentLineNum, this.includedFileScanner );
+        }
+        if ( this.verbose ) System.out.println( HDR +"\t INCLUDED_File's contents:\n"+ this.includedFileScanner );
+    }
 
-                final String filenameWWOAt = includeFileName.startsWith("?") ? includeFileName.substring(1) : includeFileName; // remove the '?' prefix from file's name/path.
-                // 'WWOAt' === With-OR-Without-@-symbol ... as,  we're Not sure if there is an '@' prefix (to the file-name).
+    /**
+     *  <p>What the 'include @filename' built-in command does (also used by {@link CompiledScript.Executor}): opens the file in a new instance of this class (Never that of any subclass).</p>
+     *  @param _verbose Whether you want deluge of debug-output onto System.out.
+     *  @param _propsSet the properties that the new instance will use (see {@link #propsSetRef})
+     *  @param includeFileName whatever is to the RIGHT side of the 'include' command in the Config file.
+     *  @param _ok2TrimWhiteSpace see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}
+     *  @param _bCompressWhiteSpace see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}
+     *  @return NotNull.  If the file does Not exist (and the file-name has a '?' prefix), an instance with No lines.
+     *  @throws java.io.FileNotFoundException if the file does Not exist (and the file-name does NOT have a '?' prefix)
+     *  @throws Exception any trouble reading the included-file
+     */
+    static ConfigFileScannerL3 openIncludedFile( final boolean _verbose, final LinkedHashMap<String, Properties> _propsSet, String includeFileName,
+                                    final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace ) throws java.io.FileNotFoundException, Exception
+    {
+        final String HDR = CLASSNAME +": openIncludedFile(): ";
+        if ( _verbose ) System.out.println( HDR +"includeFileName='"+ includeFileName +"' and includeFileName.startsWith(?)="+ includeFileName.startsWith("?") +" includeFileName.substring(1)='"+ includeFileName.substring(1) + "'" );
 
-                final String filename = filenameWWOAt.startsWith("@") ? filenameWWOAt.substring(1) : filenameWWOAt;
+        final boolean bOkIfMissing = includeFileName.startsWith("?"); // that is, the script-file line was:- 'properties kwom=?fnwom'
+        includeFileName = includeFileName.startsWith("?") ? includeFileName.substring(1) : includeFileName; // remove the '?' prefix from key/lhs string
+        if ( _verbose ) System.out.println( HDR +"includeFileName='"+ includeFileName +"'" );
 
-                final File fileObj = new File ( filename );
-                if ( fileObj.exists() && fileObj.canRead() ) {
-                    if ( this.verbose ) System.out.println( HDR +"Filename=[" + fileObj.getAbsolutePath() +"] exists!" );
-                } else {
-                    if ( this.verbose ) System.out.println( HDR +"Filename=[" + fileObj.getAbsolutePath() +"] does __NOT__ exist !!!!" );
-                }
+        final String filenameWWOAt = includeFileName.startsWith("?") ? includeFileName.substring(1) : includeFileName; // remove the '?' prefix from file's name/path.
+        // 'WWOAt' === With-OR-Without-@-symbol ... as,  we're Not sure if there is an '@' prefix (to the file-name).
 
-                this.includedFileScanner = new ConfigFileScannerL3( this.verbose, this.propsSetRef );   // ConfigFileScannerL2 would instead invoke:- this.create()
-                try {
-                    if ( this.verbose ) System.out.println( HDR +"About to openFile(" + includeFileName +"] " );
-                    final boolean success = this.includedFileScanner.openFile( includeFileName, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace );
-                    if ( ! success )
-                        throw new Exception( "Unknown internal exception opening file: "+ includeFileName );
-                } catch ( java.io.FileNotFoundException fnfe) {
-                    if (  !   bOkIfMissing ) {
-                        if ( this.verbose ) System.out.println( HDR +"Filename=[" + fileObj.getAbsolutePath() +"] does __NOT__ exist !!!!\n"+ fnfe );
-                        throw fnfe;
-                    }
-                }
-                if ( this.verbose ) System.out.println( HDR +"\t INCLUDED_File's contents:\n"+ this.includedFileScanner );
-                return true; // !!!!!!!!!!!!!!!! ATTENTION !!!!!!!!!!!!!!!! method returns here.
-            } // if
-
-            Pattern printPattern = Pattern.compile( REGEXP_PRINT ); // Note: A line like 'print -' would FAIL to match \\S.*\\S
-            Matcher printMatcher    = printPattern.matcher( line );
-            if (printMatcher.find()) {
-                if ( this.verbose ) System.out.println( HDR +": I found the text "+ printMatcher.group() +" starting at index "+  printMatcher.start() +" and ending at index "+ printMatcher.end() );    
-                final String printExpression  = printMatcher.group(1); // line.substring( printMatcher.start(), printMatcher.end() );
-                onPrintCmd( printExpression ); // Note: We've already evaluated Macros, but the time we get to this IF-block.
-                return true; // !!!!!!!!!!!!!!!! ATTENTION !!!!!!!!!!!!!!!! method returns here.
-            }
+        final String filename = filenameWWOAt.startsWith("@") ? filenameWWOAt.substring(1) : filenameWWOAt;
 
-            // if we're here, then this class did NOT process the current line
-            return false;
+        final File fileObj = new File ( filename );
+        if ( fileObj.exists() && fileObj.canRead() ) {
+            if ( _verbose ) System.out.println( HDR +"Filename=[" + fileObj.getAbsolutePath() +"] exists!" );
+        } else {
+            if ( _verbose ) System.out.println( HDR +"Filename=[" + fileObj.getAbsolutePath() +"] does __NOT__ exist !!!!" );
+        }
 
-        } catch (PatternSyntaxException e) {
-			e.printStackTrace(System.err); // too serious an internal-error.  Immediate bug-fix required.  The application/Program will exit .. in 2nd line below.
-			System.err.println( HDR + ": Unexpected Internal ERROR, while checking for pattern ("+ REGEXP_ECHO +")." );
-			System.exit(91); // This is a serious failure. Shouldn't be happening.
+        final ConfigFileScannerL3 included = new ConfigFileScannerL3( _verbose, _propsSet );
+        try {
+            if ( _verbose ) System.out.println( HDR +"About to openFile(" + includeFileName +"] " );
+            final boolean success = included.openFile( includeFileName, _ok2TrimWhiteSpace, _bCompressWhiteSpace );
+            if ( ! success )
+                throw new Exception( "Unknown internal exception opening file: "+ includeFileName );
+        } catch ( java.io.FileNotFoundException fnfe) {
+            if (  !   bOkIfMissing ) {
+                if ( _verbose ) System.out.println( HDR +"Filename=[" + fileObj.getAbsolutePath() +"] does __NOT__ exist !!!!\n"+ fnfe );
+                throw fnfe;
+            }
         }
-        return false; // we shouldn't be getting here, due to 'System.exit()' within above catch()
+        return included;
     }
 
     //==============================================================================
@@ -677,22 +898,315 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
 
         // Note: Because of the RegExp based grammer in execBuiltInCommand().. this assertTrue should never throw.
         assertTrue ( _printExpression != null);
+        ConfigFileScannerL3.print( this.output, _printExpression );
+    }
 
+    /**
+     *  <p>What the 'print ...' built-in command does (also used by {@link CompiledScript.Executor}).</p>
+     *  @param _output NotNull.  where to print to
+     *  @param _printExpression NotNull.  whatever is to the RIGHT side of the 'print' command in the Config file.
+     *  @throws java.io.IOException any trouble writing to _output
+     */
+    static void print( final OutputSink _output, final String _printExpression ) throws java.io.IOException
+    {
         String str2output = _printExpression.toString(); // clone
         if ( str2output.trim().endsWith("\\n") ) {
             str2output = str2output.substring(0, str2output.length()-2); // chop out the 2-characters '\n'
             // !!!!!!!!!!!!!!!!!!!!! ATTENTION !!!!!!!!!!!!!!!!!!!
             // How do we allow sub-classes to INFLUENCE what is 'printed':  Example:    print !lookupContent (within subclasses)
             // NOTE: A simple workaround:   Within subclasses.. for a Config/Batch file, we need 2 lines:  (1) use !lookupContent (2) print -
-            System.out.println( str2output ); // println (<--- end-of-line EOL character is output)
+            _output.println( str2output ); // println (<--- end-of-line EOL character is output)
 
         } else {
-            System.out.print( str2output +" " ); // print only (<--- NO end-of-line EOL character outputted.)
+            _output.print( str2output +" " ); // print only (<--- NO end-of-line EOL character outputted.)
             // Why add a ' ' at the end?
             // Because I currently do NOT support printing ANY WhiteSpace (incl. Tabs).. .. so successive 'print' commands have at least 1 space separating the output
         }
+        // No flush here.  OutputSink.SYSTEM_OUT flushes every write anyway.  A buffered OutputSink is flushed by hasNextLine(), once there are No more lines.
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
 
-        System.out.flush();
+    /**
+     * <p>Same as {@link ConfigFileScanner#lines()} - that is, one element for EVERY line of THIS file - with macros evaluated and the 'echo' prefix removed.</p>
+     * <p>Unlike {@link #hasNextLine()}/{@link #nextLine()}, the built-in commands (like 'print', 'include' and - in subclasses - 'setProperty') are NOT executed and NOT skipped: they're in this stream too (macros evaluated), exactly where they are in the file.
+     *    So, 'include'd files are NOT descended into (unless they were flattened into this file, see {@link #setFlattenStaticIncludes(boolean)}), and a 'setProperty' does NOT affect the lines after it.</p>
+     * <p>Macros are evaluated against a FROZEN copy of the properties (taken when this method is invoked), so this stream can be processed in parallel, while the properties continue to be modified.  Nothing is echoed.</p>
+     * @return a NotNull Stream, backed by a sized and splittable Spliterator
+     * @throws IllegalStateException if this object was opened in streaming-mode.  Also thrown (while the stream is being processed) if a macro can Not be evaluated.
+     */
+    public java.util.stream.Stream<String> linesAfterMacroEval() throws IllegalStateException {
+        final String HDR = CLASSNAME + ": linesAfterMacroEval(): ";
+        final LinkedHashMap<String, Properties> frozen = Macros.snapshot( this.propsSetRef );
+        // each variable is resolved just once per part of the stream (as split for parallel processing), as the properties are frozen
+        return MacroBulkEvaluator.evalLazily( this.lines(), frozen, HDR, this.getFileName() ).map( ConfigFileScannerL3::removeEchoPrefix );
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>Opt-in.  Whether {@link #openFile(Object, boolean, boolean)} should replace every STATIC '<code>include @file</code>' line with the lines of that file (recursively), so that there is just ONE table of lines to step thru.
+     *     The per-line cost of {@link #hasNextLine()} and {@link #nextLine()} is then the same, No matter how deeply the 'include's are nested.</p>
+     *  <p>An 'include' is static, if its line has No '<code>${..}</code>' macros and No 'echo' prefix, and it refers to a '@file' that exists when openFile() is invoked.
+     *     All other 'include's continue to be processed as the lines are read (exactly as when this is false).</p>
+     *  <p>Each line remembers which file it came from, so {@link #getState()} continues to refer to the 'include'd file and the line# within it (see also {@link #getSourceFileName()}).
+     *     But, {@link ConfigFileScanner#getLineNum()} and {@link ConfigFileScanner#getCommandCount()} refer to the flattened lines.  And, {@link #saveCompiled(String)} is Not possible.</p>
+     *  <p>Has No effect on {@link ConfigFileScanner#openFileStreaming(Object, boolean, boolean, int)}.</p>
+     *  @param _flatten true to flatten (default is false).  Takes effect from the next openFile() onwards.
+     */
+    public void setFlattenStaticIncludes( final boolean _flatten ) {
+        this.bFlattenStaticIncludes = _flatten;
+    }
+
+    /** @return see {@link #setFlattenStaticIncludes(boolean)} */
+    public boolean getFlattenStaticIncludes() {
+        return this.bFlattenStaticIncludes;
+    }
+
+    /**
+     * See {@link ConfigFileScanner#openFile(Object, boolean, boolean)}.  This override flattens the static 'include's, if so requested via {@link #setFlattenStaticIncludes(boolean)}.
+     * @param _input see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}
+     * @param _ok2TrimWhiteSpace see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}
+     * @param _bCompressWhiteSpace see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}
+     * @return true (successful and NO errors) or false (any error or issue/trouble whatsoever)
+     * @throws java.io.FileNotFoundException If filename passed as '@...' does Not exist.
+     * @throws java.io.IOException any trouble reding the file passed in as '@...' (or any file it 'include's)
+     * @throws java.lang.Exception if the 'include's are cyclic (while flattening).  Else, see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}
+     */
+    @Override
+    public boolean openFile( final Object _input, final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace )
+                    throws java.io.FileNotFoundException, java.io.IOException, Exception
+    {
+        if (  !  super.openFile( _input, _ok2TrimWhiteSpace, _bCompressWhiteSpace ) )
+            return false;
+        if ( this.bFlattenStaticIncludes )
+            this.flattenStaticIncludes();
+        return true;
+    }
+
+    /**
+     * See {@link ConfigFileScanner#openPrecompiled(String, boolean, boolean)}.  This override flattens the static 'include's, if so requested via {@link #setFlattenStaticIncludes(boolean)}.
+     * @param _compiledFile see {@link ConfigFileScanner#openPrecompiled(String, boolean, boolean)}
+     * @param _ok2TrimWhiteSpace see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}
+     * @param _bCompressWhiteSpace see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}
+     * @return true (successful and NO errors) or false (any error or issue/trouble whatsoever)
+     * @throws java.io.FileNotFoundException see {@link ConfigFileScanner#openPrecompiled(String, boolean, boolean)}
+     * @throws java.io.IOException see {@link ConfigFileScanner#openPrecompiled(String, boolean, boolean)}
+     * @throws java.lang.Exception see {@link #openFile(Object, boolean, boolean)}
+     */
+    @Override
+    public boolean openPrecompiled( final String _compiledFile, final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace )
+                    throws java.io.FileNotFoundException, java.io.IOException, Exception
+    {
+        if (  !  super.openPrecompiled( _compiledFile, _ok2TrimWhiteSpace, _bCompressWhiteSpace ) )
+            return false;
+        if ( this.bFlattenStaticIncludes )
+            this.flattenStaticIncludes(); // No-op, if super.openPrecompiled() fell back to this.openFile()
+        return true;
+    }
+
+    /**
+     * See {@link ConfigFileScanner#saveCompiled(String)}.
+     * @param _compiledFile where to write
+     * @throws IllegalStateException if the static 'include's were flattened (as the pre-compiled file would Not know which lines came from which file), or see {@link ConfigFileScanner#saveCompiled(String)}
+     * @throws java.io.IOException see {@link ConfigFileScanner#saveCompiled(String)}
+     */
+    @Override
+    public void saveCompiled( final String _compiledFile ) throws IllegalStateException, java.io.IOException {
+        if ( this.flattenedSources != null )
+            throw new IllegalStateException( this.getHDRPrefix() +": saveCompiled(): the 'include's were flattened (see setFlattenStaticIncludes()).  So, can NOT be pre-compiled" );
+        super.saveCompiled( _compiledFile );
+    }
+
+    //==============================================================================
+
+    /** The work-in-progress of {@link #flattenStaticIncludes()} */
+    private static final class Flattening {
+        final LineTable.Builder builder = new LineTable.Builder();
+        final ArrayList<String> sources = new ArrayList<>();
+        int[] sourceOfLine = new int[ 64 ];
+        /** the canonical-paths of the files currently being flattened (outermost 1st).  To detect cyclic 'include's */
+        final ArrayList<String> includePath = new ArrayList<>();
+
+        void add( final CharSequence _line, final int _origLineNum, final int _source ) {
+            final int ix = this.builder.size();
+            if ( ix >= this.sourceOfLine.length )
+                this.sourceOfLine = java.util.Arrays.copyOf( this.sourceOfLine, 2 * this.sourceOfLine.length );
+            this.sourceOfLine[ ix ] = _source;
+            this.builder.add( _line, _origLineNum );
+        }
+    }
+
+    /**
+     *  Replaces this.lines with a table in which every static 'include' line has been replaced by the lines of the 'include'd file (recursively).  See {@link #setFlattenStaticIncludes(boolean)}.
+     *  @throws java.io.FileNotFoundException see {@link #openIncludedFile(boolean, LinkedHashMap, String, boolean, boolean)}
+     *  @throws Exception if the 'include's are cyclic, or any trouble reading an 'include'd file
+     */
+    private void flattenStaticIncludes() throws java.io.FileNotFoundException, Exception
+    {
+        final String HDR = this.getHDRPrefix() +": flattenStaticIncludes(): ";
+        if ( this.flattenedSources != null ) return; // already flattened
+
+        final Flattening f = new Flattening();
+        final String fileName = this.getFileName();
+        if ( fileName.startsWith("@") )
+            f.includePath.add( new File( fileName.substring(1) ).getCanonicalPath() );
+        this.flatten( f, this.lines, fileName );
+
+        if ( f.sources.size() <= 1 ) return; // Nothing was 'include'd.  Avoid the overhead of tracking which file each line came from.
+        this.lines = f.builder.build();
+        this.flattenedSources = f.sources.toArray( new String[ f.sources.size() ] );
+        this.flattenedSourceOfLine = java.util.Arrays.copyOf( f.sourceOfLine, this.lines.size() );
+        if ( this.verbose ) System.out.println( HDR +"flattened "+ (this.flattenedSources.length - 1) +" 'include's into "+ this.lines.size() +" lines" );
+        this.rewind();
+    }
+
+    private void flatten( final Flattening _f, final LineTable _lines, final String _fileName ) throws java.io.FileNotFoundException, Exception
+    {
+        final String HDR = this.getHDRPrefix() +": flatten("+ _fileName +"): ";
+        final int source = _f.sources.size();
+        _f.sources.add( _fileName );
+
+        for ( int ix = 0; ix < _lines.size(); ix ++ ) {
+            final String includeFileName = this.staticIncludeOf( _lines.get( ix ) );
+            if ( includeFileName == null ) {
+                _f.add( _lines.charSequence( ix ), _lines.origLineNum( ix ), source );
+                continue;
+            }
+
+            final String canonicalPath = new File( includeFileName.substring(1) ).getCanonicalPath();
+            if ( _f.includePath.contains( canonicalPath ) )
+                throw new Exception( "Cyclic 'include's: "+ String.join( " --> ", _f.includePath ) +" --> "+ canonicalPath +"\nERROR in "+ ConfigFileScanner.getState( _fileName, ix + 1, _lines.origLineNum( ix ), _lines.get( ix ) ) );
+
+            if ( this.verbose ) System.out.println( HDR +"flattening line # "+ _lines.origLineNum( ix ) +": include "+ includeFileName );
+            final ConfigFileScannerL3 included = ConfigFileScannerL3.openIncludedFile( this.verbose, this.propsSetRef, includeFileName, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace );
+            _f.includePath.add( canonicalPath );
+            this.flatten( _f, included.lines, included.getFileName() );
+            _f.includePath.remove( _f.includePath.size() - 1 );
+        }
+    }
+
+    /**
+     *  @param _line a line as-is (that is, before macro-evaluation)
+     *  @return the '@file' that _line 'include's, if _line is a static 'include' (see {@link #setFlattenStaticIncludes(boolean)}).  Otherwise null.
+     */
+    private String staticIncludeOf( final String _line ) {
+        final String includeFileName = ConfigFileScannerL3.includedFileNameOf( _line );
+        if ( includeFileName == null ) return null;
+        if (  !  "include".equals( this.builtInCommands().keywordOf( _line ) ) ) return null; // Note: a line with an 'echo' prefix is Not a built-in command as-is
+
+        final File fileObj = new File( includeFileName.substring(1) );
+        return ( fileObj.isFile() && fileObj.canRead() ) ? includeFileName : null; // a missing file is left to execBuiltInCommand() to deal with ('?' prefix or Not)
+    }
+
+    /**
+     *  @param _line a line as-is (that is, before macro-evaluation, and without any 'echo' prefix)
+     *  @return the '@file' (without any '?' prefix) that _line 'include's - if _line is an 'include' of a file, whose name has No macros.  Otherwise null.
+     */
+    static String includedFileNameOf( final String _line ) {
+        if ( _line.indexOf( "include" ) < 0 || MacroTemplate.mightHaveMacros( _line ) ) return null; // cheap checks, before the REGEXP
+
+        final Matcher includeMatcher = INCLUDE_PATTERN.matcher( _line );
+        if (  !  includeMatcher.matches() ) return null;
+
+        final String includeFileName = includeMatcher.group(1);
+        final String noQuestionMark = includeFileName.startsWith("?") ? includeFileName.substring(1) : includeFileName;
+        return noQuestionMark.startsWith("@") ? noQuestionMark : null; // Not a file.  Example: a '!' reference (or '??@')
+    }
+
+    //==============================================================================
+
+    /**
+     *  <p>Optional.  Invoke after {@link #openFile(Object, boolean, boolean)}, to read ALL the files that will be 'include'd (directly or indirectly) - concurrently - into {@link ParsedFileCache#SHARED}.
+     *     Otherwise, each 'include'd file is read only when {@link #hasNextLine()} reaches the 'include' line - one file at a time.<br>
+     *     This is of use ONLY IF {@link ParsedFileCache#SHARED} has been enabled (it's opt-in).</p>
+     *  <p>If {@link ParsedFileCache#SHARED} is disabled, this is ONLY a check for cyclic 'include's: each file is still read (to find its 'include's) but then discarded - one after another, on the invoking thread (_executor is Not used).
+     *     So, each 'include'd file will be read AGAIN when its 'include' line is reached.</p>
+     *  <p>Only the 'include's whose file-names have No '<code>${..}</code>' macros can be followed.  Files that do Not exist are skipped.</p>
+     *  <p>Cyclic 'include's (which would otherwise recurse until the stack overflows) are detected, before a single line is processed.  Each 'include' is checked as soon as it's discovered, so no more files are read once a cycle is found.</p>
+     *  @param _executor where to read the files.  If null, {@link ConfigFileScanner#newDefaultExecutor()} is used (and shutdown before this method returns).
+     *  @return a NotNull (unmodifiable) include-graph: key = canonical-path of each file reached (or {@link ConfigFileScanner#getFileName()}, if this object's input is Not a file), value = canonical-paths of the files it 'include's
+     *  @throws IllegalStateException if this object was Not opened via openFile()
+     *  @throws Exception if the 'include's are cyclic (the message lists the files in the cycle), or any trouble reading an 'include'd file
+     */
+    public java.util.Map<String, java.util.List<String>> preloadIncludes( final java.util.concurrent.Executor _executor ) throws IllegalStateException, Exception
+    {
+        final String HDR = this.getHDRPrefix() +": preloadIncludes(): ";
+        if ( this.isStreaming() || this.fileName == null )
+            throw new IllegalStateException( HDR +"only possible after openFile()" );
+
+        if ( ParsedFileCache.SHARED.getMaxBytes() <= 0 ) { // Nothing read can be kept.  So, No point in reading files concurrently
+            final java.util.concurrent.Executor sameThread = Runnable::run;
+            return new IncludePreloader( this.verbose, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace, sameThread ).walk( this.getFileName(), this.lines );
+        }
+        final java.util.concurrent.ExecutorService owned = ( _executor == null ) ? ConfigFileScanner.newDefaultExecutor() : null;
+        try {
+            return new IncludePreloader( this.verbose, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace, ( owned != null ) ? owned : _executor ).walk( this.getFileName(), this.lines );
+        } finally {
+            if ( owned != null ) owned.shutdown();
+        }
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     * See {@link ConfigFileScanner#position()}.  This override captures the position within the 'include'd file (if any), recursively.
+     * @return a NotNull snapshot of the current position
+     */
+    @Override
+    public Position position() {
+        return new Position( this.currentLineNum, this.includedFileScanner, ( this.includedFileScanner == null ) ? null : this.includedFileScanner.position() );
+    }
+
+    /**
+     * See {@link ConfigFileScanner#seek(Position)}.  This override restores the 'include'd scanner (if any) and its position, recursively.  {@link #seekToLine(int)} therefore exits any 'include'd file.
+     * @param _pos NotNull, and obtained from THIS object
+     * @throws IndexOutOfBoundsException if _pos is Not valid for this object
+     * @throws IllegalStateException if this object was opened in streaming-mode (and _pos is Not the current position)
+     */
+    @Override
+    public void seek( final Position _pos ) throws IndexOutOfBoundsException, IllegalStateException {
+        this.validateSeek( _pos ); // before touching anything, so that a bad _pos leaves this object (and the 'include' chain) as-is
+        this.includedFileScanner = (ConfigFileScannerL3) _pos.included;
+        if ( this.includedFileScanner != null )
+            this.includedFileScanner.seek( _pos.includedPosition );
+        super.seek( _pos ); // this will invoke onCursorMoved()
+    }
+
+    /**
+     * See {@link ConfigFileScanner#validateSeek(Position)}.  This override also validates the 'include'd scanner's position, recursively.
+     * @param _pos NotNull
+     * @throws IndexOutOfBoundsException if _pos is Not valid for this object (incl. if it was obtained from a different kind of scanner)
+     * @throws IllegalStateException if this object was opened in streaming-mode (and _pos is Not the current position)
+     */
+    @Override
+    protected void validateSeek( final Position _pos ) throws IndexOutOfBoundsException, IllegalStateException {
+        super.validateSeek( _pos );
+        if ( _pos.included == null )
+            return;
+        if (   !   ( _pos.included instanceof ConfigFileScannerL3 ) || _pos.includedPosition == null )
+            throw new IndexOutOfBoundsException( CLASSNAME +": validateSeek("+ _pos +"): Not a position within ["+ this.getFileName() +"]" );
+        ((ConfigFileScannerL3) _pos.included).validateSeek( _pos.includedPosition );
+    }
+
+    /**
+     * See {@link ConfigFileScanner#onCursorMoved()}.  Re-computes the per-line state (whether line is to be echoed, ..) for the new current-line - without echo-ing anything.
+     */
+    @Override
+    protected void onCursorMoved() {
+        if ( this.includedFileScanner != null )
+            return; // the 'include'd scanner has already re-computed its own per-line state, within its own seek()
+        super.onCursorMoved();
+        this.forgetMemoizedLine();
+        if ( this.currentLineNum <= 0 ) return; // rewound.  No current-line.
+        // Unlike nextLine(), there is NO echo-ing here.  The line was already echoed when it was read the 1st time.
+        this.bLine2bEchoed = ConfigFileScannerL3.checkForEchoPrefix( this.verbose, this.lineAt( this.currentLineNum - 1 ) );
     }
 
     //==============================================================================
@@ -725,6 +1239,25 @@ public class ConfigFileScannerL3 extends ConfigFileScanner {
         this.propsSetRef = _orig.propsSetRef;
     }
 
+    /**
+     * Extends {@link ConfigFileScanner#structuralCloneFix(ConfigFileScanner)}.  The 'include'd scanner (if any) has a position of its own, so it needs to be cloned as well (recursively).  this.propsSetRef continues to be shared.
+     * The clone does NOT track macro-dependencies (even if _orig does) - invoke {@link #trackMacroDependencies()} on the clone if needed - and starts with nothing memoized.
+     * @param _orig the original NON-Null object
+     */
+    @Override
+    protected void structuralCloneFix( final ConfigFileScanner _orig ) {
+        super.structuralCloneFix(_orig);
+        this.builtInCommands = null; // the handlers refer to _orig
+        // else, clone.reset() would clear _orig's dependencies (and clone's 'include's would be recorded into _orig's)
+        this.macroDependencies = null;
+        this.trackedIncludes = null;
+        this.memoRawLine = null;
+        this.memoVersion = -1;
+        this.memoLine = null;
+        if ( this.includedFileScanner != null )
+            this.includedFileScanner = ConfigFileScanner.structuralClone( this.includedFileScanner );
+    }
+
     //==============================================================================
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     //==============================================================================
@@ -0,0 +1,248 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>The implementation of {@link ConfigFileScannerL3#preloadIncludes(Executor)}.</p>
+ *  <p>Walks the graph of '<code>include @file</code>' lines (see {@link ConfigFileScannerL3#REGEXP_INCLUDE}), reading each file into {@link ParsedFileCache#SHARED} as soon as it's discovered - concurrently with all the other files.
+ *     Each 'include' is checked for a cycle as soon as it's discovered.  The walk stops at the 1st cycle (files already submitted to the executor are Not read).</p>
+ *  <p>Only the 'include's whose file-names have No '<code>${..}</code>' macros can be followed.  A file that does Not exist is skipped (it's left to {@link ConfigFileScannerL3#execBuiltInCommand()} to complain about it, if it's still missing).</p>
+ *  <p>An object of this class is good for just ONE walk.</p>
+ */
+class IncludePreloader {
+
+    public static final String CLASSNAME = IncludePreloader.class.getName();
+
+    private final boolean verbose;
+    private final boolean ok2TrimWhiteSpace;
+    private final boolean bCompressWhiteSpace;
+    private final Executor executor;
+
+    /** key = canonical-path of a file (or the top-level's getFileName(), if it's Not a file), value = canonical-paths of the files it 'include's (in the order they're 'include'd).  The values are guarded by this.edgesLock */
+    private final ConcurrentHashMap<String, List<String>> graph = new ConcurrentHashMap<>();
+    /** Edges are added (and checked for cycles) one at a time.  Else, 2 threads adding the last 2 edges of a cycle at the same time, could each miss the other's edge */
+    private final Object edgesLock = new Object();
+    /** guarded by this.edgesLock.  NotNull, once a cycle is found: the path from this.top to the cycle, ending with the file that's repeated */
+    private List<String> cycle = null;
+    private String top = null;
+    /** # of files submitted to this.executor, that have NOT yet been read */
+    private final AtomicInteger pending = new AtomicInteger( 0 );
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+
+    /** <p>The only constructor - public/private/protected</p>
+     *  @param _verbose Whether you want deluge of debug-output onto System.out.
+     *  @param _ok2TrimWhiteSpace see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}.  Should be the same as that of the top-level file, so that the cached files are found later.
+     *  @param _bCompressWhiteSpace see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}
+     *  @param _executor NotNull.  Where to read the files.
+     */
+    IncludePreloader( final boolean _verbose, final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace, final Executor _executor ) {
+        this.verbose = _verbose;
+        this.ok2TrimWhiteSpace = _ok2TrimWhiteSpace;
+        this.bCompressWhiteSpace = _bCompressWhiteSpace;
+        this.executor = _executor;
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  @param _topFileName see {@link ConfigFileScanner#getFileName()} of the top-level file
+     *  @param _topLines NotNull.  the lines of the top-level file
+     *  @return the NotNull include-graph: key = canonical-path of each file reached (or _topFileName, if that's Not a file), value = canonical-paths of the files it 'include's
+     *  @throws Exception if the 'include's are cyclic (the message lists the cycle), or any trouble reading an 'include'd file
+     */
+    Map<String, List<String>> walk( final String _topFileName, final LineTable _topLines ) throws Exception
+    {
+        final String HDR = CLASSNAME +": walk("+ _topFileName +"): ";
+        this.top = ( _topFileName.startsWith("@") ) ? new File( _topFileName.substring(1) ).getCanonicalPath() : _topFileName;
+        this.pending.incrementAndGet(); // for the top-level file itself, so that this.done can Not complete while its 'include's are still being submitted
+        this.graph.put( this.top, new ArrayList<>() );
+        try {
+            this.includesOf( this.top, _topLines );
+        } finally {
+            if ( this.pending.decrementAndGet() == 0 )
+                this.done.complete( null );
+        }
+
+        try {
+            this.done.join();
+        } catch ( java.util.concurrent.CompletionException e ) {
+            final Throwable cause = ( e.getCause() != null ) ? e.getCause() : e;
+            if ( cause instanceof Exception ) throw (Exception) cause;
+            throw e;
+        }
+        final List<String> cyclic;
+        synchronized( this.edgesLock ) { cyclic = this.cycle; }
+        if ( cyclic != null ) // thrown here (rather than within whichever thread found it), so that the stack-trace is that of the invoker
+            throw new Exception( HDR +"Cyclic 'include's: "+ String.join( " --> ", cyclic ) );
+        if ( this.verbose ) System.out.println( HDR +"read "+ ( this.graph.size() - 1 ) +" 'include'd files.  "+ ParsedFileCache.SHARED );
+        return Collections.unmodifiableMap( this.graph );
+    }
+
+    //==============================================================================
+
+    /**
+     *  Adds an edge (to this.graph) for every file 'include'd within _lines, and submits each file (that has Not been submitted already) to this.executor.
+     *  Stops at the 1st 'include' that makes the graph cyclic.
+     *  @param _file the canonical-path of the file whose lines are _lines.  Must already be a key within this.graph
+     */
+    private void includesOf( final String _file, final LineTable _lines ) throws java.io.IOException
+    {
+        for ( int ix = 0; ix < _lines.size(); ix ++ ) {
+            final String includeFileName = ConfigFileScannerL3.includedFileNameOf( ConfigFileScannerL3.removeEchoPrefix( _lines.get( ix ) ) );
+            if ( includeFileName == null ) continue;
+            final File fileObj = new File( includeFileName.substring(1) );
+            if (  !  fileObj.isFile() ) continue;
+            final String canonicalPath = fileObj.getCanonicalPath();
+            final boolean bFirstTime = this.graph.putIfAbsent( canonicalPath, new ArrayList<>() ) == null;
+            if (  !  this.addEdge( _file, canonicalPath ) ) return; // No point reading any more files
+            if ( bFirstTime )
+                this.submit( includeFileName, canonicalPath );
+        }
+    }
+
+    /**
+     *  Adds the edge _from --&gt; _to, unless a cycle has been found already.  If this new edge completes a cycle (that is, _from can be reached from _to), the walk is stopped.
+     *  @return false if the walk must stop (a cycle was found - now, or earlier)
+     */
+    private boolean addEdge( final String _from, final String _to )
+    {
+        synchronized( this.edgesLock ) {
+            if ( this.cycle != null ) return false;
+            this.graph.get( _from ).add( _to );
+            if (  !  this.reaches( _to, _from ) ) return true;
+            this.cycle = this.findCycle( this.top ); // for a message that starts at the top-level file (_from was reached from there)
+        }
+        this.done.complete( null ); // walk() will throw
+        return false;
+    }
+
+    /** @return true if there's a path (within this.graph) from _start to _target.  Must be invoked while holding this.edgesLock */
+    private boolean reaches( final String _start, final String _target )
+    {
+        final HashSet<String> visited = new HashSet<>();
+        final ArrayList<String> stack = new ArrayList<>();
+        stack.add( _start );
+        while (  !  stack.isEmpty() ) {
+            final String file = stack.remove( stack.size() - 1 );
+            if ( file.equals( _target ) ) return true;
+            if (  !  visited.add( file ) ) continue;
+            final List<String> includes = this.graph.get( file );
+            if ( includes != null ) stack.addAll( includes );
+        }
+        return false;
+    }
+
+    private void submit( final String _includeFileName, final String _canonicalPath )
+    {
+        this.pending.incrementAndGet();
+        try {
+            this.executor.execute( () -> this.read( _includeFileName, _canonicalPath ) );
+        } catch ( java.util.concurrent.RejectedExecutionException e ) {
+            this.done.completeExceptionally( e );
+        }
+    }
+
+    /** Runs within this.executor */
+    private void read( final String _includeFileName, final String _canonicalPath )
+    {
+        final String HDR = CLASSNAME +": read("+ _includeFileName +"): ";
+        try {
+            if (  !  this.done.isDone() ) { // No point continuing, if another file has failed already
+                // exactly as the 'include' command will open it, so that ParsedFileCache.SHARED has it under the same key
+                final ConfigFileScannerL3 included = ConfigFileScannerL3.openIncludedFile( false, null, "?"+ _includeFileName, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace );
+                if ( this.verbose ) System.out.println( HDR +"read "+ included.lines.size() +" lines" );
+                // includesOf() submits the next files BEFORE this.pending is decremented (see finally-clause below).  So, this.pending can NOT become 0 prematurely.
+                this.includesOf( _canonicalPath, included.lines );
+            }
+        } catch ( Throwable t ) {
+            this.done.completeExceptionally( new Exception( HDR +"failed: "+ t, t ) );
+        } finally {
+            if ( this.pending.decrementAndGet() == 0 )
+                this.done.complete( null );
+        }
+    }
+
+    //==============================================================================
+
+    /**
+     *  Depth-1st search of this.graph, starting at _top.  Must be invoked while holding this.edgesLock.
+     *  @return null if there's No cycle.  Else, the path from _top to the 1st cycle found, ending with the file that's repeated.
+     */
+    private List<String> findCycle( final String _top )
+    {
+        final LinkedHashMap<String, Boolean> onPath = new LinkedHashMap<>(); // the files currently being explored, in order (from _top)
+        final HashSet<String> finished = new HashSet<>(); // files whose 'include's (recursively) have No cycles
+        return this.findCycle( _top, onPath, finished );
+    }
+
+    private List<String> findCycle( final String _file, final LinkedHashMap<String, Boolean> _onPath, final HashSet<String> _finished )
+    {
+        if ( _onPath.containsKey( _file ) ) {
+            final ArrayList<String> cycle = new ArrayList<>( _onPath.keySet() );
+            cycle.add( _file );
+            return cycle;
+        }
+        if ( _finished.contains( _file ) ) return null;
+
+        _onPath.put( _file, Boolean.TRUE );
+        final List<String> includes = this.graph.get( _file );
+        if ( includes != null ) {
+            for ( String included: includes ) {
+                final List<String> cycle = this.findCycle( included, _onPath, _finished );
+                if ( cycle != null ) return cycle;
+            }
+        }
+        _onPath.remove( _file );
+        _finished.add( _file );
+        return null;
+    }
+
+}
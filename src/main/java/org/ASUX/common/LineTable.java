@@ -0,0 +1,325 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>This class is a compact, IMMUTABLE, store for the lines of a file (after comments and whitespace have been stripped) - along with the ORIGINAL line-number of each line (as humans see it in a text-editor).</p>
+ *  <p>Instead of one java.lang.String (plus its internal array) and one java.lang.Integer per line, ALL the lines are packed into ONE contiguous char[], with one int[] of start-offsets and one int[] of original line-numbers.<br>
+ *     {@link #charSequence(int)} provides a view of a line without creating any String.  {@link #get(int)} creates the String lazily (only the most-recently requested String is remembered, as the same line is typically asked for repeatedly).</p>
+ *  <p>This class is a java.util.List (Read-only), so it can be iterated over just like the java.util.ArrayList that it replaces.  Use {@link Builder} to create an instance.</p>
+ *  <p>As instances are immutable, they can safely be shared (across threads, and across clones of {@link ConfigFileScanner})</p>
+ */
+public final class LineTable extends AbstractList<String> implements java.util.RandomAccess, java.io.Serializable {
+
+    private static final long serialVersionUID = 1L;
+    public static final String CLASSNAME = LineTable.class.getName();
+
+    /** An empty table (as returned by {@link ConfigFileScanner#reset()}) */
+    public static final LineTable EMPTY = new Builder().build();
+
+    //--------------------------------------------------------
+    private final char[] chars;
+    private final int[] starts;         // starts[ix] is where line #ix begins within this.chars.  starts[size] == total # of chars
+    private final int[] origLineNums;
+    private final int size;
+
+    /** the most-recently created String (an immutable pair, so that there is No race between the index and the String) */
+    private transient volatile Object[] lastGet = null;
+
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+
+    private LineTable( final char[] _chars, final int[] _starts, final int[] _origLineNums, final int _size ) {
+        this.chars = _chars;
+        this.starts = _starts;
+        this.origLineNums = _origLineNums;
+        this.size = _size;
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** @return the # of lines */
+    @Override
+    public int size() { return this.size; }
+
+    /**
+     *  @param _ix 0-based index
+     *  @return the line as a java.lang.String (created lazily)
+     *  @throws IndexOutOfBoundsException if _ix is invalid
+     */
+    @Override
+    public String get( final int _ix ) throws IndexOutOfBoundsException {
+        final Object[] last = this.lastGet;
+        if ( last != null && ((Integer) last[0]) == _ix )
+            return (String) last[1];
+        this.checkIndex( _ix );
+        final String s = new String( this.chars, this.starts[_ix], this.starts[_ix+1] - this.starts[_ix] );
+        this.lastGet = new Object[] { _ix, s };
+        return s;
+    }
+
+    /**
+     *  A splittable Spliterator (IMMUTABLE, ORDERED, SIZED, SUBSIZED, NONNULL) - so that streams over this table (see {@link ConfigFileScanner#lines()}) can be processed in parallel, efficiently.
+     *  @return a NotNull Spliterator over all the lines
+     */
+    @Override
+    public java.util.Spliterator<String> spliterator() {
+        return new LineSpliterator( 0, this.size );
+    }
+
+    /**
+     *  @param _ix 0-based index
+     *  @return the line as a java.lang.String (Not remembered, unlike {@link #get(int)}, as this is for use by multiple threads - and by {@link ConfigFileScanner}, which remembers the Strings itself)
+     *  @throws IndexOutOfBoundsException if _ix is invalid
+     */
+    String stringAt( final int _ix ) throws IndexOutOfBoundsException {
+        this.checkIndex( _ix );
+        return new String( this.chars, this.starts[_ix], this.starts[_ix+1] - this.starts[_ix] );
+    }
+
+    /**
+     *  @param _ix 0-based index
+     *  @return a read-only view of the line (No String is created, No chars are copied)
+     *  @throws IndexOutOfBoundsException if _ix is invalid
+     */
+    public CharSequence charSequence( final int _ix ) throws IndexOutOfBoundsException {
+        this.checkIndex( _ix );
+        return java.nio.CharBuffer.wrap( this.chars, this.starts[_ix], this.starts[_ix+1] - this.starts[_ix] ).asReadOnlyBuffer();
+    }
+
+    /**
+     *  @param _ix 0-based index
+     *  @return the # of chars in that line
+     *  @throws IndexOutOfBoundsException if _ix is invalid
+     */
+    public int length( final int _ix ) throws IndexOutOfBoundsException {
+        this.checkIndex( _ix );
+        return this.starts[_ix+1] - this.starts[_ix];
+    }
+
+    /**
+     *  @param _ix 0-based index
+     *  @return the line-number (as humans see it in a text-editor, starting from 1) of that line
+     *  @throws IndexOutOfBoundsException if _ix is invalid
+     */
+    public int origLineNum( final int _ix ) throws IndexOutOfBoundsException {
+        this.checkIndex( _ix );
+        return this.origLineNums[_ix];
+    }
+
+    /** @return the total # of chars across all lines (useful to estimate the memory held by this object) */
+    public int charCount() { return this.starts[ this.size ]; }
+
+    /** @return approximate # of bytes of heap held by this object (used by {@link ParsedFileCache} for its byte-budget) */
+    public long estimatedBytes() {
+        return 64L + 2L * this.chars.length + 4L * this.starts.length + 4L * this.origLineNums.length;
+    }
+
+    //===========================================================================
+    // For use ONLY by PrecompiledFile.  The layout is: lineCount, charCount, starts[lineCount+1], origLineNums[lineCount], chars[charCount] (as UTF-16)
+
+    /** @return # of bytes that {@link #writeTo(java.nio.ByteBuffer)} will write */
+    long binarySize() {
+        return 4L + 4L + 4L * ( this.size + 1 ) + 4L * this.size + 2L * this.starts[ this.size ];
+    }
+
+    void writeTo( final java.nio.ByteBuffer _buf ) {
+        _buf.putInt( this.size );
+        _buf.putInt( this.starts[ this.size ] );
+        _buf.asIntBuffer().put( this.starts, 0, this.size + 1 );
+        _buf.position( _buf.position() + 4 * ( this.size + 1 ) );
+        _buf.asIntBuffer().put( this.origLineNums, 0, this.size );
+        _buf.position( _buf.position() + 4 * this.size );
+        _buf.asCharBuffer().put( this.chars, 0, this.starts[ this.size ] );
+        _buf.position( _buf.position() + 2 * this.starts[ this.size ] );
+    }
+
+    static LineTable readFrom( final java.nio.ByteBuffer _buf ) throws java.io.IOException {
+        final int sz = _buf.getInt();
+        final int charCount = _buf.getInt();
+        if ( sz < 0 || charCount < 0 || (long) _buf.remaining() < 4L * ( sz + 1 ) + 4L * sz + 2L * charCount )
+            throw new java.io.IOException( CLASSNAME +": readFrom(): corrupted or truncated data (lines="+ sz +" chars="+ charCount +")" );
+        final int[] starts = new int[ sz + 1 ];
+        _buf.asIntBuffer().get( starts );
+        _buf.position( _buf.position() + 4 * ( sz + 1 ) );
+        final int[] origLineNums = new int[ sz ];
+        _buf.asIntBuffer().get( origLineNums );
+        _buf.position( _buf.position() + 4 * sz );
+        final char[] chars = new char[ charCount ];
+        _buf.asCharBuffer().get( chars );
+        _buf.position( _buf.position() + 2 * charCount );
+        if ( starts[0] != 0 || starts[sz] != charCount )
+            throw new java.io.IOException( CLASSNAME +": readFrom(): corrupted data (offsets)" );
+        for ( int ix = 0; ix < sz; ix ++ )
+            if ( starts[ix] > starts[ix+1] )
+                throw new java.io.IOException( CLASSNAME +": readFrom(): corrupted data (offset # "+ ix +")" );
+        return new LineTable( chars, starts, origLineNums, sz );
+    }
+
+    //===========================================================================
+    private void checkIndex( final int _ix ) throws IndexOutOfBoundsException {
+        if ( _ix < 0 || _ix >= this.size )
+            throw new IndexOutOfBoundsException( CLASSNAME +": Index: "+ _ix +", Size: "+ this.size );
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** Splits by index-range (exactly in half), so that parallel streams are balanced */
+    private final class LineSpliterator implements java.util.Spliterator<String> {
+        private int origin; // next index to be handed out
+        private final int fence; // exclusive
+
+        LineSpliterator( final int _origin, final int _fence ) {
+            this.origin = _origin;
+            this.fence = _fence;
+        }
+
+        @Override
+        public boolean tryAdvance( final java.util.function.Consumer<? super String> _action ) {
+            if ( this.origin >= this.fence ) return false;
+            _action.accept( LineTable.this.stringAt( this.origin ++ ) );
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining( final java.util.function.Consumer<? super String> _action ) {
+            for ( int ix = this.origin; ix < this.fence; ix ++ )
+                _action.accept( LineTable.this.stringAt( ix ) );
+            this.origin = this.fence;
+        }
+
+        @Override
+        public java.util.Spliterator<String> trySplit() {
+            final int mid = ( this.origin + this.fence ) >>> 1;
+            if ( mid <= this.origin ) return null;
+            final LineSpliterator prefix = new LineSpliterator( this.origin, mid );
+            this.origin = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() { return this.fence - this.origin; }
+
+        @Override
+        public int characteristics() {
+            return IMMUTABLE | ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>Use this to create a {@link LineTable}, one line at a time.  {@link ConfigFileLexer} can write directly into this (without creating a String per line).</p>
+     *  <p>This class is NOT thread-safe.</p>
+     */
+    public static final class Builder {
+        private char[] chars = new char[ 1024 ];
+        private int[] starts = new int[ 65 ];
+        private int[] origLineNums = new int[ 64 ];
+        private int size = 0;
+        private int charCount = 0;
+
+        /**
+         *  @param _buf the chars of the line
+         *  @param _offset where the line begins within _buf
+         *  @param _len # of chars in the line
+         *  @param _origLineNum the line-number (as humans see it in a text-editor, starting from 1)
+         *  @return this (so that calls can be chained)
+         */
+        public Builder add( final char[] _buf, final int _offset, final int _len, final int _origLineNum ) {
+            this.ensureCapacity( _len );
+            System.arraycopy( _buf, _offset, this.chars, this.charCount, _len );
+            this.endLine( _len, _origLineNum );
+            return this;
+        }
+
+        /**
+         *  @param _line NotNull chars of the line
+         *  @param _origLineNum the line-number (as humans see it in a text-editor, starting from 1)
+         *  @return this (so that calls can be chained)
+         */
+        public Builder add( final CharSequence _line, final int _origLineNum ) {
+            final int len = _line.length();
+            this.ensureCapacity( len );
+            if ( _line instanceof String ) {
+                ((String) _line).getChars( 0, len, this.chars, this.charCount );
+            } else {
+                for ( int ix = 0; ix < len; ix ++ )
+                    this.chars[ this.charCount + ix ] = _line.charAt( ix );
+            }
+            this.endLine( len, _origLineNum );
+            return this;
+        }
+
+        /** @return the # of lines added so far */
+        public int size() { return this.size; }
+
+        /**
+         *  @return a new immutable {@link LineTable} (the arrays are trimmed to size).  This Builder can continue to be used afterwards.
+         */
+        public LineTable build() {
+            return new LineTable( Arrays.copyOf( this.chars, this.charCount ), Arrays.copyOf( this.starts, this.size + 1 ), Arrays.copyOf( this.origLineNums, this.size ), this.size );
+        }
+
+        //===========================================================================
+        private void ensureCapacity( final int _len ) {
+            if ( this.charCount + _len > this.chars.length ) {
+                final long newLen = Math.max( (long) this.charCount + _len, 2L * this.chars.length );
+                this.chars = Arrays.copyOf( this.chars, (int) Math.min( newLen, Integer.MAX_VALUE - 8 ) );
+            }
+            if ( this.size + 2 > this.starts.length ) {
+                this.starts = Arrays.copyOf( this.starts, this.starts.length * 2 );
+                this.origLineNums = Arrays.copyOf( this.origLineNums, this.starts.length );
+            }
+        }
+
+        private void endLine( final int _len, final int _origLineNum ) {
+            this.starts[ this.size ] = this.charCount;
+            this.origLineNums[ this.size ] = _origLineNum;
+            this.charCount += _len;
+            this.size ++;
+            this.starts[ this.size ] = this.charCount;
+        }
+    }
+
+}
@@ -0,0 +1,275 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>Evaluates ${ASUX::___} macros within LOTS of independent strings (resource-names, template-fragments, ..) in parallel, using a {@link ForkJoinPool}.
+ *     Each string gets exactly the same result as {@link Macros#evalThoroughly(boolean, String, LinkedHashMap)}.</p>
+ *  <p>The properties are snapshot (see {@link Macros#snapshot(LinkedHashMap)}) ONCE, before any of the strings are evaluated.
+ *     Each batch of (at most {@link #BATCH_SIZE}) strings has its own {@link MacroResolver} over that snapshot, so each variable is resolved just once per batch (rather than once per string).
+ *     Nothing is left behind within the pool's worker-threads, once the evaluation is done.</p>
+ *  <p>A failure to evaluate one string does NOT affect the others.  Each string's result (or the error) is reported as a {@link Result}, in the same order as the input.</p>
+ */
+public final class MacroBulkEvaluator {
+
+    public static final String CLASSNAME = MacroBulkEvaluator.class.getName();
+
+    /** Strings are handed to a worker in batches of (at most) this many.  Macro-evaluation of a single string is too cheap to be a task by itself. */
+    public static final int BATCH_SIZE = 256;
+
+    private MacroBulkEvaluator() {}
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  The outcome of evaluating one string: either the value, or the error.
+     */
+    public static final class Result {
+        private final String input;
+        private final String value;
+        private final Exception error;
+
+        private Result( final String _input, final String _value, final Exception _error ) {
+            this.input = _input;
+            this.value = _value;
+            this.error = _error;
+        }
+
+        /** @return the string (as passed in), which CAN be null */
+        public String getInput() { return this.input; }
+
+        /** @return true if the macros within {@link #getInput()} were evaluated successfully */
+        public boolean isOK() { return this.error == null; }
+
+        /** @return the result of evaluating the macros (null if the input was null, or if {@link #isOK()} is false) */
+        public String getValue() { return this.value; }
+
+        /** @return null if {@link #isOK()}, else the reason why the macros could NOT be evaluated (typically a {@link Macros.MacroException}) */
+        public Exception getError() { return this.error; }
+
+        /**
+         *  @return the same as {@link #getValue()}
+         *  @throws Macros.MacroException if the macros could NOT be evaluated (any other error is wrapped within an IllegalStateException)
+         */
+        public String get() throws Macros.MacroException {
+            if ( this.error instanceof Macros.MacroException ) throw (Macros.MacroException) this.error;
+            if ( this.error != null ) throw new IllegalStateException( CLASSNAME +": failed to evaluate macros within ["+ this.input +"]", this.error );
+            return this.value;
+        }
+
+        @Override
+        public String toString() {
+            return this.isOK() ? String.valueOf( this.value ) : ( "ERROR: "+ this.error );
+        }
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  @param _verbose Whether you want deluge of debug-output onto System.out
+     *  @param _strings NotNull.  Each string CAN (not required to) contain macro expressions like ${ASUX::___}.  Null elements are allowed.
+     *  @param _propsSet can be null,  and otherwise an instance of LinkedHashMap&lt;String,Properties&gt; (representing multiple java.util.Properties objects)
+     *  @return a NotNull array (in the same order as _strings) of NotNull Results
+     */
+    public static Result[] evalThoroughly( final boolean _verbose, final String[] _strings, final LinkedHashMap<String,Properties> _propsSet )
+    {
+        return MacroBulkEvaluator.evalThoroughly( _verbose, _strings, _propsSet, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     *  @param _verbose Whether you want deluge of debug-output onto System.out
+     *  @param _strings NotNull.  Each string CAN (not required to) contain macro expressions like ${ASUX::___}.  Null elements are allowed.
+     *  @param _propsSet can be null,  and otherwise an instance of LinkedHashMap&lt;String,Properties&gt; (representing multiple java.util.Properties objects)
+     *  @return a NotNull List (in the same order as _strings) of NotNull Results
+     */
+    public static List<Result> evalThoroughly( final boolean _verbose, final List<String> _strings, final LinkedHashMap<String,Properties> _propsSet )
+    {
+        return Arrays.asList( MacroBulkEvaluator.evalThoroughly( _verbose, _strings.toArray( new String[ _strings.size() ] ), _propsSet ) );
+    }
+
+    /**
+     *  @param _verbose Whether you want deluge of debug-output onto System.out
+     *  @param _strings NotNull, and finite.  Each string CAN (not required to) contain macro expressions like ${ASUX::___}.  Null elements are allowed.
+     *  @param _propsSet can be null,  and otherwise an instance of LinkedHashMap&lt;String,Properties&gt; (representing multiple java.util.Properties objects)
+     *  @return a NotNull List (in the encounter-order of _strings) of NotNull Results
+     */
+    public static List<Result> evalThoroughly( final boolean _verbose, final Stream<String> _strings, final LinkedHashMap<String,Properties> _propsSet )
+    {
+        final List<String> list = _strings.collect( Collectors.toCollection( ArrayList::new ) ); // toList() would NOT allow null elements
+        return MacroBulkEvaluator.evalThoroughly( _verbose, list, _propsSet );
+    }
+
+    /**
+     *  @param _verbose Whether you want deluge of debug-output onto System.out
+     *  @param _strings NotNull.  Each string CAN (not required to) contain macro expressions like ${ASUX::___}.  Null elements are allowed.
+     *  @param _propsSet can be null,  and otherwise an instance of LinkedHashMap&lt;String,Properties&gt; (representing multiple java.util.Properties objects)
+     *  @param _pool NotNull.  Typically ForkJoinPool.commonPool()
+     *  @return a NotNull array (in the same order as _strings) of NotNull Results
+     */
+    public static Result[] evalThoroughly( final boolean _verbose, final String[] _strings, final LinkedHashMap<String,Properties> _propsSet, final ForkJoinPool _pool )
+    {
+        final Result[] results = new Result[ _strings.length ];
+        if ( _strings.length <= 0 ) return results;
+        final LinkedHashMap<String,Properties> frozen = Macros.snapshot( _propsSet );
+        _pool.invoke( new EvalTask( _verbose, _strings, results, frozen, 0, _strings.length ) );
+        return results;
+    }
+
+    /**
+     *  <p>For use by ConfigFileScannerL2/L3's linesAfterMacroEval(): lazily evaluates the macros within each of _strings (in whatever order, and on whatever thread, the stream-pipeline chooses).</p>
+     *  <p>Each part of the stream (as split for parallel processing) has its own {@link MacroResolver}, just like each batch of {@link #evalThoroughly(boolean, String[], LinkedHashMap, ForkJoinPool)}.</p>
+     *  @param _strings NotNull
+     *  @param _frozen can be null.  MUST NOT change, while the stream is being processed.  See {@link Macros#snapshot(LinkedHashMap)}
+     *  @param _hdr prefix for the message of the IllegalStateException (if a macro can Not be evaluated)
+     *  @param _fileName for the message of the IllegalStateException (if a macro can Not be evaluated)
+     *  @return a NotNull Stream, with the same characteristics (sized, splittable, ..) as _strings
+     */
+    static Stream<String> evalLazily( final Stream<String> _strings, final LinkedHashMap<String,Properties> _frozen, final String _hdr, final String _fileName )
+    {
+        return StreamSupport.stream( new EvalSpliterator( _strings.spliterator(), _frozen, _hdr, _fileName ), _strings.isParallel() );
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** Evaluates _strings[from..to) into results[from..to), splitting in halves until at most {@link #BATCH_SIZE} strings are left */
+    private static final class EvalTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean verbose;
+        private final String[] strings;
+        private final Result[] results;
+        private final LinkedHashMap<String,Properties> frozen;
+        private final int from;
+        private final int to;
+
+        EvalTask( final boolean _verbose, final String[] _strings, final Result[] _results, final LinkedHashMap<String,Properties> _frozen, final int _from, final int _to ) {
+            this.verbose = _verbose;
+            this.strings = _strings;
+            this.results = _results;
+            this.frozen = _frozen;
+            this.from = _from;
+            this.to = _to;
+        }
+
+        @Override
+        protected void compute() {
+            if ( this.to - this.from > BATCH_SIZE ) {
+                final int mid = ( this.from + this.to ) >>> 1;
+                invokeAll( new EvalTask( this.verbose, this.strings, this.results, this.frozen, this.from, mid ),
+                           new EvalTask( this.verbose, this.strings, this.results, this.frozen, mid, this.to ) );
+                return;
+            }
+            // one MacroResolver for this entire batch.  Safe to reuse across strings, as the properties are frozen.  And it's garbage, as soon as this batch is done.
+            final MacroResolver resolver = new MacroResolver( this.verbose, this.frozen );
+            for ( int ix = this.from; ix < this.to; ix ++ ) {
+                final String s = this.strings[ix];
+                try {
+                    this.results[ix] = new Result( s, resolver.resolve( s ), null );
+                } catch ( Macros.MacroException | RuntimeException e ) {
+                    this.results[ix] = new Result( s, null, e ); // just this one string failed.  Carry on with the rest.
+                }
+            }
+        }
+    }
+
+    //==============================================================================
+    /** See {@link MacroBulkEvaluator#evalLazily(Stream, LinkedHashMap, String, String)} */
+    private static final class EvalSpliterator implements Spliterator<String> {
+        private final Spliterator<String> raw;
+        private final LinkedHashMap<String,Properties> frozen;
+        private final String hdr;
+        private final String fileName;
+        /** Created lazily.  A Spliterator is traversed by just one thread at a time - so, No need for a ThreadLocal. */
+        private MacroResolver resolver = null;
+
+        EvalSpliterator( final Spliterator<String> _raw, final LinkedHashMap<String,Properties> _frozen, final String _hdr, final String _fileName ) {
+            this.raw = _raw;
+            this.frozen = _frozen;
+            this.hdr = _hdr;
+            this.fileName = _fileName;
+        }
+
+        private String eval( final String _s ) {
+            if ( this.resolver == null ) this.resolver = new MacroResolver( false, this.frozen );
+            try {
+                return this.resolver.resolve( _s );
+            } catch ( Macros.MacroException e ) {
+                throw new IllegalStateException( this.hdr +"failed to evaluate macros within ["+ _s +"] of File ["+ this.fileName +"]", e );
+            }
+        }
+
+        @Override
+        public boolean tryAdvance( final Consumer<? super String> _action ) {
+            return this.raw.tryAdvance( s -> _action.accept( this.eval( s ) ) );
+        }
+
+        @Override
+        public void forEachRemaining( final Consumer<? super String> _action ) {
+            this.raw.forEachRemaining( s -> _action.accept( this.eval( s ) ) );
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+            final Spliterator<String> prefix = this.raw.trySplit();
+            return ( prefix == null ) ? null : new EvalSpliterator( prefix, this.frozen, this.hdr, this.fileName );
+        }
+
+        @Override
+        public long estimateSize() { return this.raw.estimateSize(); }
+
+        @Override
+        public int characteristics() { return this.raw.characteristics() & ~( Spliterator.SORTED | Spliterator.DISTINCT ); } // the values change, but NOT their number or order
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>Records - for each line of a script/config-file - the names of the variables (the ___ within ${ASUX::___}) that its macro-evaluation depended on.  See {@link MacroResolver#resolve(String, Collection)}.</p>
+ *  <p>A line that 'include's another file, also depends on ALL the variables that the lines of that file depend on (recursively).  See {@link #recordInclude(int, MacroDependencies)}.</p>
+ *  <p>When a Properties is changed (typically a file loaded via '<code>properties label=@file</code>' within a {@link ScriptFileScanner}), {@link #affectedBy(String, Collection)} identifies the ONLY lines that need to be re-evaluated.
+ *     See {@link ConfigFileScannerL3#trackMacroDependencies()} and {@link ConfigFileScannerL3#reevaluate(String, Collection)}.</p>
+ *  <p>This class is NOT thread-safe.</p>
+ */
+public class MacroDependencies {
+
+    public static final String CLASSNAME = MacroDependencies.class.getName();
+
+    /** key = line#, value = the variables it depends on */
+    private final HashMap<Integer,String[]> byLine = new HashMap<>();
+
+    /** key = variable-name, value = the line#s that depend on it.  The reverse of byLine. */
+    private final HashMap<String,BitSet> byName = new HashMap<>();
+
+    /** key = line# of an 'include' line, value = the dependencies of the 'include'd file (which continue to be recorded, as its lines are read) */
+    private final HashMap<Integer,MacroDependencies> included = new HashMap<>();
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  Replaces whatever was recorded for this line before.
+     *  @param _lineNum &gt;= 0 (typically {@link ConfigFileScanner#getLineNum()})
+     *  @param _names NotNull.  The variables that the line depends on (can be empty)
+     */
+    public void record( final int _lineNum, final Collection<String> _names ) {
+        this.forget( _lineNum );
+        if ( _names.isEmpty() ) return;
+        final String[] names = new HashSet<>( _names ).toArray( new String[0] );
+        this.byLine.put( _lineNum, names );
+        for ( String name: names )
+            this.byName.computeIfAbsent( name, k -> new BitSet() ).set( _lineNum );
+    }
+
+    /** @param _lineNum whatever was passed to {@link #record(int, Collection)} */
+    public void forget( final int _lineNum ) {
+        final String[] old = this.byLine.remove( _lineNum );
+        if ( old == null ) return;
+        for ( String name: old ) {
+            final BitSet lines = this.byName.get( name );
+            lines.clear( _lineNum );
+            if ( lines.isEmpty() ) this.byName.remove( name );
+        }
+    }
+
+    /**
+     *  <p>The line _lineNum 'include's a file, whose own dependencies are (being) recorded in _included.  Replaces whatever file was 'include'd by this line before.</p>
+     *  <p>From now on, that line depends on the union of ALL the variables within _included (as it grows).  It is NOT affected by {@link #record(int, Collection)} or {@link #forget(int)} of that same line (which is about the 'include' line's own macros).</p>
+     *  @param _lineNum &gt;= 0 (typically {@link ConfigFileScanner#getLineNum()})
+     *  @param _included NotNull
+     */
+    public void recordInclude( final int _lineNum, final MacroDependencies _included ) {
+        this.included.put( _lineNum, _included );
+    }
+
+    /**
+     *  @param _lineNum whatever was passed to {@link #recordInclude(int, MacroDependencies)}
+     *  @return the dependencies of the file 'include'd by that line, or null
+     */
+    public MacroDependencies includedBy( final int _lineNum ) {
+        return this.included.get( _lineNum );
+    }
+
+    public void clear() {
+        this.byLine.clear();
+        this.byName.clear();
+        this.included.clear();
+    }
+
+    /** @return true if Nothing has been recorded (or, all the lines recorded - incl. those of 'include'd files - do NOT depend on any variables) */
+    public boolean isEmpty() {
+        if (  !  this.byLine.isEmpty() ) return false;
+        for ( MacroDependencies deps: this.included.values() )
+            if (  !  deps.isEmpty() ) return false;
+        return true;
+    }
+
+    /**
+     *  @param _lineNum whatever was passed to {@link #record(int, Collection)}
+     *  @return a NotNull unmodifiable Set of the variables that the line depends on (incl. those of the file it 'include's, if any)
+     */
+    public Set<String> dependenciesOf( final int _lineNum ) {
+        final String[] names = this.byLine.get( _lineNum );
+        final MacroDependencies deps = this.included.get( _lineNum );
+        if ( names == null && deps == null ) return Collections.emptySet();
+        final HashSet<String> retval = new HashSet<>();
+        if ( names != null ) Collections.addAll( retval, names );
+        if ( deps != null ) retval.addAll( deps.allDependencies() );
+        return Collections.unmodifiableSet( retval );
+    }
+
+    /** @return a NotNull Set of ALL the variables that any of the lines depend on (incl. those of 'include'd files, recursively) */
+    public Set<String> allDependencies() {
+        final HashSet<String> retval = new HashSet<>( this.byName.keySet() );
+        for ( MacroDependencies deps: this.included.values() )
+            retval.addAll( deps.allDependencies() );
+        return retval;
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>Which lines may evaluate differently, because the given keys were added/changed/removed in the Properties with label _label.<br>
+     *     That includes the lines that refer to those keys as ${ASUX::_label::key} (see {@link Macros#lookup(String, Properties, String)}), and the 'include' lines whose files have such lines.</p>
+     *  @param _label the label of the Properties (within the LinkedHashMap&lt;String,Properties&gt;) that changed.  Can be null.
+     *  @param _changedKeys NotNull (see {@link #changedKeys(Properties, Properties)})
+     *  @return a NotNull BitSet of the line#s (as passed to {@link #record(int, Collection)})
+     */
+    public BitSet affectedBy( final String _label, final Collection<String> _changedKeys ) {
+        final BitSet retval = new BitSet();
+        for ( String key: _changedKeys ) {
+            final BitSet lines = this.byName.get( key );
+            if ( lines != null ) retval.or( lines );
+            if ( _label != null ) {
+                final BitSet qualified = this.byName.get( _label + Macros.NAMESPACE_SEPARATOR + key );
+                if ( qualified != null ) retval.or( qualified );
+            }
+        }
+        for ( Map.Entry<Integer,MacroDependencies> e: this.included.entrySet() )
+            if ( e.getValue().isAffectedBy( _label, _changedKeys ) ) retval.set( e.getKey() );
+        return retval;
+    }
+
+    /**
+     *  @param _label See {@link #affectedBy(String, Collection)}
+     *  @param _changedKeys See {@link #affectedBy(String, Collection)}
+     *  @return true if ANY of the lines recorded may evaluate differently.  Example: to decide whether an entire script needs to be re-run.
+     */
+    public boolean isAffectedBy( final String _label, final Collection<String> _changedKeys ) {
+        return  !  this.affectedBy( _label, _changedKeys ).isEmpty();
+    }
+
+    /**
+     *  @param _before can be null (that is, the Properties did NOT exist)
+     *  @param _after can be null (that is, the Properties was removed)
+     *  @return a NotNull Set of the keys that were added, removed or whose (String) value is different
+     */
+    public static Set<String> changedKeys( final Properties _before, final Properties _after ) {
+        final HashSet<String> retval = new HashSet<>();
+        final Set<String> before = ( _before == null ) ? Collections.<String>emptySet() : _before.stringPropertyNames();
+        final Set<String> after  = ( _after == null )  ? Collections.<String>emptySet() : _after.stringPropertyNames();
+        for ( String key: before )
+            if (  !  after.contains( key ) || !  _before.getProperty( key ).equals( _after.getProperty( key ) ) ) retval.add( key );
+        for ( String key: after )
+            if (  !  before.contains( key ) ) retval.add( key );
+        return retval;
+    }
+
+    @Override
+    public String toString() {
+        return CLASSNAME +": "+ this.byLine.size() +" lines depend on "+ this.byName.size() +" variables, and "+ this.included.size() +" lines 'include' other files";
+    }
+
+}
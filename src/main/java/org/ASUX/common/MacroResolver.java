@@ -0,0 +1,414 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>Resolves ALL the ${ASUX::___} expressions within a string - incl. nested ones like <code>${ASUX::AWS-${ASUX::AWSRegion}}</code> and values that themselves contain ${ASUX::___} - in a single call, instead of re-evaluating the entire string against every Properties object until it stops changing.</p>
+ *  <p>Each variable is resolved (recursively) just once and then memoized within this instance.  So, create ONE instance and use it for as many strings as you want, as long as the properties do NOT change.  If they do change, call {@link #reset()}.</p>
+ *  <p>Precedence is the same as {@link Macros#evalThoroughly(boolean, String, LinkedHashMap)}: the 1st Properties (in insertion order) that has a value for a variable wins.  Unknown variables are left as-is.<br>
+ *     Note: within the VALUE of a variable (from Properties # k), that is still the case for the Properties # k+1, k+2, .. followed by # 0, 1, .. k (as that is the order in which evalThoroughly() looks at such values).</p>
+ *  <p>A variable whose value (eventually) refers to itself, is reported as a {@link Macros.MacroException} that lists the entire cycle - as evaluating it would never end.
+ *     The exception: a cycle that is a fixpoint for evalThoroughly() - like a=${ASUX::a}, or b=${ASUX::b}${ASUX::d} with d='' - is NOT an error, and gives the same result as evalThoroughly() did.  A result longer than {@link Macros#MAX_EXPANSION_LENGTH} chars is also reported as a {@link Macros.MacroException}.</p>
+ *  <p>ATTENTION: such a fixpoint is found ONLY by falling back to the original algorithm - for that ONE string, evaluate it against ALL the Properties, again and again, until it stops changing - and throwing the cycle's exception ONLY if it does NOT stabilize within (number of variables across all the Properties) + 2 passes.
+ *     Each pass costs O(length of the string x number of Properties), and the memoized values are NOT used.  That's acceptable ONLY because cyclic definitions are rare.  Strings without a cycle never take this path.</p>
+ *  <p>This class is NOT thread-safe.</p>
+ */
+public class MacroResolver {
+
+    public static final String CLASSNAME = MacroResolver.class.getName();
+
+    protected final boolean verbose;
+    protected final LinkedHashMap<String,Properties> propsSet;
+
+    /** Same as propsSet.values(), in the same order */
+    private final Properties[] stages;
+    /** Same as propsSet.keySet(), in the same order.  For ${ASUX::label::___}, see {@link Macros#lookup(String, Properties, String)} */
+    private final String[] labels;
+
+    /** Non-null, if propsSet is a {@link PropertySets}, whose (lock-free) index is then used for all lookups */
+    private final PropertySets indexed;
+
+    /** resolved[k]: key = variable-name, value = the fully-resolved value from Properties # k.  A variable that is NOT in any of the Properties is NOT cached here. */
+    private final HashMap<String,Resolved>[] resolved;
+
+    /** the variables currently being resolved (in order), so that we can detect cycles (and report the entire cycle) */
+    private final ArrayList<String> inProgress = new ArrayList<>();
+    private final ArrayList<Integer> inProgressStages = new ArrayList<>();
+
+    /** Every variable-name looked up (whether found or not, incl. the ones within the values of variables) by the most recent {@link #resolve(String)}.  May have duplicates. */
+    private final ArrayList<String> lookedUp = new ArrayList<>();
+
+    /** Whether any of the values came from (or had to be looked up in) a 'live' Properties of a {@link PropertySets} */
+    private boolean consultedLive = false;
+
+    /** Set by {@link #resolveString(String, long)} and {@link #resolveVariable(String, long)}: the 'time' of the very last substitution done by them. */
+    private long endTime;
+
+    /** The fully-resolved value of a variable, how long (see {@link #resolveString(String, long)} for what 'time' means) it took, and ALL the variable-names that were looked up to get it */
+    private static final class Resolved {
+        final String value;
+        final long duration;
+        final String[] lookedUp;
+        Resolved( final String _value, final long _duration, final String[] _lookedUp ) { this.value = _value; this.duration = _duration; this.lookedUp = _lookedUp; }
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  @param _verbose Whether you want deluge of debug-output onto System.out
+     *  @param _propsSet can be null,  and otherwise an instance of LinkedHashMap&lt;String,Properties&gt; (representing multiple java.util.Properties objects)
+     */
+    public MacroResolver( final boolean _verbose, final LinkedHashMap<String,Properties> _propsSet ) {
+        this.verbose = _verbose;
+        this.propsSet = _propsSet;
+        this.stages = ( _propsSet == null ) ? new Properties[0] : _propsSet.values().toArray( new Properties[ _propsSet.size() ] );
+        this.labels = ( _propsSet == null ) ? new String[0] : _propsSet.keySet().toArray( new String[ _propsSet.size() ] );
+        this.indexed = ( _propsSet instanceof PropertySets ) ? (PropertySets) _propsSet : null;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final HashMap<String,Resolved>[] memo = new HashMap[ this.stages.length ];
+        for ( int ix = 0; ix < memo.length; ix ++ ) memo[ix] = new HashMap<>();
+        this.resolved = memo;
+    }
+
+    /**
+     *  @param _verbose Whether you want deluge of debug-output onto System.out
+     *  @param _props can be null, otherwise an instance of {@link java.util.Properties}
+     */
+    public MacroResolver( final boolean _verbose, final Properties _props ) {
+        this( _verbose, MacroResolver.singleSet( _props ) );
+    }
+
+    private static LinkedHashMap<String,Properties> singleSet( final Properties _props ) {
+        if ( _props == null ) return null;
+        final LinkedHashMap<String,Properties> retval = new LinkedHashMap<>();
+        retval.put( null, _props ); // No label.  So, No ${ASUX::label::___} either.
+        return retval;
+    }
+
+    /** @return true if any of the results so far depended on a 'live' Properties (see {@link PropertySets#markLive(String)}), and hence should NOT be cached */
+    public boolean consultedLiveProperties() {
+        return this.consultedLive;
+    }
+
+    /** Forget all memoized values.  Must be invoked, if any of the Properties (passed to the constructor) changed. */
+    public void reset() {
+        for ( HashMap<String,Resolved> memo: this.resolved ) memo.clear();
+        this.consultedLive = false;
+        this.inProgress.clear();
+        this.inProgressStages.clear();
+        this.lookedUp.clear();
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  @param _s the string which CAN (not required to) contain macro expressions like ${ASUX::___}
+     *  @return the original string as-is (if no macros were detected).. or the altered version
+     *  @throws Macros.MacroException if there is a cycle (like: a=${ASUX::b} and b=${ASUX::a}), or if the result gets too long
+     */
+    public String resolve( final String _s ) throws Macros.MacroException
+    {
+        return this.resolve( _s, (MacroTemplate) null );
+    }
+
+    /**
+     *  Same as {@link #resolve(String)} on {@link MacroTemplate#getSource()}, but the string is NOT parsed again (only the strings formed by substituting its variables are).
+     *  @param _template NotNull.  Example: from {@link MacroTemplate#of(String)}, kept by the caller (like: {@link CompiledScript}) for a string that is evaluated again-n-again
+     *  @return the original string as-is (if no macros were detected).. or the altered version
+     *  @throws Macros.MacroException if there is a cycle (like: a=${ASUX::b} and b=${ASUX::a}), or if the result gets too long
+     */
+    public String resolve( final MacroTemplate _template ) throws Macros.MacroException
+    {
+        return this.resolve( _template.getSource(), _template );
+    }
+
+    /** @param _template null, or the template of _s */
+    private String resolve( final String _s, final MacroTemplate _template ) throws Macros.MacroException
+    {
+        this.lookedUp.clear();
+        if ( _s == null ) return null;
+        if ( this.stages.length <= 0 ) return _s;
+        this.inProgress.clear(); // in case a previous invocation threw an exception
+        this.inProgressStages.clear();
+        try {
+            return this.resolveString( _s, _template, 0 );
+        } catch ( Macros.MacroException e ) {
+            // A cycle does NOT always mean that the evaluation never ends.  Example: b=${ASUX::b}${ASUX::d} and d='' .. is a fixpoint for evalThoroughly().
+            // So (only for such rare cases) do exactly what evalThoroughly() did - pass after pass - and throw ONLY if that does NOT stabilize.
+            return this.resolveByPasses( _s, e );
+        }
+    }
+
+    /**
+     *  <p>The original implementation of {@link Macros#evalThoroughly(boolean, String, LinkedHashMap)}: evaluate against ALL the Properties (one 'pass') until the string stops changing.</p>
+     *  <p>It never ends, if the string returns to a previous value, or keeps growing.  In that case _cause is thrown.
+     *  A string that stabilizes, does so within (number of variables across all the Properties) + 2 passes.  So that's the limit on passes.</p>
+     *  @param _s NotNull
+     *  @param _cause the exception thrown by {@link #resolveString(String, long)} for _s
+     */
+    private String resolveByPasses( final String _s, final Macros.MacroException _cause ) throws Macros.MacroException
+    {
+        final String HDR = CLASSNAME + ": resolveByPasses("+ _s +"): ";
+        long maxPasses = 2;
+        for ( Properties p: this.stages ) if ( p != null ) maxPasses += p.size();
+        final HashSet<String> seen = new HashSet<>();
+        String retStr = _s;
+        for ( long pass = 0; pass < maxPasses && seen.add( retStr ); pass ++ ) {
+            if ( MacroTemplate.mightHaveMacros( retStr ) ) { // for resolve(String, Collection)
+                final MacroTemplate template = MacroTemplate.of( retStr );
+                for ( int ix = 0; ix < template.getVariableCount(); ix ++ ) this.lookedUp.add( template.getVariableName( ix ) );
+            }
+            final String newStr = Macros.eval( this.verbose, retStr, this.propsSet );
+            if ( newStr.equals( retStr ) ) {
+                if ( this.verbose ) System.out.println( HDR +"stabilized after "+ pass +" passes, in spite of: "+ _cause.getMessage() );
+                if ( this.indexed != null && this.indexed.consultsLive( 0, -1 ) ) this.consultedLive = true;
+                return retStr;
+            }
+            if ( newStr.length() > Macros.MAX_EXPANSION_LENGTH ) break;
+            retStr = newStr;
+        }
+        throw _cause;
+    }
+
+    /**
+     *  <p>Same as {@link #resolve(String)}, and in addition reports the names of ALL the variables that the result depends on - incl. those within the values of other variables, those formed by nested expressions like <code>${ASUX::AWS-${ASUX::AWSRegion}}</code>, and those NOT found in any of the Properties (as adding them later changes the result).</p>
+     *  <p>If ANY of these variables is added/changed/removed, the result may change.  Otherwise, it will NOT.  See {@link MacroDependencies}.</p>
+     *  @param _s the string which CAN (not required to) contain macro expressions like ${ASUX::___}
+     *  @param _dependencies NotNull.  The names of the variables (as within ${ASUX::___}) are added to this.
+     *  @return the original string as-is (if no macros were detected).. or the altered version
+     *  @throws Macros.MacroException if there is a cycle (like: a=${ASUX::b} and b=${ASUX::a}), or if the result gets too long
+     */
+    public String resolve( final String _s, final Collection<String> _dependencies ) throws Macros.MacroException
+    {
+        try {
+            return this.resolve( _s );
+        } finally {
+            _dependencies.addAll( this.lookedUp ); // even if an exception was thrown, fixing any of these could fix the problem
+        }
+    }
+
+    //==============================================================================
+    /**
+     *  <p>Replaces each ${ASUX::___} with its (fully-resolved) value.  If that creates NEW ${ASUX::___} expressions (nested expressions like <code>${ASUX::AWS-${ASUX::AWSRegion}}</code>), repeat.</p>
+     *  <p>evalThoroughly() evaluates the string against each Properties in turn (one 'pass'), and repeats the passes until the string stops changing.
+     *  To give the same results, this class keeps track of 'time' = (pass # * number-of-Properties) + index-of-the-Properties.
+     *  That is, the Properties that gets to look at a string/value at time t, is # (t % number-of-Properties).</p>
+     *  @param _time 0 for the string passed to {@link #resolve(String)}.  For the value of a variable, right after the time it was substituted.
+     */
+    private String resolveString( final String _s, final long _time ) throws Macros.MacroException
+    {
+        return this.resolveString( _s, null, _time );
+    }
+
+    /** @param _template null, or the template of _s (so that _s is NOT parsed again) */
+    private String resolveString( final String _s, final MacroTemplate _template, final long _time ) throws Macros.MacroException
+    {
+        final String HDR = CLASSNAME + ": resolveString("+ _s +","+ _time +"): ";
+        MacroTemplate given = _template;
+        String retStr = _s;
+        // The parts of retStr that were substituted (and the time of the last substitution within each part), so that we know when a NEW ${ASUX::___} got formed.
+        Regions regions = new Regions();
+        long lastChange = _time - 1; // nothing substituted yet
+        HashSet<String> seen = null; // lazily created, only for nested expressions
+        do {
+            if (  !  MacroTemplate.mightHaveMacros( retStr ) ) break;
+            final MacroTemplate template = ( given != null ) ? given : MacroTemplate.of( retStr );
+            given = null; // retStr changes below
+            final int count = template.getVariableCount();
+            if ( count <= 0 ) break;
+
+            final long[] times = new long[ count ];
+            final StringBuilder state = new StringBuilder(); // retStr + the stage for each variable
+            for ( int ix = 0; ix < count; ix ++ ) {
+                // a NEW ${ASUX::___} got formed only after ALL of the parts within it were substituted.
+                final long formed = regions.lastTime( template.getVariableStart( ix ), template.getVariableEnd( ix ) );
+                times[ix] = ( formed < 0 ) ? _time : formed + 1;
+                state.append( times[ix] % this.stages.length ).append( ',' );
+            }
+            if ( seen == null ) seen = new HashSet<>();
+            if (  !  seen.add( state.append( retStr ).toString() ) )
+                throw new Macros.MacroException( "Evaluating Macros within '"+ _s +"' never ends, as it keeps returning to '"+ retStr +"'" );
+
+            final String[] values = new String[ count ];
+            final Regions newRegions = new Regions();
+            int pos = 0; // position within newStr
+            boolean changed = false;
+            for ( int ix = 0; ix <= count; ix ++ ) {
+                final int litLen = template.getLiteralLength( ix );
+                final int litBegin = ( ix == 0 ) ? 0 : template.getVariableEnd( ix - 1 );
+                newRegions.copy( regions, litBegin, litBegin + litLen, pos - litBegin );
+                pos += litLen;
+                if ( ix == count ) break;
+                values[ix] = this.resolveVariable( template.getVariableName( ix ), times[ix] );
+                if ( values[ix] == null ) {
+                    newRegions.copy( regions, template.getVariableStart( ix ), template.getVariableEnd( ix ), pos - template.getVariableStart( ix ) );
+                    pos += template.getVariableEnd( ix ) - template.getVariableStart( ix );
+                } else {
+                    changed = true;
+                    newRegions.add( pos, pos + values[ix].length(), this.endTime );
+                    lastChange = Math.max( lastChange, this.endTime );
+                    pos += values[ix].length();
+                }
+            }
+            if (  !  changed ) break; // only unknown variables were left
+
+            final String newStr = template.eval( values );
+            if ( newStr.equals( retStr ) ) break; // a fixpoint (like a=${ASUX::a}).  Just like evalThoroughly(), stop when the string stops changing.
+            if ( newStr.length() > Macros.MAX_EXPANSION_LENGTH )
+                throw new Macros.MacroException( "Evaluating Macros within '"+ _s +"' results in a string longer than "+ Macros.MAX_EXPANSION_LENGTH +" chars (see "+ Macros.MAX_EXPANSION_LENGTH_PROPERTY +")" );
+            if ( this.verbose ) System.out.println( HDR + retStr +" --> "+ newStr );
+            retStr = newStr;
+            regions = newRegions;
+        } while (true);
+        this.endTime = lastChange;
+        return retStr;
+    }
+
+    //==============================================================================
+    /** Parts of a string [begin, end) and the time of the last substitution within each */
+    private static final class Regions {
+        private final ArrayList<long[]> list = new ArrayList<>();
+        void add( final int _begin, final int _end, final long _time ) {
+            if ( _begin < _end ) this.list.add( new long[] { _begin, _end, _time } );
+        }
+        /** copies the parts of _from that intersect [_begin, _end) after moving them by _shift chars */
+        void copy( final Regions _from, final int _begin, final int _end, final int _shift ) {
+            for ( long[] r: _from.list )
+                this.add( (int) Math.max( r[0], _begin ) + _shift, (int) Math.min( r[1], _end ) + _shift, r[2] );
+        }
+        /** @return the latest time amongst the parts that intersect [_begin, _end), or -1 */
+        long lastTime( final int _begin, final int _end ) {
+            long retval = -1;
+            for ( long[] r: this.list )
+                if ( r[0] < _end && _begin < r[1] ) retval = Math.max( retval, r[2] );
+            return retval;
+        }
+    }
+
+    //==============================================================================
+    /**
+     *  <p>The variable is looked up in Properties # (_time % number-of-Properties), and the ones after it.  If NOT found, in the next pass (that is, Properties # 0, 1, ..).</p>
+     *  @return the fully-resolved value of the variable (that is, the ___ within ${ASUX::___}), or null if it's NOT within any of the Properties
+     */
+    private String resolveVariable( final String _name, final long _time ) throws Macros.MacroException
+    {
+        final int stage = (int) ( _time % this.stages.length );
+        final int lookedUpFrom = this.lookedUp.size();
+        this.lookedUp.add( _name );
+        int k = this.find( _name, stage );
+        long substitutedAt = _time - stage + k;
+        if ( k < 0 ) {
+            k = this.find( _name, 0 ); // in the next pass
+            if ( k < 0 ) return null; // we are NOT going to replace      ${ASUX::unknownVARIABLE}      with        null
+            substitutedAt = _time - stage + this.stages.length + k;
+        }
+
+        final Resolved cached = this.resolved[k].get( _name );
+        if ( cached != null ) {
+            for ( String name: cached.lookedUp ) this.lookedUp.add( name );
+            this.endTime = substitutedAt + cached.duration;
+            return cached.value;
+        }
+
+        for ( int ix = 0; ix < this.inProgress.size(); ix ++ ) {
+            if ( this.inProgressStages.get( ix ) == k && this.inProgress.get( ix ).equals( _name ) ) {
+                if ( this.isSelfReference( ix, _name ) )
+                    return null; // a fixpoint (like a=${ASUX::a}).  Substituting it changes nothing, so leave ${ASUX::a} as-is.
+                final StringBuilder cycle = new StringBuilder();
+                for ( int jx = ix; jx < this.inProgress.size(); jx ++ )
+                    cycle.append( this.inProgress.get( jx ) ).append( " -> " );
+                cycle.append( _name );
+                throw new Macros.MacroException( "Cyclic Macro definitions: "+ cycle );
+            }
+        }
+
+        this.inProgress.add( _name );
+        this.inProgressStages.add( k );
+        final String rawValue = ( this.indexed != null ) ? this.indexed.get( _name, k ) : Macros.lookup( this.labels[k], this.stages[k], _name );
+        final String value = this.resolveString( rawValue, substitutedAt + 1 );
+        this.inProgress.remove( this.inProgress.size() - 1 );
+        this.inProgressStages.remove( this.inProgressStages.size() - 1 );
+
+        this.endTime = Math.max( substitutedAt, this.endTime );
+        final String[] lookedUpNow = new LinkedHashSet<>( this.lookedUp.subList( lookedUpFrom, this.lookedUp.size() ) ).toArray( new String[0] );
+        this.resolved[k].put( _name, new Resolved( value, this.endTime - substitutedAt, lookedUpNow ) );
+        return value;
+    }
+
+    /**
+     *  <p>Whether the cycle (that is, inProgress # _from, .. till the end) is ONLY _name referring to itself.  That is, in each of the Properties involved, the value of _name is exactly ${ASUX::_name}.</p>
+     *  <p>Such a cycle is a fixpoint (evalThoroughly() returns ${ASUX::_name} as-is) and NOT an error.  Any other cycle (like: a=${ASUX::b} and b=${ASUX::a}, or a=x${ASUX::a}) never ends.</p>
+     */
+    private boolean isSelfReference( final int _from, final String _name ) {
+        for ( int ix = _from; ix < this.inProgress.size(); ix ++ ) {
+            if (  !  this.inProgress.get( ix ).equals( _name ) ) return false;
+            final int k = this.inProgressStages.get( ix );
+            final String rawValue = ( this.indexed != null ) ? this.indexed.get( _name, k ) : Macros.lookup( this.labels[k], this.stages[k], _name );
+            if ( rawValue == null ) return false;
+            final MacroTemplate template = MacroTemplate.of( rawValue );
+            if ( template.getVariableCount() != 1 || template.getLiteralLength( 0 ) != 0 || template.getLiteralLength( 1 ) != 0 )
+                return false;
+            if (  !  template.getVariableName( 0 ).equals( _name ) ) return false;
+        }
+        return true;
+    }
+
+    /** @return the index of the 1st Properties (starting at _from) that has a value for _name, or -1 */
+    private int find( final String _name, final int _from ) {
+        if ( this.indexed != null ) {
+            final int k = this.indexed.find( _name, _from );
+            if (  !  this.consultedLive && this.indexed.consultsLive( _from, k ) ) this.consultedLive = true;
+            return k;
+        }
+        for ( int ix = _from; ix < this.stages.length; ix ++ ) {
+            if ( this.stages[ix] != null && Macros.lookup( this.labels[ix], this.stages[ix], _name ) != null )
+                return ix;
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,333 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.LinkedHashMap;
+import java.util.Properties;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>Evaluates ${ASUX::___} macros within an ENTIRE file (or any Reader/Channel) of any size, writing the result to a Writer/Channel - using a constant amount of memory.
+ *     The alternative (loading the file into a scanner, and evaluating one String at a time) is NOT an option for multi-GB YAML/CFN templates.</p>
+ *  <p>The result is exactly the same as that of {@link Macros#eval(boolean, String, LinkedHashMap)} on the entire content as a single String.
+ *     That is: one pass for each of the Properties (in insertion order), where the values substituted by one Properties are seen only by the Properties after it.<br>
+ *     It is implemented as a chain of Writers (one per Properties), each of which holds back just the text that MIGHT turn out to be a macro-expression.
+ *     So, macro-expressions that straddle buffer-boundaries are handled correctly.</p>
+ *  <p>The Properties are snapshot (see {@link Macros#snapshot(LinkedHashMap)}) when the expansion starts, so that the entire output is consistent.</p>
+ */
+public final class MacroStreamExpander {
+
+    public static final String CLASSNAME = MacroStreamExpander.class.getName();
+
+    private static final int BUFSIZE = 8192;
+
+    private MacroStreamExpander() {}
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  @param _in NotNull.  Read till EOF, but NOT closed.
+     *  @param _out NotNull.  Flushed, but NOT closed.
+     *  @param _propsSet can be null (in which case, the contents are copied as-is)
+     *  @return the # of chars read from _in
+     *  @throws IOException if reading or writing fails
+     */
+    public static long expand( final Reader _in, final Writer _out, final LinkedHashMap<String,Properties> _propsSet ) throws IOException
+    {
+        final Writer w = MacroStreamExpander.newWriter( _out, _propsSet );
+        final char[] buf = new char[ BUFSIZE ];
+        long count = 0;
+        int n;
+        while ( ( n = _in.read( buf ) ) >= 0 ) {
+            w.write( buf, 0, n );
+            count += n;
+        }
+        ((StageWriter) w).finish();
+        _out.flush();
+        return count;
+    }
+
+    /**
+     *  Same as {@link #expand(Reader, Writer, LinkedHashMap)}, for a single java.util.Properties.  See {@link Macros#eval(boolean, String, Properties)}.
+     *  @param _in NotNull.  Read till EOF, but NOT closed.
+     *  @param _out NotNull.  Flushed, but NOT closed.
+     *  @param _props can be null (in which case, the contents are copied as-is)
+     *  @return the # of chars read from _in
+     *  @throws IOException if reading or writing fails
+     */
+    public static long expand( final Reader _in, final Writer _out, final Properties _props ) throws IOException
+    {
+        final LinkedHashMap<String,Properties> propsSet = new LinkedHashMap<>();
+        if ( _props != null ) propsSet.put( null, _props ); // No label.  So, No ${ASUX::label::___} either.
+        return MacroStreamExpander.expand( _in, _out, propsSet );
+    }
+
+    /**
+     *  Same as {@link #expand(Reader, Writer, LinkedHashMap)}, but for bytes (in the given Charset).  Malformed input is replaced (just like java.io.InputStreamReader does), rather than fail.
+     *  @param _in NotNull.  Read till EOF, but NOT closed.
+     *  @param _out NotNull.  NOT closed.
+     *  @param _propsSet can be null (in which case, the contents are copied as-is)
+     *  @param _charset NotNull
+     *  @return the # of chars read from _in
+     *  @throws IOException if reading or writing fails
+     */
+    public static long expand( final ReadableByteChannel _in, final WritableByteChannel _out, final LinkedHashMap<String,Properties> _propsSet, final Charset _charset ) throws IOException
+    {
+        final Reader reader = Channels.newReader( _in, _charset.newDecoder().onMalformedInput( CodingErrorAction.REPLACE ).onUnmappableCharacter( CodingErrorAction.REPLACE ), BUFSIZE );
+        final Writer writer = Channels.newWriter( _out, _charset.newEncoder().onMalformedInput( CodingErrorAction.REPLACE ).onUnmappableCharacter( CodingErrorAction.REPLACE ), BUFSIZE );
+        return MacroStreamExpander.expand( reader, writer, _propsSet ); // Note: do NOT close reader/writer, as that will close the channels.
+    }
+
+    //==============================================================================
+    /**
+     *  <p>For those that want to PUSH content (rather than have it read from a Reader).</p>
+     *  <p>ATTENTION: You MUST close() the returned Writer (which also closes _out), as the last few chars are held back until then.  flush() does NOT write out the text that might still turn out to be a macro-expression.</p>
+     *  @param _out NotNull
+     *  @param _propsSet can be null (in which case, the contents are copied as-is)
+     *  @return a NotNull Writer, that evaluates the macros within whatever is written to it, and writes the result to _out
+     */
+    public static Writer newWriter( final Writer _out, final LinkedHashMap<String,Properties> _propsSet )
+    {
+        final LinkedHashMap<String,Properties> frozen = Macros.snapshot( _propsSet );
+        Writer w = _out;
+        if ( frozen != null ) {
+            final Properties[] sets = frozen.values().toArray( new Properties[ frozen.size() ] );
+            final String[] labels = frozen.keySet().toArray( new String[ frozen.size() ] );
+            for ( int ix = sets.length - 1; ix >= 0; ix -- ) // the last Properties is the one that writes to _out
+                w = new StageWriter( w, labels[ix], sets[ix] );
+        }
+        return ( w instanceof StageWriter ) ? w : new StageWriter( w, null, null );
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>One pass of {@link Macros#eval(boolean, String, Properties)}, as a Writer.  Same rules as the REGEXP {@link Macros#pattStr}: after the marker '${ASUX::', a name made up of anything but '$', '{' and '}', followed by '}'.<br>
+     *     If that fails, just like java.util.regex.Matcher.find(), the search resumes at the very next char after the '$'.</p>
+     *  <p>A name longer than the longest name within the Properties can NOT have a value.  And, an unknown ${ASUX::___} is left as-is.
+     *     So, rather than hold back an arbitrarily long name, it's written out as-is - which is why the memory used is constant.</p>
+     */
+    private static final class StageWriter extends Writer {
+        private static final String MARKER = MacroTemplate.MARKER;
+
+        private final Writer next;
+        private final String label; // can be null
+        private final Properties props; // null means: pass-through
+        private final int maxNameLength;
+
+        /** the chars held back, that might be a macro-expression: MARKER (or a prefix of it), followed by part of a name */
+        private final StringBuilder pending = new StringBuilder();
+        /** true if the text since the last '$' was a too-long name.  Until the next '$', '{' or '}', all chars are written as-is */
+        private boolean skipping = false;
+
+        private final char[] outbuf = new char[ BUFSIZE ];
+        private int outlen = 0;
+
+        StageWriter( final Writer _next, final String _label, final Properties _props ) {
+            this.next = _next;
+            this.label = _label;
+            this.props = ( _props == null || _props.size() <= 0 ) ? null : _props;
+            int max = 0;
+            if ( this.props != null )
+                for ( String name: this.props.stringPropertyNames() ) max = Math.max( max, name.length() );
+            if ( this.label != null && max > 0 )
+                max += this.label.length() + Macros.NAMESPACE_SEPARATOR.length(); // ${ASUX::label::___}
+            this.maxNameLength = max;
+        }
+
+        @Override
+        public void write( final char[] _cbuf, final int _off, final int _len ) throws IOException {
+            if ( this.props == null ) {
+                this.next.write( _cbuf, _off, _len );
+                return;
+            }
+            for ( int ix = _off; ix < _off + _len; ix ++ )
+                this.accept( _cbuf[ix] );
+        }
+
+        private void accept( final char _c ) throws IOException {
+            if ( this.skipping ) {
+                if ( _c != '$' && _c != '{' && _c != '}' ) { this.emit( _c ); return; }
+                this.skipping = false; // .. and process _c normally
+            }
+
+            final int plen = this.pending.length();
+            if ( plen == 0 ) {
+                if ( _c == MARKER.charAt( 0 ) ) this.pending.append( _c );
+                else this.emit( _c );
+                return;
+            }
+
+            if ( plen < MARKER.length() ) { // still matching the MARKER
+                if ( _c == MARKER.charAt( plen ) ) { this.pending.append( _c ); return; }
+                this.retry( _c );
+                return;
+            }
+
+            // reading the name
+            final int nameLen = plen - MARKER.length();
+            if ( _c == '}' && nameLen > 0 ) {
+                final String name = this.pending.substring( MARKER.length() );
+                this.pending.setLength( 0 );
+                final String v = Macros.lookup( this.label, this.props, name ); // lookup value for ${ASUX::__}
+                if ( v == null )
+                    this.emit( "${"+ Macros.MACRO_VAR_PREFIX + name +"}" ); // we are NOT going to replace      ${ASUX::unknownVARIABLE}      with        null
+                else
+                    this.emit( v );
+                return;
+            }
+            if ( _c == '$' || _c == '{' || _c == '}' ) {
+                this.retry( _c );
+                return;
+            }
+            if ( nameLen >= this.maxNameLength ) { // this name (once it is one char longer) can NOT have a value.
+                this.emit( this.pending );
+                this.pending.setLength( 0 );
+                this.emit( _c );
+                this.skipping = true;
+                return;
+            }
+            this.pending.append( _c );
+        }
+
+        /** The held-back chars + _c are NOT a macro-expression.  Write out the 1st char, and re-scan the rest (just like Matcher.find()) */
+        private void retry( final char _c ) throws IOException {
+            final String rest = this.pending.substring( 1 ) + _c;
+            this.emit( this.pending.charAt( 0 ) );
+            this.pending.setLength( 0 );
+            for ( int ix = 0; ix < rest.length(); ix ++ )
+                this.accept( rest.charAt( ix ) );
+        }
+
+        private void emit( final char _c ) throws IOException {
+            if ( this.outlen >= this.outbuf.length ) this.drain();
+            this.outbuf[ this.outlen ++ ] = _c;
+        }
+
+        private void emit( final CharSequence _s ) throws IOException {
+            for ( int ix = 0; ix < _s.length(); ix ++ )
+                this.emit( _s.charAt( ix ) );
+        }
+
+        private void drain() throws IOException {
+            if ( this.outlen > 0 ) this.next.write( this.outbuf, 0, this.outlen );
+            this.outlen = 0;
+        }
+
+        /** End of input: nothing held back can be a macro-expression anymore.  Writes out everything (recursively, for all the Properties after this one), WITHOUT closing anything. */
+        void finish() throws IOException {
+            this.emit( this.pending );
+            this.pending.setLength( 0 );
+            this.skipping = false;
+            this.drain();
+            if ( this.next instanceof StageWriter )
+                ((StageWriter) this.next).finish();
+        }
+
+        /** Writes out everything, EXCEPT for the text that might still turn out to be a macro-expression */
+        @Override
+        public void flush() throws IOException {
+            this.drain();
+            this.next.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.finish();
+            this.next.close();
+        }
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>For unit-testing purposes only.  Expands the input-file, reading just a few chars at a time (once for each chunk-size), so that the macro-expressions straddle the buffer-boundaries.
+     *     Each result is compared with {@link Macros#eval(boolean, String, LinkedHashMap)} on the entire content as a single String.</p>
+     *  @param args [--verbose] chunkSize1,chunkSize2,.. inputFile label1=file1.properties label2=file2.properties ..
+     */
+    public static void main(String[] args) {
+        final String HDR = CLASSNAME + ": main(): ";
+        try {
+            boolean verbose = false;
+            int ix = 0;
+            if ( "--verbose".equals(args[0]) ) {
+                ix ++;
+                verbose = true;
+            }
+            final String[] chunkSizes = args[ix ++].split(",");
+            final String content = new String( java.nio.file.Files.readAllBytes( java.nio.file.Paths.get( args[ix ++] ) ), java.nio.charset.StandardCharsets.UTF_8 );
+            final LinkedHashMap<String,Properties> propsSet = new LinkedHashMap<>();
+            for ( ; ix < args.length; ix ++ ) {
+                final int eq = args[ix].indexOf('=');
+                final Properties props = new Properties();
+                try ( Reader r = new java.io.FileReader( args[ix].substring( eq + 1 ) ) ) { props.load( r ); }
+                propsSet.put( args[ix].substring( 0, eq ), props );
+            }
+            final String expected = Macros.eval( verbose, content, propsSet );
+
+            for ( String chunkSize: chunkSizes ) {
+                final int chunk = Integer.parseInt( chunkSize );
+                final Reader tiny = new java.io.FilterReader( new java.io.StringReader( content ) ) {
+                    @Override
+                    public int read( final char[] _cbuf, final int _off, final int _len ) throws IOException {
+                        return super.read( _cbuf, _off, Math.min( _len, chunk ) );
+                    }
+                };
+                final java.io.StringWriter out = new java.io.StringWriter();
+                MacroStreamExpander.expand( tiny, out, propsSet );
+                System.out.println( "---- read "+ chunk +" char(s) at a time.  Same as Macros.eval() on the entire content: "+ expected.equals( out.toString() ) );
+                System.out.println( out );
+            }
+		} catch (Exception e) {
+			e.printStackTrace(System.err); // main().  For Unit testing
+			System.err.println( HDR + "Unexpected Internal ERROR, while processing " + ((args==null || args.length<=0)?"[No CmdLine Args":args[0]) +"]" );
+			System.exit(91); // This is a serious failure. Shouldn't be happening.
+        }
+    }
+
+}
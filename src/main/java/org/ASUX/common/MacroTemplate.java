@@ -0,0 +1,234 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>A string, PRE-PARSED into literal-text and macro-variable segments (that is, the <code>${ASUX::___}</code> expressions), so that {@link Macros#eval(boolean, String, Properties)} does NOT have to run a REGEXP over the same string again-n-again.<br>
+ *     Evaluation is a single pass with a StringBuilder.</p>
+ *  <p>Parsing is IDENTICAL to what the REGEXP {@link Macros#pattStr} finds (incl. the fact that a '${ASUX::' that is NOT followed by a valid name and '}' is simply literal text).</p>
+ *  <p>Use {@link #of(String)} to get an instance.  Instances are immutable and are kept in a bounded LRU cache (see {@link #setCacheSize(int)}), as the same few thousand lines get evaluated over-n-over.</p>
+ */
+public final class MacroTemplate {
+
+    public static final String CLASSNAME = MacroTemplate.class.getName();
+
+    /** Name of the Java System-property, that can be used to set the # of templates cached */
+    public static final String CACHESIZE_PROPERTY = "org.ASUX.common.MacroTemplate.cacheSize";
+    public static final int DEFAULT_CACHESIZE = 4096;
+
+    /** What every macro-expression begins with.  Just like {@link Macros#pattStr}, this is fixed when the class is loaded. */
+    static final String MARKER = Macros.MACRO_MARKER;
+
+    private static int cacheSize = Integer.getInteger( CACHESIZE_PROPERTY, DEFAULT_CACHESIZE );
+    private static final LinkedHashMap<String,MacroTemplate> CACHE = new LinkedHashMap<String,MacroTemplate>( 256, 0.75f, true /* access-order, for LRU */ ) {
+        private static final long serialVersionUID = 1L;
+        @Override
+        protected boolean removeEldestEntry( final Map.Entry<String,MacroTemplate> _eldest ) {
+            return this.size() > MacroTemplate.cacheSize;
+        }
+    };
+
+    //--------------------------------------------------------
+    private final String source;
+    // segment # ix is the literal text source[ litStart[ix], litEnd[ix] ) followed by the variable names[ix].  The last segment has NO variable.
+    private final int[] litStart;
+    private final int[] litEnd;
+    private final String[] names;
+
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+
+    private MacroTemplate( final String _source, final int[] _litStart, final int[] _litEnd, final String[] _names ) {
+        this.source = _source;
+        this.litStart = _litStart;
+        this.litEnd = _litEnd;
+        this.names = _names;
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  @param _s can be null
+     *  @return true if _s contains something that MIGHT be a macro-expression.  If false, there's nothing to evaluate.  This check does NOT allocate anything.
+     */
+    public static boolean mightHaveMacros( final String _s ) {
+        return _s != null && _s.indexOf( MARKER ) >= 0;
+    }
+
+    /**
+     *  @param _s NotNull
+     *  @return the cached template for _s (parsing it the 1st time)
+     */
+    public static MacroTemplate of( final String _s ) {
+        if ( MacroTemplate.cacheSize <= 0 )
+            return MacroTemplate.parse( _s );
+        MacroTemplate t;
+        synchronized( CACHE ) {
+            t = CACHE.get( _s );
+        }
+        if ( t != null ) return t;
+        t = MacroTemplate.parse( _s ); // outside the lock.  Worst case, 2 threads parse the same string.
+        synchronized( CACHE ) {
+            CACHE.put( _s, t );
+        }
+        return t;
+    }
+
+    /**
+     *  @param _size maximum # of templates to cache (across the JVM).  0 disables the cache.
+     */
+    public static void setCacheSize( final int _size ) {
+        synchronized( CACHE ) {
+            MacroTemplate.cacheSize = Math.max( 0, _size );
+            final java.util.Iterator<String> iter = CACHE.keySet().iterator();
+            while ( CACHE.size() > MacroTemplate.cacheSize && iter.hasNext() ) {
+                iter.next();
+                iter.remove();
+            }
+        }
+    }
+
+    //===========================================================================
+    /** Same as the REGEXP <code>[$]\{ASUX::([^${}]+)\}</code> used with java.util.regex.Matcher.find() */
+    private static MacroTemplate parse( final String _s ) {
+        final int n = _s.length();
+        final java.util.ArrayList<int[]> lits = new java.util.ArrayList<>();
+        final java.util.ArrayList<String> vars = new java.util.ArrayList<>();
+        int litBegin = 0;
+        int ix = _s.indexOf( MARKER );
+        while ( ix >= 0 ) {
+            final int nameBegin = ix + MARKER.length();
+            int k = nameBegin;
+            while ( k < n ) {
+                final char c = _s.charAt( k );
+                if ( c == '$' || c == '{' || c == '}' ) break;
+                k ++;
+            }
+            if ( k > nameBegin && k < n && _s.charAt( k ) == '}' ) {
+                lits.add( new int[] { litBegin, ix } );
+                vars.add( _s.substring( nameBegin, k ) );
+                litBegin = k + 1;
+                ix = _s.indexOf( MARKER, litBegin );
+            } else {
+                ix = _s.indexOf( MARKER, ix + 1 ); // Not a valid macro-expression.  Just like Matcher.find(), try again from the very next char
+            }
+        }
+        lits.add( new int[] { litBegin, n } );
+
+        final int[] litStart = new int[ lits.size() ];
+        final int[] litEnd = new int[ lits.size() ];
+        for ( int i = 0; i < lits.size(); i ++ ) {
+            litStart[i] = lits.get(i)[0];
+            litEnd[i] = lits.get(i)[1];
+        }
+        return new MacroTemplate( _s, litStart, litEnd, vars.toArray( new String[ vars.size() ] ) );
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** @return the string that this template was parsed from */
+    public String getSource() { return this.source; }
+
+    /** @return # of macro-variables within the template */
+    public int getVariableCount() { return this.names.length; }
+
+    /**
+     *  @param _ix 0 &lt;= _ix &lt; {@link #getVariableCount()}
+     *  @return the name of the macro-variable (that is, the ___ within ${ASUX::___})
+     */
+    public String getVariableName( final int _ix ) { return this.names[ _ix ]; }
+
+    /** @return the index (within {@link #getSource()}) of the '$' of the macro-variable # _ix */
+    public int getVariableStart( final int _ix ) { return this.litEnd[ _ix ]; }
+
+    /** @return the index (within {@link #getSource()}) right after the '}' of the macro-variable # _ix */
+    public int getVariableEnd( final int _ix ) { return this.litStart[ _ix + 1 ]; }
+
+    /** @return the # of chars of literal text (that is, NOT part of any macro-variable) right before the macro-variable # _ix.  For _ix == {@link #getVariableCount()}, the literal text at the very end. */
+    public int getLiteralLength( final int _ix ) { return this.litEnd[ _ix ] - this.litStart[ _ix ]; }
+
+    /**
+     *  <p>Replaces each macro-variable with its value within _props.  A variable that is NOT within _props, is left as-is (that is, as ${ASUX::___}).</p>
+     *  @param _props NotNull
+     *  @return the source string itself (NOT a copy), if there are No macro-variables.  Else, a new string.
+     */
+    public String eval( final Properties _props ) {
+        return this.eval( null, _props );
+    }
+
+    /**
+     *  <p>Same as {@link #eval(Properties)}, but _props is the one with the given label (within a LinkedHashMap&lt;String,Properties&gt;).  So, ${ASUX::label::___} is also replaced.  See {@link Macros#lookup(String, Properties, String)}</p>
+     *  @param _label can be null
+     *  @param _props NotNull
+     *  @return the source string itself (NOT a copy), if there are No macro-variables.  Else, a new string.
+     */
+    public String eval( final String _label, final Properties _props ) {
+        if ( this.names.length == 0 ) return this.source;
+        final String[] values = new String[ this.names.length ];
+        for ( int ix = 0; ix < this.names.length; ix ++ )
+            values[ix] = Macros.lookup( _label, _props, this.names[ix] ); // lookup value for ${ASUX::__}
+        return this.eval( values );
+    }
+
+    /**
+     *  <p>Replaces each macro-variable with the value provided.</p>
+     *  @param _values NotNull, with exactly {@link #getVariableCount()} elements.  _values[ix] is the value for {@link #getVariableName(int)}.  A null element means: leave that variable as-is (that is, as ${ASUX::___}).
+     *  @return the source string itself (NOT a copy), if there are No macro-variables.  Else, a new string.
+     */
+    public String eval( final String[] _values ) {
+        if ( this.names.length == 0 ) return this.source;
+        int len = this.source.length();
+        for ( String v: _values ) if ( v != null ) len += v.length();
+        final StringBuilder sb = new StringBuilder( len );
+        for ( int ix = 0; ix < this.names.length; ix ++ ) {
+            sb.append( this.source, this.litStart[ix], this.litEnd[ix] );
+            if ( _values[ix] == null )
+                sb.append( "${" ).append( Macros.MACRO_VAR_PREFIX ).append( this.names[ix] ).append( '}' ); // we are NOT going to replace ${ASUX::unknownVARIABLE} with null
+            else
+                sb.append( _values[ix] );
+        }
+        final int last = this.names.length;
+        sb.append( this.source, this.litStart[last], this.litEnd[last] );
+        return sb.toString();
+    }
+
+}
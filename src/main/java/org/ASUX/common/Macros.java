@@ -35,7 +35,6 @@ package org.ASUX.common;
 import java.util.LinkedHashMap;
 import java.util.Properties;
 
-import java.util.regex.*;
 
 import static org.junit.Assert.*;
 
@@ -48,6 +47,12 @@ public class Macros {
 	/** This is NOT a final variable.  So, you can set to whatever you want, to evaluate MACROs in your own context, without disturbing other ${XYZ} expressions. */
 	public static String MACRO_VAR_PREFIX = "ASUX::";
 
+	/** Name of the Java System-property, that can be used to set {@link #MAX_EXPANSION_LENGTH} */
+	public static final String MAX_EXPANSION_LENGTH_PROPERTY = "org.ASUX.common.Macros.maxExpansionLength";
+
+	/** This is NOT a final variable.  evalThoroughly() throws a MacroException, rather than return a string longer than this (protects against things like: setProperty a=${ASUX::a}${ASUX::a}) */
+	public static int MAX_EXPANSION_LENGTH = Integer.getInteger( MAX_EXPANSION_LENGTH_PROPERTY, 16 * 1024 * 1024 );
+
     private Macros() {
     }
 
@@ -64,24 +69,11 @@ public class Macros {
 	//------------------------------------------------------------------
 	public static final String pattStr = "[$]\\{"+ MACRO_VAR_PREFIX +"([^${}]+)\\}";
 
-	private static Pattern macroPattern = null;
+	/** The literal text that the REGEXP {@link #pattStr} begins with.  See MacroTemplate.java */
+	public static final String MACRO_MARKER = "${"+ MACRO_VAR_PREFIX;
 
-	private static Pattern getPattern( final boolean _verbose ) throws Macros.MacroException
-	{
-		final String HDR = CLASSNAME + ": getMatcher() ";
-		if ( Macros.macroPattern != null )
-			return Macros.macroPattern;
-
-		try {
-			Macros.macroPattern = Pattern.compile( Macros.pattStr );
-			return Macros.macroPattern;
-		} catch (PatternSyntaxException e) {
-			if ( _verbose ) e.printStackTrace(System.err);
-			final String s = "PatternSyntaxException when parsing pattern " + Macros.pattStr;
-			if ( _verbose ) System.err.println( HDR + " Unexpected Internal ERROR: " + s +"\nException message: "+ e );
-			throw new MacroException( s );
-		}
-    }
+	/** Separates the label of a Properties from the name of the variable, as in: ${ASUX::GLOBAL.VARIABLES::key}.  See {@link #lookup(String, Properties, String)} */
+	public static final String NAMESPACE_SEPARATOR = "::";
 
     //=======================================================================
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
@@ -102,60 +94,48 @@ public class Macros {
 	{
 		if (_s==null) return null;
 		if (_props==null || _props.size() <= 0) return _s;
+		if (  !  MacroTemplate.mightHaveMacros( _s ) ) return _s; // No allocations whatsoever, for the vast majority of strings.
 
-		final String HDR = CLASSNAME + ":eval("+ _verbose +","+ _s +",_props): ";
-		try {
-
-			final Pattern macroPatt = Macros.getPattern( _verbose );
-			Matcher matcher = macroPatt.matcher( _s );
-
-			boolean found = false;
-			String retstr = "";
-			int prevIndex = 0;
-
-			while (matcher.find()) {
-				found = true;
-				// System.out.println("I found the text "+matcher.group()+" starting at index "+  matcher.start()+" and ending at index "+matcher.end());    
-				retstr += _s.substring( prevIndex, matcher.start() );
-				final String macroVarStr = matcher.group(1);
-				final String v = _props.getProperty( macroVarStr ); // lookup value for ${ASUX::__} and add it to retStr
-
-				if ( v == null )
-					retstr += "${"+ MACRO_VAR_PREFIX + macroVarStr +"}"; // we are NOT going to replace      ${ASUX::unknownVARIABLE}      with        null
-				else
-					retstr += v;
-				prevIndex = matcher.end();
-				// System.out.println( CLASSNAME + ": Matched: "+matcher.group(1)+" to ["+ v +"]@ index "+ matcher.start()+" and ending @ "+matcher.end());
-			}
-
-			if(found){
-				if ( prevIndex < _s.length() ) {
-					// whatever is LEFT ***AFTER*** the last match.. we can't forget about that!
-					retstr += _s.substring( prevIndex );
-				}
-				// System.out.println( "Properties LOOKUP found: for ["+ retstr +"]");
-				return retstr;
-			} else {
-				// System.out.println("No match found.");
-				return _s;
-			}
-
-		} catch (PatternSyntaxException e) {
-			if ( _verbose ) e.printStackTrace(System.err);
-			final String s = "PatternSyntaxException when checking if '" + _s + "' matches pattern " + Macros.pattStr;
-			System.err.println( HDR + " Unexpected Internal ERROR: " + s +"\nException message: "+ e );
-			throw new MacroException( s );
-		}
-
-		// return _s; // program control should never get here.
+		// The string is parsed (into literals and ${ASUX::___} variables) only the 1st time.  See MacroTemplate.java
+		final MacroTemplate template = MacroTemplate.of( _s );
+		return ( template.getVariableCount() <= 0 ) ? _s : template.eval( _props );
 	} // function
 
+	/** Same as {@link #eval(boolean, String, Properties)}, but for the Properties with the given label (within a LinkedHashMap&lt;String,Properties&gt;), so that ${ASUX::label::___} works.  See {@link #lookup(String, Properties, String)} */
+	private static String evalLabeled( final String _s, final String _label, final Properties _props )
+	{
+		if (_s==null) return null;
+		if (_props==null || _props.size() <= 0) return _s;
+		if (  !  MacroTemplate.mightHaveMacros( _s ) ) return _s;
+		final MacroTemplate template = MacroTemplate.of( _s );
+		return ( template.getVariableCount() <= 0 ) ? _s : template.eval( _label, _props );
+	}
+
+	/**
+	 *  <p>The value of ___ (within ${ASUX::___}) within ONE of the Properties of a LinkedHashMap&lt;String,Properties&gt;.</p>
+	 *  <p>___ can be qualified with the label of a Properties, like <code>${ASUX::GLOBAL.VARIABLES::key}</code> or <code>${ASUX::System.env::PATH}</code>.
+	 *  Such a variable gets its value ONLY from the Properties with that label, and so is NOT ambiguous (and the other Properties need NOT be searched).<br>
+	 *  An unqualified name (or, a qualified name whose key is NOT within that Properties) is looked up as-is - just like before there were qualified names.</p>
+	 *  @param _label the label (within the LinkedHashMap&lt;String,Properties&gt;) of _props.  Can be null.
+	 *  @param _props NotNull
+	 *  @param _name the variable (that is, the ___ within ${ASUX::___})
+	 *  @return the value, or null
+	 */
+	public static String lookup( final String _label, final Properties _props, final String _name )
+	{
+		if ( _label != null && _name.length() > _label.length() + NAMESPACE_SEPARATOR.length() && _name.startsWith( _label ) && _name.startsWith( NAMESPACE_SEPARATOR, _label.length() ) ) {
+			final String v = _props.getProperty( _name.substring( _label.length() + NAMESPACE_SEPARATOR.length() ) );
+			if ( v != null ) return v;
+		}
+		return _props.getProperty( _name );
+	}
+
     //=======================================================================
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     //=======================================================================
 
 	/**
-	 *  This is a variant of eval(), to support Batch-Cmd mode, where BatchFile can load MULTIPLE property-files
+	 *  This is a variant of eval(), to support Batch-Cmd mode, where BatchFile can load MULTIPLE property-files.  Use ${ASUX::label::___} to get the value of ___ from just the Properties with that label (see {@link #lookup(String, Properties, String)})
 	 *  @param _verbose Whether you want deluge of debug-output onto System.out
 	 *  @param _s the string which CAN (not required to) contain macro expressions like ${ASUX::___}
 	 *  @param _propsSet can be null,  and otherwise an instance of LinkedHashMap&lt;String,Properties&gt; (representing multiple java.util.Properties objects)
@@ -171,7 +151,7 @@ public class Macros {
 		String retStr = _s;
 		for( String key: _propsSet.keySet() ) {
 			final Properties p = _propsSet.get(key);
-			final String newstr = eval( _verbose, retStr, p );
+			final String newstr = evalLabeled( retStr, key, p );
 			if ( newstr != null ) // this can happen if the _s is just the MACRO only.  Example:    ${ASUX::variable}
 				retStr = newstr;
 			// We can have multiple variables, for which values can be in different properties files
@@ -185,54 +165,20 @@ public class Macros {
 
 	/**
 	 *  <p>Refer to {@link #eval(boolean, String, Properties)}.</p>
-	 *  <p>This method simply iteratively calls above eval() until the evaluated-output is unchanged.  This is useful to resolve expressions like: <code>setProperty AWSLocation=${ASUX::AWS-${ASUX::AWSRegion}}</code>.</p>
+	 *  <p>Same result as iteratively calling above eval() until the evaluated-output is unchanged.  This is useful to resolve expressions like: <code>setProperty AWSLocation=${ASUX::AWS-${ASUX::AWSRegion}}</code>.</p>
+	 *  <p>Implemented by {@link MacroResolver}, which resolves each variable just once.  If you are evaluating MANY strings against the same (unchanging) properties, use a {@link MacroResolver} directly.</p>
 	 *  @param _verbose Whether you want deluge of debug-output onto System.out
 	 *  @param _s the string which CAN (not required to) contain macro expressions like ${ASUX::___}
 	 *  @param _props can be null, otherwise an instance of {@link java.util.Properties}
 	 *  @return the original string as-is (if no macros were detected).. or the altered version
-	 *  @throws Macros.MacroException if ANY failure in evaluating the macro on the input _s
+	 *  @throws Macros.MacroException if ANY failure in evaluating the macro on the input _s (incl. cyclic definitions like a=${ASUX::b} and b=${ASUX::a}, or a result longer than {@link #MAX_EXPANSION_LENGTH})
 	 */
 	public static String evalThoroughly( final boolean _verbose, final String _s, final Properties _props )
 										throws Macros.MacroException
 	{
 		if (_s == null) return null;
 		if ( _props == null ) return _s;
-
-        final String HDR = CLASSNAME +": evalThoroughly(verbose,_s="+ _s +",Single-Props-file): ";
-		String retStr = _s;
-		try {
-			// Pattern macroPatt = Macros.getPattern( _verbose );
-			do {
-				final String prev = retStr; // guaranteed to be NotNull
-				assertTrue( prev != null );
-				if ( _verbose ) System.out.println( HDR + "starting iteration with "+ prev );
-
-				retStr = Macros.eval( _verbose, retStr, _props );
-				if ( _verbose ) System.out.println( HDR + " prev="+ prev +" --> retStr="+ retStr );
-
-				// Now, check whether we need to 'rinse+repeat' the above "Macros.eval" above, until no further change happens
-				if ( prev.equals( retStr) ) {
-					// clearly..  if we do NOT quit this do-while loop, we'll be stuck in an infinite loop
-					return retStr; // !!!!!!!!!!!!!!! ATTENTION !!!!!!!!!!!!!!!!! method returns here
-				}
-				// Matcher matcher = macroPatt.matcher( retStr );
-				// if ( matcher.matches() ) { // means, we still have ${ASUX::___} still left (perhaps nested expressions, so we need multiple passes)
-				// 	if ( _verbose ) System.out.println( HDR + " retStr="+ retStr +" still has a MACRO Pattern left in it." );
-				// 	if ( prev.equals( retStr) ) {
-				// 		// clearly.. the ${ASUX::__} still left WILL NEVER get resolved.
-				// 		// if we do NOT quit this do-while loop, we'll be stuck in an infinite loop
-				// 		return retStr; // !!!!!!!!!!!!!!! ATTENTION !!!!!!!!!!!!!!!!! method returns here
-				// 	}
-				// } // if matcher.matches()
-				if ( _verbose ) System.out.println( HDR + "ENDED iteration with "+ retStr );
-			} while (true);
-		} catch ( Exception e ) {
-			if ( _verbose ) e.printStackTrace(System.err);
-			final String s = "Exception when checking if '" + _s + "' matches pattern " + Macros.pattStr;
-			System.err.println( HDR + " Unexpected Internal ERROR: " + s +"\nException message: "+ e );
-			throw new MacroException( s );
-		}
-		// return retStr;
+		return new MacroResolver( _verbose, _props ).resolve( _s );
     }
 
     //=======================================================================
@@ -241,65 +187,64 @@ public class Macros {
 
 	/**
 	 *  <p>Refer to {@link #eval(boolean, String, LinkedHashMap)}.</p>
-	 *  <p>This method simply iteratively calls above eval() until the evaluated-output is unchanged.  This is useful to resolve expressions like: <code>setProperty AWSLocation=${ASUX::AWS-${ASUX::AWSRegion}}</code>.</p>
+	 *  <p>Same result as iteratively calling above eval() until the evaluated-output is unchanged.  This is useful to resolve expressions like: <code>setProperty AWSLocation=${ASUX::AWS-${ASUX::AWSRegion}}</code>.</p>
+	 *  <p>Implemented by {@link MacroResolver}, which resolves each variable just once.  If you are evaluating MANY strings against the same (unchanging) properties, use a {@link MacroResolver} directly.</p>
 	 *  @param _verbose Whether you want deluge of debug-output onto System.out
 	 *  @param _s the string which CAN (not required to) contain macro expressions like ${ASUX::___}
 	 *  @param _propsSet can be null,  and otherwise an instance of LinkedHashMap&lt;String,Properties&gt; (representing multiple java.util.Properties objects)
 	 *  @return the original string as-is (if no macros were detected).. or the altered version
-	 *  @throws Macros.MacroException - thrown if any attempt to evaluate MACROs fails within eval() functions
+	 *  @throws Macros.MacroException - thrown if any attempt to evaluate MACROs fails (incl. cyclic definitions like a=${ASUX::b} and b=${ASUX::a}, or a result longer than {@link #MAX_EXPANSION_LENGTH})
 	 */
 	public static String evalThoroughly( final boolean _verbose, final String _s, final LinkedHashMap<String,Properties> _propsSet )
 											throws Macros.MacroException
 	{
 		if (_s==null) return null;
 		if (_propsSet==null || _propsSet.size() <= 0) return _s;
+		if ( _propsSet instanceof PropertySets )
+			return ((PropertySets) _propsSet).evalThoroughly( _verbose, _s ); // results are cached, for as long as the properties do NOT change
+		return new MacroResolver( _verbose, _propsSet ).resolve( _s );
+	}
 
-        final String HDR = CLASSNAME +": evalThoroughly(verbose,_s="+ _s +",_propsSet): ";
-		String retStr = _s;
-		try {
-			// final Pattern macroPattern = Macros.getPattern( _verbose );
-			do {
-				final String prev = retStr; // guaranteed to be NotNull
-				assertTrue( prev != null );
-				if ( _verbose ) System.out.println( HDR + "starting iteration with "+ prev );
-
-				// first do a macro-eval using ALL the Properties objects withn _propsSet
-				for( String key: _propsSet.keySet() ) {
-					final Properties p = _propsSet.get(key);
-					final String newstr = eval( _verbose, retStr, p );
-					if ( newstr != null ) // this can happen if the _s is just the MACRO only.  Example:    ${ASUX::variable}
-						retStr = newstr;
-					// We can have multiple variables, for which values can be in different properties files
-				}
-				if ( _verbose ) System.out.println( HDR + " prev="+ prev +" --> retStr="+ retStr );
-
-				// Now, check whether we need to 'rinse+repeat' the "inner DO-WHILE-LOOP" above, until no further change happens
-				if ( prev.equals( retStr) ) {
-					// clearly..  if we do NOT quit this do-while loop, we'll be stuck in an infinite loop
-					return retStr; // !!!!!!!!!!!!!!! ATTENTION !!!!!!!!!!!!!!!!! method returns here
-				}
-				// Matcher matcher = macroPattern.matcher( retStr );
-				// if (  !   matcher.matches() ) { // WHETHER we still have ${ASUX::___} still left (perhaps nested expressions, so we need multiple passes)
-				// 	return retStr;
-				// } else {
-				// 	if ( _verbose ) System.out.println( HDR + " retStr="+ retStr +" still has a MACRO Pattern left in it." );
-				// 	if ( prev.equals( retStr) ) {
-				// 		// clearly.. the ${ASUX::__} still left WILL NEVER get resolved.
-				// 		// if we do NOT quit this do-while loop, we'll be stuck in an infinite loop
-				// 		return retStr; // !!!!!!!!!!!!!!! ATTENTION !!!!!!!!!!!!!!!!! method returns here
-				// 	}
-				// 	// else continue this do-while() loop
-				// 	if ( _verbose ) System.out.println( HDR + "ENDED iteration with "+ retStr );
-				// } // if matcher.matches()
-				if ( _verbose ) System.out.println( HDR + "ENDED iteration with "+ retStr );
-			} while (true);
-		} catch ( Exception e ) {
-			if ( _verbose ) e.printStackTrace(System.err);
-			final String s = "Exception when checking if '" + _s + "' matches pattern " + Macros.pattStr;
-			System.err.println( HDR + " Unexpected Internal ERROR: " + s +"\nException message: "+ e );
-			throw new MacroException( s );
+	/**
+	 *  Same as {@link #evalThoroughly(boolean, String, LinkedHashMap)} on {@link MacroTemplate#getSource()}, WITHOUT parsing that string again.  For strings that are evaluated over-n-over (like: the lines of a {@link CompiledScript}).
+	 *  @param _verbose Whether you want deluge of debug-output onto System.out
+	 *  @param _template NotNull
+	 *  @param _propsSet can be null,  and otherwise an instance of LinkedHashMap&lt;String,Properties&gt; (representing multiple java.util.Properties objects)
+	 *  @return the original string as-is (if no macros were detected).. or the altered version
+	 *  @throws Macros.MacroException - see {@link #evalThoroughly(boolean, String, LinkedHashMap)}
+	 */
+	public static String evalThoroughly( final boolean _verbose, final MacroTemplate _template, final LinkedHashMap<String,Properties> _propsSet )
+											throws Macros.MacroException
+	{
+		if (_propsSet==null || _propsSet.size() <= 0 || _template.getVariableCount() <= 0) return _template.getSource();
+		if ( _propsSet instanceof PropertySets )
+			return ((PropertySets) _propsSet).evalThoroughly( _verbose, _template ); // results are cached, for as long as the properties do NOT change
+		return new MacroResolver( _verbose, _propsSet ).resolve( _template );
+	}
+
+    //=======================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //=======================================================================
+
+	/**
+	 *  <p>Creates a 'frozen' copy of the properties, so that macros can be evaluated (even by multiple threads) against a consistent set of values, while the original continues to be modified.</p>
+	 *  <p>Only String-valued properties are copied (incl. those from 'defaults'), as that is all that eval() can see via java.util.Properties.getProperty().</p>
+	 *  @param _propsSet can be null
+	 *  @return null if _propsSet is null, else a NEW {@link PropertySets} (in the same order as _propsSet) with NEW Properties objects
+	 */
+	public static LinkedHashMap<String,Properties> snapshot( final LinkedHashMap<String,Properties> _propsSet )
+	{
+		if ( _propsSet == null ) return null;
+		final PropertySets retval = new PropertySets(); // frozen.  So, nothing is 'live' anymore.
+		for( String key: _propsSet.keySet() ) {
+			final Properties p = _propsSet.get(key);
+			final Properties copy = new Properties();
+			if ( p != null )
+				for( String name: p.stringPropertyNames() )
+					copy.setProperty( name, p.getProperty( name ) );
+			retval.put( key, copy );
 		}
-		// return retStr;
+		return retval;
 	}
 
     //=======================================================================
@@ -0,0 +1,255 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.ASUX.common;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>This class is the fast alternative to java.util.Scanner, for use by {@link ConfigFileLineReader} for '@file' inputs.<br>
+ *     It memory-maps the file ({@link FileChannel#map(FileChannel.MapMode, long, long)}) and splits it into lines directly on the mapped bytes (8 bytes at a time, see {@link MarkerScanner}) - No regex-tokenizer and No charset-decoding of lines that will be thrown away anyway.</p>
+ *  <p>A String is created ONLY via {@link #string()}, and only for lines that are Not trivially a comment or an empty-line ({@link #isTriviallySkippable()}) - and even that can be avoided for ASCII lines via {@link #copyAscii(char[])}.<br>
+ *     Lines that are pure 7-bit ASCII (the overwhelming majority) are copied as-is (No decoding).  Other lines are decoded using the same default Charset that java.util.Scanner uses.</p>
+ *  <p>This class is usable ONLY when {@link #isUsable(String)} is true (that is, the delimiter is one or more single ASCII characters, like the default EOLN on Unix or ';|\n'), else use java.util.Scanner.</p>
+ *  <p>The splitting into lines is IDENTICAL to what java.util.Scanner.next() does (incl. the quirk that a delimiter at the very beginning of the file is silently skipped, and that there is No empty line after a trailing delimiter), so that the original line #s reported in error-messages do Not change.</p>
+ */
+public class MappedFileLineSplitter implements java.io.Closeable {
+
+    public static final String CLASSNAME = MappedFileLineSplitter.class.getName();
+
+    /** Files larger than this are Not memory-mapped (a single MappedByteBuffer can Not exceed 2GB) */
+    public static final long MAX_MAPPABLE_SIZE = Integer.MAX_VALUE;
+
+    private static final String REGEXP_METACHARS = "\\^$.|?*+()[]{}";
+
+    private static final long[] EOLN_MARKERS = { MarkerScanner.broadcast( '\n' ), MarkerScanner.broadcast( '\r' ) };
+
+    //--------------------------------------------------------
+    private final FileChannel channel;
+    private final MappedByteBuffer buf;
+    private final int size;
+    private final boolean[] isDelimiter = new boolean[128];
+    private final long[] delimiterMarkers; // see MarkerScanner.broadcast()
+    private final Charset charset;
+
+    private int pos = 0;        // where the NEXT line begins
+    private int start = -1;     // where the current line begins (inclusive)
+    private int end = -1;       // where the current line ends (exclusive)
+    private boolean currentIsAscii = true;
+
+    private byte[] scratch = new byte[ 256 ]; // to avoid allocating for each line that needs to be decoded
+
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+
+    /** <p>The only constructor - public/private/protected</p>
+     *  @param _filePath the path to the file (WITHOUT the '@' prefix)
+     *  @param _delimiter the REGEXP that would have been passed to java.util.Scanner.useDelimiter().  Make sure {@link #isUsable(String)} is true for this.
+     *  @throws java.io.FileNotFoundException If the file does Not exist (same exception as java.io.FileInputStream)
+     *  @throws IOException any trouble memory-mapping the file
+     */
+    public MappedFileLineSplitter( final String _filePath, final String _delimiter ) throws java.io.FileNotFoundException, IOException
+    {
+        final String HDR = CLASSNAME +": constructor("+ _filePath +"): ";
+        final byte[] delims = MappedFileLineSplitter.parseDelimiter( _delimiter );
+        if ( delims == null )
+            throw new IllegalArgumentException( HDR +"delimiter '"+ _delimiter +"' is Not usable for memory-mapped files" );
+        this.delimiterMarkers = new long[ delims.length ];
+        for ( int ix = 0; ix < delims.length; ix ++ ) {
+            this.isDelimiter[ delims[ix] ] = true;
+            this.delimiterMarkers[ix] = MarkerScanner.broadcast( delims[ix] );
+        }
+
+        this.charset = Charset.defaultCharset(); // just like java.util.Scanner( InputStream )
+        this.channel = new FileInputStream( _filePath ).getChannel(); // FileInputStream, so that we get java.io.FileNotFoundException (Not java.nio.file.NoSuchFileException)
+        try {
+            final long sz = this.channel.size();
+            if ( sz > MAX_MAPPABLE_SIZE )
+                throw new IOException( HDR +"file is too large ("+ sz +" bytes) to be memory-mapped" );
+            this.size = (int) sz;
+            this.buf = this.channel.map( FileChannel.MapMode.READ_ONLY, 0, sz );
+        } catch( IOException e ) {
+            this.channel.close();
+            throw e;
+        }
+
+        // Quirk of java.util.Scanner: a delimiter at the very beginning of the input is silently skipped.
+        if ( this.size > 0 && this.isDelimiterByte( this.buf.get( 0 ) ) )
+            this.pos = 1;
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>Checks whether this class can replace java.util.Scanner, for the given delimiter and the JVM's default Charset.</p>
+     *  @param _delimiter the REGEXP that would have been passed to java.util.Scanner.useDelimiter()
+     *  @return true if the delimiter is one or more single ASCII characters separated by '|' (like ";|\n") AND the default Charset is ASCII-compatible
+     */
+    public static boolean isUsable( final String _delimiter ) {
+        final Charset cs = Charset.defaultCharset();
+        final boolean bAsciiCompatible = cs.equals( StandardCharsets.UTF_8 ) || cs.equals( StandardCharsets.US_ASCII ) || cs.equals( StandardCharsets.ISO_8859_1 );
+        return bAsciiCompatible && MappedFileLineSplitter.parseDelimiter( _delimiter ) != null;
+    }
+
+    /**
+     *  @param _delimiter a REGEXP like "\n" or ";|\n" or "\\n|;"
+     *  @return null if the REGEXP is anything more complicated than alternatives of single ASCII characters.  Else, those characters
+     */
+    private static byte[] parseDelimiter( final String _delimiter ) {
+        if ( _delimiter == null || _delimiter.length() <= 0 ) return null;
+        final String[] alternatives = _delimiter.split( "\\|", -1 );
+        final byte[] retval = new byte[ alternatives.length ];
+        for ( int ix = 0; ix < alternatives.length; ix ++ ) {
+            final String alt = alternatives[ix];
+            char c;
+            if ( alt.length() == 1 ) {
+                c = alt.charAt(0);
+                if ( REGEXP_METACHARS.indexOf( c ) >= 0 ) return null;
+            } else if ( alt.length() == 2 && alt.charAt(0) == '\\' ) {
+                switch( alt.charAt(1) ) {
+                    case 'n': c = '\n'; break;
+                    case 'r': c = '\r'; break;
+                    case 't': c = '\t'; break;
+                    case 'f': c = '\f'; break;
+                    default:
+                        c = alt.charAt(1);
+                        if ( REGEXP_METACHARS.indexOf( c ) < 0 ) return null; // things like \s \d \w
+                }
+            } else {
+                return null; // example: "\r\n" on Windows
+            }
+            if ( c >= 128 ) return null;
+            retval[ix] = (byte) c;
+        }
+        return retval;
+    }
+
+    private boolean isDelimiterByte( final byte _b ) {
+        return _b >= 0 && this.isDelimiter[ _b ];
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  Moves to the next line (whether it's a comment or empty or otherwise).
+     *  @return false, if there are No more lines
+     */
+    public boolean next() {
+        if ( this.pos >= this.size )
+            return false; // Quirk of java.util.Scanner: No empty line after a trailing delimiter.
+
+        this.start = this.pos;
+        int ix = MarkerScanner.indexOfAny( this.buf, this.pos, this.size, this.delimiterMarkers ); // 8 bytes at a time
+        if ( ix < 0 ) ix = this.size;
+        this.end = ix;
+        this.currentIsAscii = MarkerScanner.isAscii( this.buf, this.start, ix );
+        this.pos = ix + 1; // skip past the delimiter
+        return true;
+    }
+
+    /**
+     *  <p>Whether the current line will be discarded by {@link ConfigFileLineReader} no matter what (whether whitespace is to be trimmed/compressed or not), so there's No need to create a String for it.</p>
+     *  <p>This is true for lines that are empty/whitespace-only, or start with '#' or '//' (and, if the line has No EOLN-like characters within it, '--')</p>
+     *  @return true if the line can be skipped (false does Not mean the line will survive)
+     */
+    public boolean isTriviallySkippable() {
+        final int len = this.end - this.start;
+        if ( len <= 0 ) return true;
+        final byte b0 = this.buf.get( this.start );
+        if ( b0 == '#' ) return true;
+        if ( len >= 2 ) {
+            final byte b1 = this.buf.get( this.start + 1 );
+            if ( b0 == '/' && b1 == '/' ) return true;
+            if ( b0 == '-' && b1 == '-' && this.currentIsAscii ) {
+                // the REGEXP '^--.*' will fail to match, if there are EOLN-like characters within the line
+                return MarkerScanner.indexOfAny( this.buf, this.start + 2, this.end, EOLN_MARKERS ) < 0;
+            }
+        }
+        if (  !  this.currentIsAscii ) return false;
+        for ( int ix = this.start; ix < this.end; ix ++ ) {
+            switch( this.buf.get( ix ) ) {
+                case ' ': case '\t': case '\n': case 0x0B: case '\f': case '\r': continue; // same as REGEXP \s
+                default: return false;
+            }
+        }
+        return true; // whitespace-only line
+    }
+
+    /** @return the # of bytes in the current line (which is the # of chars, if {@link #isAscii()}) */
+    public int length() { return this.end - this.start; }
+
+    /** @return true if the current line is pure 7-bit ASCII (and hence can be copied using {@link #copyAscii(char[])}, without any decoding) */
+    public boolean isAscii() { return this.currentIsAscii; }
+
+    /**
+     *  Copies the current line (which must be {@link #isAscii()}) into the given array, starting at index 0.  No String is created.
+     *  @param _dst a NotNull array of length at least {@link #length()}
+     */
+    public void copyAscii( final char[] _dst ) {
+        for ( int ix = this.start, w = 0; ix < this.end; ix ++, w ++ )
+            _dst[ w ] = (char) this.buf.get( ix );
+    }
+
+    /**
+     *  @return the current line as a String (this is the ONLY place where a String is created)
+     */
+    public String string() {
+        final int len = this.end - this.start;
+        if ( len > this.scratch.length )
+            this.scratch = new byte[ Math.max( len, this.scratch.length * 2 ) ];
+        this.buf.get( this.start, this.scratch, 0, len );
+        if ( this.currentIsAscii )
+            return new String( this.scratch, 0, len, StandardCharsets.ISO_8859_1 ); // fast-path: No decoding for 7-bit ASCII
+        else
+            return new String( this.scratch, 0, len, this.charset );
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close(); // the MappedByteBuffer remains valid until it's garbage-collected.  That's how java.nio works.
+    }
+
+}
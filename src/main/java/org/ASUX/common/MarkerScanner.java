@@ -0,0 +1,126 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>Searches raw bytes (like a memory-mapped file, see {@link MappedFileLineSplitter}) for any of a few 7-bit ASCII 'marker' bytes, 8 bytes at a time.
+ *     Currently, it's used ONLY to find the delimiters and the EOLN chars (and to check whether a line is pure ASCII).  Comments ('#', '//', '--') are still detected by the lexer, on the decoded line.<br>
+ *     Each 8 bytes are read as a single long, and ALL 8 are compared against a marker in a handful of arithmetic operations (a.k.a. SWAR - SIMD Within A Register) - so, No branch per byte.</p>
+ *  <p>This is plain Java (No jdk.incubator.vector module, No --add-modules at compile-time or run-time), and the JIT is free to vectorize further.</p>
+ */
+public final class MarkerScanner {
+
+    public static final String CLASSNAME = MarkerScanner.class.getName();
+
+    private static final long LOW7  = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH1 = 0x8080808080808080L;
+    private static final long ONES  = 0x0101010101010101L;
+
+    private MarkerScanner() {}
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  @param _b a 7-bit ASCII char/byte
+     *  @return a long with all 8 bytes = _b.  Pass an array of these to {@link #indexOfAny(ByteBuffer, int, int, long[])}
+     */
+    public static long broadcast( final int _b ) {
+        return ONES * ( _b & 0xFF );
+    }
+
+    /**
+     *  @param _x 8 bytes
+     *  @return 0x80 for each byte of _x that is zero, and 0x00 for all other bytes.  Exact (unlike the more popular (x - 0x01..) &amp; ~x &amp; 0x80.. which has false-positives after the 1st zero-byte)
+     */
+    public static long zeroBytes( final long _x ) {
+        return ~( ( ( _x & LOW7 ) + LOW7 ) | _x | LOW7 );
+    }
+
+    //==============================================================================
+    /**
+     *  @param _buf NotNull.  Its position/limit/order are NOT altered (so, read-only and thread-safe, as long as No one else alters them either)
+     *  @param _from index (inclusive) within _buf
+     *  @param _to index (exclusive) within _buf
+     *  @param _markers NotNull.  Each element is the {@link #broadcast(int)} of a 7-bit ASCII byte
+     *  @return the index of the 1st byte within [_from, _to) that is any of the _markers, or -1
+     */
+    public static int indexOfAny( final ByteBuffer _buf, final int _from, final int _to, final long[] _markers )
+    {
+        final boolean bigEndian = _buf.order() == ByteOrder.BIG_ENDIAN;
+        int ix = _from;
+        for ( ; ix + 8 <= _to; ix += 8 ) {
+            final long x = _buf.getLong( ix );
+            long found = 0;
+            for ( long m: _markers )
+                found |= MarkerScanner.zeroBytes( x ^ m );
+            if ( found != 0 )
+                return ix + MarkerScanner.firstByte( found, bigEndian );
+        }
+        for ( ; ix < _to; ix ++ ) { // the last few bytes (fewer than 8)
+            final long b = broadcast( _buf.get( ix ) );
+            for ( long m: _markers )
+                if ( b == m ) return ix;
+        }
+        return -1;
+    }
+
+    /**
+     *  @param _buf NotNull.  Its position/limit/order are NOT altered
+     *  @param _from index (inclusive) within _buf
+     *  @param _to index (exclusive) within _buf
+     *  @return true if ALL bytes within [_from, _to) are 7-bit ASCII
+     */
+    public static boolean isAscii( final ByteBuffer _buf, final int _from, final int _to )
+    {
+        int ix = _from;
+        long high = 0;
+        for ( ; ix + 8 <= _to; ix += 8 )
+            high |= _buf.getLong( ix );
+        for ( ; ix < _to; ix ++ )
+            high |= _buf.get( ix ); // sign-extended, so a non-ASCII byte sets bit 63 as well
+        return ( high & HIGH1 ) == 0;
+    }
+
+    /** @return the index (0..7, in memory-order) of the 1st byte that has its high-bit set within _mask */
+    private static int firstByte( final long _mask, final boolean _bigEndian ) {
+        return ( _bigEndian ? Long.numberOfLeadingZeros( _mask ) : Long.numberOfTrailingZeros( _mask ) ) >>> 3;
+    }
+
+}
@@ -47,6 +47,7 @@ import static org.junit.Assert.*;
  *  <p>This class represents a bunch of tools, to help make it easy to work with the <em>Script</em> and <em>property</em> files + allowing those file to be very human-friendly w.r.t .comments, variable-substitutions, etc...</p>
  *  <p>This specific class exists solely to <b>automatically load</b> 'System.Environment' as one of the java.util.Properties object under the label="System.env"!</p>
  *  <p>That means you can have variable-substitions (a.k.a. Macro-variable evaluation) automatically work for ${ASUX::user.home} .. or other System.env entries!</p>
+ *  <p>To get the value from System.env ONLY (and not from any other Properties that happens to have the same name), use ${ASUX::System.env::user.home}.  See {@link Macros#lookup(String, java.util.Properties, String)}</p>
  *  <p><b>ATTENTION: (repeating from parent-class documentation) You must use the '<code>ASUX::</code>' prefix, or the variable-substition will Not happen</b>.<br>
  *     Why this special-prefix?  Simple reason!  This org.ASUX project demonstrates the need to create Config and Output files that have ${} expressions for <b>other</b> software to use.  A great example: The org.ASUX.AWS and subjects create Confile files containing ${} expressions for AWS CFN-SDK to further parse.</p>
  */
@@ -101,6 +102,8 @@ public class OSScriptFileScanner extends ScriptFileScanner {
         final Properties existing = _allProps.get( OSScriptFileScanner.SYSTEM_ENV );
         if ( existing == null )
             _allProps.put( OSScriptFileScanner.SYSTEM_ENV, System.getProperties() );
+        if ( _allProps instanceof PropertySets )
+            ((PropertySets) _allProps).markLive( OSScriptFileScanner.SYSTEM_ENV ); // anyone can modify System.getProperties() at any time.
         return _allProps;
     }
 
@@ -139,5 +142,28 @@ public class OSScriptFileScanner extends ScriptFileScanner {
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     //==============================================================================
 
+    // For unit-testing purposes only
+    public static void main(String[] args) {
+        final String HDR = CLASSNAME + ": main(): ";
+        try {
+            boolean verbose = false;
+            int ix = 0;
+            if ( "--verbose".equals(args[0]) ) {
+                ix ++;
+                verbose = true;
+            }
+            final OSScriptFileScanner o = new OSScriptFileScanner( verbose, OSScriptFileScanner.initProperties() );
+            o.useDelimiter( ";|"+System.lineSeparator() );
+            o.openFile( args[ix], true, true );
+            while (o.hasNextLine()) {
+                System.out.println();
+                System.out.println( o.nextLine() );
+            }
+		} catch (Exception e) {
+			e.printStackTrace(System.err); // main().  For Unit testing
+			System.err.println( HDR + "Unexpected Internal ERROR, while processing " + ((args==null || args.length<=0)?"[No CmdLine Args":args[0]) +"]" );
+			System.exit(91); // This is a serious failure. Shouldn't be happening.
+        }
+    }
 
 }
@@ -0,0 +1,212 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>Where the output of the '<code>echo</code>' prefix and the '<code>print</code>' command goes (see {@link ConfigFileScanner#setOutput(OutputSink)} and {@link CompiledScript.Executor#setOutput(OutputSink)}).</p>
+ *  <p>The default is {@link #SYSTEM_OUT}, which writes (and flushes) every line immediately - exactly like System.out.print() followed by System.out.flush().
+ *     For scripts that 'print' a lot, that's slow.  And scripts running concurrently will have their output interleaved, line by line.<br>
+ *     So, use one of the buffered sinks instead: {@link #buffered(Appendable, int)}, {@link #buffered(WritableByteChannel, Charset, int)} or {@link #callback(Consumer, int)}.
+ *     Output is then written ONLY when the buffer is full, or when {@link #flush()} is invoked - and always in whole 'echo'/'print' chunks.</p>
+ *  <p>All methods are thread-safe.</p>
+ */
+public abstract class OutputSink implements Flushable {
+
+    public static final String CLASSNAME = OutputSink.class.getName();
+
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    /** The default.  Writes straight thru to System.out (whatever System.out is, at the time of writing) and flushes it after every write. */
+    public static final OutputSink SYSTEM_OUT = new OutputSink() {
+        @Override
+        public void print( final String _s ) {
+            System.out.print( _s );
+            System.out.flush();
+        }
+        @Override
+        public void println( final String _s ) {
+            System.out.println( _s );
+            System.out.flush();
+        }
+        @Override
+        public void flush() {
+            System.out.flush();
+        }
+        @Override
+        public String toString() { return CLASSNAME +"[System.out]"; }
+    };
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  @param _s NotNull.  Written as-is (No end-of-line is added)
+     *  @throws IOException any trouble writing to the underlying destination
+     */
+    public abstract void print( final String _s ) throws IOException;
+
+    /**
+     *  @param _s NotNull.  Written, followed by an end-of-line (the same one as System.out.println() would use)
+     *  @throws IOException any trouble writing to the underlying destination
+     */
+    public void println( final String _s ) throws IOException {
+        this.print( _s + System.lineSeparator() );
+    }
+
+    /**
+     *  Writes out whatever is buffered (if anything), and then flushes the underlying destination (if it's java.io.Flushable).
+     *  @throws IOException any trouble writing to the underlying destination
+     */
+    @Override
+    public abstract void flush() throws IOException;
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  @param _out NotNull.  Example: System.out (a java.io.PrintStream), a java.io.Writer or a StringBuilder.  If it's java.io.Flushable, it's flushed by {@link #flush()}.
+     *  @param _bufferSize the # of characters to buffer, before writing to _out.  0 means No buffering.  Example: {@link #DEFAULT_BUFFER_SIZE}
+     *  @return a NotNull new sink
+     */
+    public static OutputSink buffered( final Appendable _out, final int _bufferSize ) {
+        Objects.requireNonNull( _out, CLASSNAME +": buffered(): Appendable" );
+        return new Buffered( _bufferSize, _out.getClass().getName() ) {
+            @Override
+            protected void write( final CharSequence _chars ) throws IOException {
+                _out.append( _chars );
+            }
+            @Override
+            protected void flushDestination() throws IOException {
+                if ( _out instanceof Flushable ) ( (Flushable) _out ).flush();
+            }
+        };
+    }
+
+    /**
+     *  @param _channel NotNull.  Example: a java.nio.channels.FileChannel, or Channels.newChannel( System.out )
+     *  @param _charset NotNull.  How to convert the characters into bytes
+     *  @param _bufferSize the # of characters to buffer, before writing to _channel.  0 means No buffering.  Example: {@link #DEFAULT_BUFFER_SIZE}
+     *  @return a NotNull new sink
+     */
+    public static OutputSink buffered( final WritableByteChannel _channel, final Charset _charset, final int _bufferSize ) {
+        Objects.requireNonNull( _channel, CLASSNAME +": buffered(): WritableByteChannel" );
+        Objects.requireNonNull( _charset, CLASSNAME +": buffered(): Charset" );
+        return new Buffered( _bufferSize, _channel.getClass().getName() ) {
+            @Override
+            protected void write( final CharSequence _chars ) throws IOException {
+                final ByteBuffer bytes = _charset.encode( CharBuffer.wrap( _chars ) );
+                while ( bytes.hasRemaining() )
+                    _channel.write( bytes );
+            }
+        };
+    }
+
+    /**
+     *  @param _callback NotNull.  Is passed the buffered output - whenever the buffer is full, and whenever {@link #flush()} is invoked (if there's anything buffered).
+     *  @param _bufferSize the # of characters to buffer, before invoking _callback.  0 means No buffering (that is, _callback is invoked for every 'echo' and 'print').
+     *  @return a NotNull new sink
+     */
+    public static OutputSink callback( final Consumer<String> _callback, final int _bufferSize ) {
+        Objects.requireNonNull( _callback, CLASSNAME +": callback(): Consumer" );
+        return new Buffered( _bufferSize, "callback" ) {
+            @Override
+            protected void write( final CharSequence _chars ) {
+                _callback.accept( _chars.toString() );
+            }
+        };
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** Buffers in memory, until the buffer is full or flush() is invoked.  Each print() is either completely within the buffer or completely written out, so the output is never split in the middle of an 'echo' or 'print'. */
+    private static abstract class Buffered extends OutputSink {
+        private final StringBuilder buffer;
+        private final int bufferSize;
+        private final String destination;
+
+        Buffered( final int _bufferSize, final String _destination ) {
+            if ( _bufferSize < 0 )
+                throw new IllegalArgumentException( CLASSNAME +": invalid buffer-size "+ _bufferSize );
+            this.bufferSize = _bufferSize;
+            this.buffer = new StringBuilder( Math.min( _bufferSize, DEFAULT_BUFFER_SIZE ) + 256 );
+            this.destination = _destination;
+        }
+
+        /** Writes _chars to the destination.  _chars must NOT be retained, as it's re-used */
+        protected abstract void write( final CharSequence _chars ) throws IOException;
+        protected void flushDestination() throws IOException {}
+
+        @Override
+        public synchronized void print( final String _s ) throws IOException {
+            this.buffer.append( _s );
+            if ( this.buffer.length() >= this.bufferSize )
+                this.drain();
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            this.drain();
+            this.flushDestination();
+        }
+
+        private void drain() throws IOException {
+            if ( this.buffer.length() <= 0 ) return;
+            try {
+                this.write( this.buffer );
+            } finally {
+                this.buffer.setLength( 0 ); // even if write() failed, so that the same output is Not written again (partially) on the next attempt
+            }
+        }
+
+        @Override
+        public synchronized String toString() {
+            return CLASSNAME +"["+ this.destination +", buffered "+ this.buffer.length() +"/"+ this.bufferSize +" chars]";
+        }
+    }
+
+}
@@ -0,0 +1,267 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>This class is a process-wide cache of files that have already been read and lexed by {@link ConfigFileScanner#openFile(Object, boolean, boolean)} (that is, the resulting {@link LineTable}s).
+ *     So, a file that is 'include'd from 500 places (or a properties-file that is loaded over-n-over) is read and lexed just ONCE.</p>
+ *  <p>Entries are keyed by the file's canonical-path, its last-modified timestamp (at the full resolution that the file-system offers), its size and its file-key (example: the inode), and the trim/compress/delimiter settings used to lex it.
+ *     So, a file that is modified (or replaced) gets re-read automatically.<br>
+ *     But, a file that is rewritten with the SAME size, within the same tick of the file-system's clock (which can be a few milliseconds, even if timestamps have nano-second resolution), will NOT be re-read.</p>
+ *  <p>Hence, {@link #SHARED} is OPT-IN: its byte-budget is 0 (that is, disabled) unless set via the Java System-property {@value #MAXBYTES_PROPERTY} or {@link #setMaxBytes(long)}.
+ *     Enable it (example: <code>ParsedFileCache.SHARED.setMaxBytes( ParsedFileCache.DEFAULT_MAXBYTES )</code>) ONLY if the files are Not rewritten while your program runs.</p>
+ *  <p>The cache is LRU, bounded by a byte-budget (see {@link #setMaxBytes(long)}).  A budget of 0 disables caching.</p>
+ *  <p>All methods are thread-safe.  As {@link LineTable}s are immutable, they can be shared freely between scanners and threads.</p>
+ */
+public class ParsedFileCache {
+
+    public static final String CLASSNAME = ParsedFileCache.class.getName();
+
+    /** Name of the Java System-property, that can be used to set the byte-budget of {@link #SHARED} */
+    public static final String MAXBYTES_PROPERTY = "org.ASUX.common.ParsedFileCache.maxBytes";
+    /** A sensible byte-budget, for when enabling {@link #SHARED} */
+    public static final long DEFAULT_MAXBYTES = 64L * 1024 * 1024;
+
+    /** The process-wide instance, used by {@link ConfigFileScanner#openFile(Object, boolean, boolean)}.  Disabled, unless the Java System-property {@value #MAXBYTES_PROPERTY} is set (see class-comments for why) */
+    public static final ParsedFileCache SHARED = new ParsedFileCache( Long.getLong( MAXBYTES_PROPERTY, 0 ) );
+
+    //--------------------------------------------------------
+    private final LinkedHashMap<Key,LineTable> map = new LinkedHashMap<>( 64, 0.75f, true /* access-order, for LRU */ );
+    private long maxBytes;
+    private long bytes = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+
+    /** <p>The only constructor - public/private/protected</p>
+     *  @param _maxBytes the byte-budget.  0 (or negative) disables caching.
+     */
+    public ParsedFileCache( final long _maxBytes ) {
+        this.maxBytes = Math.max( 0, _maxBytes );
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  @param _file the file (need Not be canonical)
+     *  @param _ok2TrimWhiteSpace see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}
+     *  @param _bCompressWhiteSpace see {@link ConfigFileScanner#openFile(Object, boolean, boolean)}
+     *  @param _delimiter see {@link ConfigFileScanner#useDelimiter(String)}
+     *  @return null if the file does Not exist (or its canonical path can Not be determined).  Else, the key to use with {@link #get(Key)} and {@link #put(Key, LineTable)}
+     */
+    public static Key keyFor( final File _file, final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace, final String _delimiter ) {
+        if (  !  _file.isFile() ) return null;
+        try {
+            final File canonical = _file.getCanonicalFile();
+            // Not File.lastModified(), which is truncated to milli-seconds
+            final BasicFileAttributes attrs = Files.readAttributes( canonical.toPath(), BasicFileAttributes.class );
+            return new Key( canonical.getPath(), attrs.lastModifiedTime(), attrs.size(), attrs.fileKey(), _ok2TrimWhiteSpace, _bCompressWhiteSpace, _delimiter );
+        } catch( java.io.IOException | SecurityException e ) {
+            return null; // file will simply Not be cached
+        }
+    }
+
+    /**
+     *  @param _key can be null (in which case, null is returned)
+     *  @return the cached {@link LineTable} or null
+     */
+    public synchronized LineTable get( final Key _key ) {
+        if ( _key == null || this.maxBytes <= 0 ) return null;
+        final LineTable retval = this.map.get( _key );
+        if ( retval != null ) this.hits ++; else this.misses ++;
+        return retval;
+    }
+
+    /**
+     *  Adds to the cache, evicting the least-recently-used entries as needed to stay within the byte-budget.  A LineTable larger than the entire budget is Not cached at all.
+     *  @param _key can be null (in which case, nothing is done)
+     *  @param _lines NotNull
+     */
+    public synchronized void put( final Key _key, final LineTable _lines ) {
+        if ( _key == null || this.maxBytes <= 0 ) return;
+        final long sz = _lines.estimatedBytes();
+        if ( sz > this.maxBytes ) return;
+        final LineTable prev = this.map.put( _key, _lines );
+        if ( prev != null ) this.bytes -= prev.estimatedBytes();
+        this.bytes += sz;
+        this.evictToFit( this.maxBytes );
+    }
+
+    /** Empties the cache (the hit/miss/eviction counters are Not reset) */
+    public synchronized void clear() {
+        this.map.clear();
+        this.bytes = 0;
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** @return the byte-budget (0 means caching is disabled) */
+    public synchronized long getMaxBytes() { return this.maxBytes; }
+
+    /**
+     *  Changes the byte-budget, evicting entries immediately if needed.
+     *  @param _maxBytes 0 (or negative) disables caching (and empties the cache)
+     */
+    public synchronized void setMaxBytes( final long _maxBytes ) {
+        this.maxBytes = Math.max( 0, _maxBytes );
+        this.evictToFit( this.maxBytes );
+    }
+
+    /** @return (estimated) # of bytes held by the cache currently */
+    public synchronized long getBytes() { return this.bytes; }
+    /** @return # of files cached currently */
+    public synchronized int size() { return this.map.size(); }
+    /** @return # of lookups that found a cached entry */
+    public synchronized long getHits() { return this.hits; }
+    /** @return # of lookups that did NOT find a cached entry */
+    public synchronized long getMisses() { return this.misses; }
+    /** @return # of entries evicted to stay within the byte-budget */
+    public synchronized long getEvictions() { return this.evictions; }
+
+    @Override
+    public synchronized String toString() {
+        return CLASSNAME +": "+ this.map.size() +" files, "+ this.bytes +"/"+ this.maxBytes +" bytes, hits="+ this.hits +" misses="+ this.misses +" evictions="+ this.evictions;
+    }
+
+    //===========================================================================
+    private void evictToFit( final long _budget ) {
+        final java.util.Iterator< Map.Entry<Key,LineTable> > iter = this.map.entrySet().iterator();
+        while ( this.bytes > _budget && iter.hasNext() ) {
+            final Map.Entry<Key,LineTable> eldest = iter.next();
+            this.bytes -= eldest.getValue().estimatedBytes();
+            iter.remove();
+            this.evictions ++;
+        }
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** Immutable key for the cache.  Use {@link ParsedFileCache#keyFor(File, boolean, boolean, String)} to create one. */
+    public static final class Key {
+        private final String canonicalPath;
+        private final FileTime lastModified;
+        private final long size;
+        /** See java.nio.file.attribute.BasicFileAttributes#fileKey().  Can be null. */
+        private final Object fileKey;
+        private final boolean ok2TrimWhiteSpace;
+        private final boolean bCompressWhiteSpace;
+        private final String delimiter;
+
+        private Key( final String _canonicalPath, final FileTime _lastModified, final long _size, final Object _fileKey, final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace, final String _delimiter ) {
+            this.canonicalPath = _canonicalPath;
+            this.lastModified = _lastModified;
+            this.size = _size;
+            this.fileKey = _fileKey;
+            this.ok2TrimWhiteSpace = _ok2TrimWhiteSpace;
+            this.bCompressWhiteSpace = _bCompressWhiteSpace;
+            this.delimiter = _delimiter;
+        }
+
+        public String getCanonicalPath() { return this.canonicalPath; }
+
+        @Override
+        public boolean equals( final Object _o ) {
+            if ( this == _o ) return true;
+            if (  !  ( _o instanceof Key ) ) return false;
+            final Key k = (Key) _o;
+            return this.size == k.size && this.ok2TrimWhiteSpace == k.ok2TrimWhiteSpace && this.bCompressWhiteSpace == k.bCompressWhiteSpace
+                    && this.lastModified.equals( k.lastModified ) && this.canonicalPath.equals( k.canonicalPath ) && Objects.equals( this.fileKey, k.fileKey ) && Objects.equals( this.delimiter, k.delimiter );
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash( this.canonicalPath, this.lastModified, this.size, this.fileKey, this.ok2TrimWhiteSpace, this.bCompressWhiteSpace, this.delimiter );
+        }
+
+        @Override
+        public String toString() {
+            return this.canonicalPath +"@"+ this.lastModified +"/"+ this.size +" trim="+ this.ok2TrimWhiteSpace +" compress="+ this.bCompressWhiteSpace;
+        }
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>For unit-testing purposes only.  Copies each of the files (passed as args) in turn, over the SAME temporary file - and opens that temporary file after each copy.
+     *     So, if {@link #SHARED} is enabled (see {@link #MAXBYTES_PROPERTY}), every openFile() after the 1st one MUST see the file's new contents, and NOT whatever was cached.</p>
+     *  @param args [--verbose] file1 file2 ..
+     */
+    public static void main(String[] args) {
+        final String HDR = CLASSNAME + ": main(): ";
+        try {
+            boolean verbose = false;
+            int ix = 0;
+            if ( "--verbose".equals(args[0]) ) {
+                ix ++;
+                verbose = true;
+            }
+            final File tmpFile = File.createTempFile( "ParsedFileCache-", ".txt" );
+            tmpFile.deleteOnExit();
+            for ( ; ix < args.length; ix ++ ) {
+                Files.copy( new File( args[ix] ).toPath(), tmpFile.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING ); // a rewrite: same file, new contents (and, typically the same size)
+                final ConfigFileScannerL3 o = new ConfigFileScannerL3( verbose, ScriptFileScanner.initProperties() );
+                o.openFile( "@"+ tmpFile.getPath(), true, true );
+                System.out.println( "after copying "+ args[ix] +":" );
+                while (o.hasNextLine())
+                    System.out.println( o.nextLine() );
+            }
+            if ( verbose ) System.out.println( HDR +"cache = "+ SHARED );
+		} catch (Exception e) {
+			e.printStackTrace(System.err); // main().  For Unit testing
+			System.err.println( HDR + "Unexpected Internal ERROR, while processing " + ((args==null || args.length<=0)?"[No CmdLine Args":args[0]) +"]" );
+			System.exit(91); // This is a serious failure. Shouldn't be happening.
+        }
+    }
+
+}
@@ -0,0 +1,280 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>This class reads/writes a PRE-COMPILED version of a Script/Config/Properties file - that is, the lines (and their original line#s) that survive the removal of comments and whitespace, as a {@link LineTable}.
+ *     Loading it requires NO lexing at all - just a memory-mapped copy of arrays.  So, short-lived command-line invocations start up faster.</p>
+ *  <p>The (versioned, big-endian) binary format is:</p>
+ *  <pre>
+ *    int     MAGIC ('ASUX')
+ *    short   VERSION
+ *    byte    flags (bit 0: ok2TrimWhiteSpace, bit 1: bCompressWhiteSpace)
+ *    int+[]  delimiter (UTF-8, length-prefixed)
+ *    int+[]  canonical path of the source file (UTF-8, length-prefixed)
+ *    long    size of the source file (when it was lexed)
+ *    long    last-modified time of the source file, in nano-seconds (when it was lexed)
+ *    long    CRC32 checksum of the source file
+ *    ...     the LineTable: lineCount, charCount, int[lineCount+1] offsets, int[lineCount] original line#s, char[charCount] (UTF-16)
+ *  </pre>
+ *  <p>When loading, if the source file has changed since (size, last-modified time or checksum differ - the checksum is computed only if size and last-modified time match), or if the file was compiled with different trim/compress/delimiter settings, the pre-compiled file is ignored (see {@link ConfigFileScanner#openPrecompiled(String, boolean, boolean)}, which then falls back to the source file).</p>
+ *  <p>To compile from the command-line: <code>java org.ASUX.common.PrecompiledFile sourceFile compiledFile [--no-trim] [--no-compress]</code></p>
+ */
+public class PrecompiledFile {
+
+    public static final String CLASSNAME = PrecompiledFile.class.getName();
+
+    public static final int MAGIC = 0x41535558; // 'ASUX'
+    public static final short VERSION = 2;
+
+    private static final int FLAG_TRIM = 1;
+    private static final int FLAG_COMPRESS = 2;
+
+    //--------------------------------------------------------
+    /** canonical path of the source file, as recorded within the pre-compiled file */
+    public final String sourcePath;
+    public final boolean ok2TrimWhiteSpace;
+    public final boolean bCompressWhiteSpace;
+    public final String delimiter;
+    /** size and last-modified time of the source file, when it was lexed */
+    public final SourceStamp sourceStamp;
+    /** null, if the source file has changed since it was compiled */
+    public final LineTable lines;
+
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+
+    private PrecompiledFile( final String _sourcePath, final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace, final String _delimiter, final SourceStamp _sourceStamp, final LineTable _lines ) {
+        this.sourcePath = _sourcePath;
+        this.ok2TrimWhiteSpace = _ok2TrimWhiteSpace;
+        this.bCompressWhiteSpace = _bCompressWhiteSpace;
+        this.delimiter = _delimiter;
+        this.sourceStamp = _sourceStamp;
+        this.lines = _lines;
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>The size and last-modified time (to the nano-second, where the file-system supports it) of a source file.</p>
+     *  <p>{@link ConfigFileScanner#openFile(Object, boolean, boolean)} captures this BEFORE it reads the file.  So, if the file is modified while (or after) being read, the stamp will Not match the file anymore.</p>
+     */
+    public static final class SourceStamp implements java.io.Serializable {
+        private static final long serialVersionUID = 1L;
+        public final long size;
+        public final long lastModifiedNanos;
+
+        public SourceStamp( final long _size, final long _lastModifiedNanos ) {
+            this.size = _size;
+            this.lastModifiedNanos = _lastModifiedNanos;
+        }
+
+        /**
+         *  @param _file can be anything
+         *  @return null, if _file is Not a (readable) file
+         */
+        public static SourceStamp of( final File _file ) {
+            try {
+                // Not File.lastModified(), which is truncated to milli-seconds
+                final BasicFileAttributes attrs = Files.readAttributes( _file.toPath(), BasicFileAttributes.class );
+                if (  !  attrs.isRegularFile() ) return null;
+                return new SourceStamp( attrs.size(), attrs.lastModifiedTime().to( TimeUnit.NANOSECONDS ) );
+            } catch( java.io.IOException | SecurityException | java.nio.file.InvalidPathException e ) {
+                return null;
+            }
+        }
+
+        /**
+         *  @param _file can be anything
+         *  @return true if _file currently has the same size and last-modified time
+         */
+        public boolean matches( final File _file ) {
+            final SourceStamp now = SourceStamp.of( _file );
+            return now != null && now.size == this.size && now.lastModifiedNanos == this.lastModifiedNanos;
+        }
+
+        @Override
+        public String toString() { return "size="+ this.size +",lastModified(ns)="+ this.lastModifiedNanos; }
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>Writes the pre-compiled file.  The file is written to a temporary file first and then renamed, so that concurrent readers never see a partially written file.</p>
+     *  <p>_sourceStamp is what gets recorded (Not the size/last-modified time of the source file as of NOW).  If the source file no longer matches it, nothing is written.</p>
+     *  @param _compiledFile where to write to
+     *  @param _sourceFile the file that was lexed to produce _lines
+     *  @param _sourceStamp NotNull. The {@link SourceStamp} of _sourceFile, captured BEFORE it was lexed to produce _lines
+     *  @param _ok2TrimWhiteSpace the setting used to produce _lines
+     *  @param _bCompressWhiteSpace the setting used to produce _lines
+     *  @param _delimiter the setting used to produce _lines
+     *  @param _lines NotNull
+     *  @throws IOException if the source file has changed since _sourceStamp, or any trouble reading the source file or writing the pre-compiled file
+     */
+    public static void write( final String _compiledFile, final String _sourceFile, final SourceStamp _sourceStamp, final boolean _ok2TrimWhiteSpace, final boolean _bCompressWhiteSpace,
+                            final String _delimiter, final LineTable _lines ) throws IOException
+    {
+        final File src = new File( _sourceFile ).getCanonicalFile();
+        // the checksum below is of the file as of NOW.  It is ONLY valid for _lines, if the file has Not changed since it was lexed.
+        if (  !  _sourceStamp.matches( src ) )
+            throw new IOException( CLASSNAME +": write(): the source file has changed since it was read ("+ _sourceStamp +").  So, NOT pre-compiling: "+ _sourceFile );
+        final byte[] delimBytes = _delimiter.getBytes( StandardCharsets.UTF_8 );
+        final byte[] pathBytes = src.getPath().getBytes( StandardCharsets.UTF_8 );
+
+        final long total = 4 + 2 + 1 + 4 + delimBytes.length + 4 + pathBytes.length + 8 + 8 + 8 + _lines.binarySize();
+        if ( total > Integer.MAX_VALUE )
+            throw new IOException( CLASSNAME +": write(): too large to pre-compile: "+ _sourceFile );
+        final ByteBuffer buf = ByteBuffer.allocate( (int) total );
+        buf.putInt( MAGIC );
+        buf.putShort( VERSION );
+        buf.put( (byte) ( ( _ok2TrimWhiteSpace ? FLAG_TRIM : 0 ) | ( _bCompressWhiteSpace ? FLAG_COMPRESS : 0 ) ) );
+        buf.putInt( delimBytes.length ).put( delimBytes );
+        buf.putInt( pathBytes.length ).put( pathBytes );
+        buf.putLong( _sourceStamp.size );
+        buf.putLong( _sourceStamp.lastModifiedNanos );
+        buf.putLong( PrecompiledFile.checksum( src ) );
+        _lines.writeTo( buf );
+        buf.flip();
+
+        final File out = new File( _compiledFile ).getAbsoluteFile();
+        final File tmp = File.createTempFile( out.getName(), ".tmp", out.getParentFile() );
+        try {
+            try ( FileChannel ch = FileChannel.open( tmp.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING ) ) {
+                while ( buf.hasRemaining() ) ch.write( buf );
+            }
+            Files.move( tmp.toPath(), out.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        } finally {
+            tmp.delete(); // no-op, if already renamed
+        }
+    }
+
+    /**
+     *  Reads the pre-compiled file (via memory-mapping).  NO lexing is done.
+     *  @param _compiledFile the file written by {@link #write(String, String, SourceStamp, boolean, boolean, String, LineTable)}
+     *  @return NotNull.  Its {@link #lines} will be null, if the source file has changed (or is missing) since it was compiled.
+     *  @throws java.io.FileNotFoundException if _compiledFile does Not exist
+     *  @throws IOException if _compiledFile is Not a valid pre-compiled file (or it's of a different version)
+     */
+    public static PrecompiledFile read( final String _compiledFile ) throws java.io.FileNotFoundException, IOException
+    {   final String HDR = CLASSNAME +": read("+ _compiledFile +"): ";
+        try ( FileChannel ch = new java.io.FileInputStream( _compiledFile ).getChannel() ) {
+            final ByteBuffer buf = ch.map( FileChannel.MapMode.READ_ONLY, 0, ch.size() );
+            try {
+                if ( buf.getInt() != MAGIC )
+                    throw new IOException( HDR +"Not a pre-compiled file" );
+                final short version = buf.getShort();
+                if ( version != VERSION )
+                    throw new IOException( HDR +"unsupported version "+ version +" (expected "+ VERSION +")" );
+                final int flags = buf.get();
+                final String delimiter = PrecompiledFile.getString( buf );
+                final String sourcePath = PrecompiledFile.getString( buf );
+                final SourceStamp stamp = new SourceStamp( buf.getLong(), buf.getLong() );
+                final long srcChecksum = buf.getLong();
+
+                final File src = new File( sourcePath );
+                // the (cheap) size and last-modified time first.  The source file is read in full (for its checksum) ONLY if they match.
+                final boolean bSourceUnchanged = stamp.matches( src ) && PrecompiledFile.checksum( src ) == srcChecksum;
+                final LineTable lines = bSourceUnchanged ? LineTable.readFrom( buf ) : null;
+                return new PrecompiledFile( sourcePath, ( flags & FLAG_TRIM ) != 0, ( flags & FLAG_COMPRESS ) != 0, delimiter, stamp, lines );
+            } catch ( java.nio.BufferUnderflowException e ) {
+                throw new IOException( HDR +"truncated file", e );
+            }
+        }
+    }
+
+    //===========================================================================
+    private static String getString( final ByteBuffer _buf ) throws IOException {
+        final int len = _buf.getInt();
+        if ( len < 0 || len > _buf.remaining() )
+            throw new IOException( CLASSNAME +": corrupted file (string-length "+ len +")" );
+        final byte[] b = new byte[ len ];
+        _buf.get( b );
+        return new String( b, StandardCharsets.UTF_8 );
+    }
+
+    /** @return CRC32 of the entire contents of the file (read via memory-mapping) */
+    private static long checksum( final File _file ) throws IOException {
+        final java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+        try ( FileChannel ch = new java.io.FileInputStream( _file ).getChannel() ) {
+            final long sz = ch.size();
+            for ( long pos = 0; pos < sz; pos += Integer.MAX_VALUE ) {
+                crc.update( ch.map( FileChannel.MapMode.READ_ONLY, pos, Math.min( Integer.MAX_VALUE, sz - pos ) ) );
+            }
+        }
+        return crc.getValue();
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+    // The 'compile step' - for use from the command-line or build-scripts
+    public static void main( String[] args ) {
+        if ( args.length < 2 ) {
+            System.err.println( "Usage: java "+ CLASSNAME +" sourceFile compiledFile [--no-trim] [--no-compress]" );
+            System.exit(1);
+        }
+        boolean trim = true, compress = true;
+        for ( int ix = 2; ix < args.length; ix ++ ) {
+            if ( "--no-trim".equals( args[ix] ) ) trim = false;
+            if ( "--no-compress".equals( args[ix] ) ) compress = false;
+        }
+        try {
+            final ConfigFileScanner scanner = new ConfigFileScannerL2( false );
+            if (  !  scanner.openFile( "@"+ args[0], trim, compress ) )
+                throw new Exception( "Unable to read "+ args[0] );
+            scanner.saveCompiled( args[1] );
+            System.out.println( CLASSNAME +": compiled "+ args[0] +" ("+ scanner.getCommandCount() +" lines) into "+ args[1] );
+        } catch (Exception e) {
+            e.printStackTrace(System.err); // main().  For Unit testing
+            System.err.println( CLASSNAME + ": main(): Unable to pre-compile "+ args[0] );
+            System.exit(91); // This is a serious failure.
+        }
+    }
+
+}
@@ -64,8 +64,9 @@ import static org.junit.Assert.*;
  * Well, 'echo' is more PRIMITIVE. It shows the command __TO BE__ executed, after ALL MACRO-Replacements. In that sense, this combination of 'echo' and
  * 'print' is MORE SOPHISTICATED and MORE CAPABLE that 'echo' in BASH, /bin/sh, /bin/tcsh</p>
  * <p>In addition, this class offers the ability to evaluate expressions JUST LIKE a Bash or /bin/sh or /bin/tcsh does - if you provide a java.util.Properties instance as constructor-argument.</p>
+ * <p>Being a {@link VersionedProperties}, every load() bumps its version.  So, any Macro-evaluation results cached (see {@link PropertySets}) are NOT reused.</p>
  */
-public class PropertiesFileScanner extends Properties  {
+public class PropertiesFileScanner extends VersionedProperties  {
 
     private static final long serialVersionUID = 112L;
     public static final String CLASSNAME = PropertiesFileScanner.class.getName();
@@ -0,0 +1,567 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>A drop-in replacement for the LinkedHashMap&lt;String,Properties&gt; (a.k.a. propsSetRef) that is passed around by ScriptFileScanner, ConfigFileScannerL2/L3 and {@link Macros}.</p>
+ *  <p>Each lookup of a ${ASUX::___} variable has to walk ALL the Properties (in insertion order).  And java.util.Properties is a synchronized Hashtable, so multiple threads evaluating macros contend on its monitor.<br>
+ *     This class maintains a flattened, immutable index (variable-name -&gt; which of the Properties have it, and their values), that is read WITHOUT any locks.
+ *     The index is (re)built lazily, and rebuilt incrementally (just for the Properties that changed).</p>
+ *  <p>There's also a {@link #getVersion()} for the entire set, that increases whenever anything changes.  It's what lets {@link #evalThoroughly(boolean, String)} cache the results of Macro-evaluation.</p>
+ *  <p>Adding/removing a Properties to this map is automatically detected.  So are all changes to the CONTENTS of a {@link VersionedProperties}.<br>
+ *     ONLY {@link VersionedProperties} are indexed.  A plain java.util.Properties can be modified by anyone at any time (like: <code>propsSet.get(label).setProperty(k,v)</code>) without this class knowing.
+ *     So, just like 'live' Properties (see {@link #markLive(String)}), it is NOT indexed, but always looked up directly - and results that depended on it are never cached.
+ *     For the full benefit of this class, put ONLY {@link VersionedProperties} into it (as ScriptFileScanner does).</p>
+ */
+public class PropertySets extends LinkedHashMap<String,Properties> {
+
+    private static final long serialVersionUID = 1L;
+    public static final String CLASSNAME = PropertySets.class.getName();
+
+    /** labels of the Properties that are NOT to be indexed */
+    private final HashSet<String> liveLabels = new HashSet<>();
+
+    /** null means: must be rebuilt, before it can be used */
+    private transient volatile Index index = null;
+
+    private transient Object lock = new Object();
+
+    /** Bumped for every change that is NOT reflected in a {@link VersionedProperties#getVersion()}: add/remove of a Properties, {@link #propertiesChanged(String)}, .. */
+    private transient volatile long structureVersion = VersionedProperties.tick();
+
+    /** Name of the Java System-property, that can be used to set the # of Macro-evaluation results cached (per instance) */
+    public static final String RESULTCACHESIZE_PROPERTY = "org.ASUX.common.PropertySets.resultCacheSize";
+    private static final int RESULTCACHESIZE = Integer.getInteger( RESULTCACHESIZE_PROPERTY, 4096 );
+
+    /** key = string (before macro-evaluation).  See {@link #evalThoroughly(boolean, String)} */
+    private transient ConcurrentHashMap<String,Evaluation> results = new ConcurrentHashMap<>();
+
+    /** The result of a Macro-evaluation, and whether it can be re-used (for as long as {@link #getVersion()} is unchanged) */
+    static final class Evaluation {
+        final long version;
+        final String result;
+        final boolean cacheable;
+        Evaluation( final long _version, final String _result, final boolean _cacheable ) { this.version = _version; this.result = _result; this.cacheable = _cacheable; }
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    public PropertySets() {
+        super();
+    }
+
+    /** @param _orig copies all the Properties (by reference, just like LinkedHashMap's constructor) in the same order.  If _orig is a PropertySets, the 'live' labels are copied as well. */
+    public PropertySets( final Map<String,Properties> _orig ) {
+        super( _orig );
+        if ( _orig instanceof PropertySets )
+            this.liveLabels.addAll( ((PropertySets) _orig).liveLabels );
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>Mark the Properties labelled _label, as one that can be modified at any time, even if it's a {@link VersionedProperties}.  It will be looked up directly, every time.</p>
+     *  <p>System.getProperties() - and every plain java.util.Properties - is always considered 'live', no matter what label it is stored under.</p>
+     *  @param _label NotNull
+     */
+    public void markLive( final String _label ) {
+        synchronized( this.lock ) {
+            this.liveLabels.add( _label );
+            this.invalidate();
+        }
+    }
+
+    /**
+     *  <p>NOT required (changes to a {@link VersionedProperties} are detected automatically, and a plain java.util.Properties is never indexed).  Harmless to invoke, as older code does, after modifying the contents of one of the Properties within this map.</p>
+     *  <p>Only the variables within that Properties are re-indexed.</p>
+     *  @param _label the label (key within this map) of the Properties that was modified
+     */
+    public void propertiesChanged( final String _label ) {
+        synchronized( this.lock ) {
+            final Index old = this.index;
+            if ( old == null ) { this.invalidate(); return; } // will be rebuilt fully, when needed.
+            final int pos = Arrays.asList( old.labels ).indexOf( _label );
+            if ( pos < 0 || old.sets[pos] != super.get( _label ) ) {
+                this.invalidate(); // the Properties (under this label) was replaced.  So, rebuild fully.
+                return;
+            }
+            if ( old.live[pos] ) return; // never indexed.
+            this.index = old.reindex( pos );
+            this.structureVersion = VersionedProperties.tick(); // ATTENTION: AFTER the index is up-to-date
+        }
+    }
+
+    /**
+     *  A convenience, so that code that works with a plain LinkedHashMap&lt;String,Properties&gt; need not check whether it's a PropertySets.
+     *  @param _propsSet can be null
+     *  @param _label the label (key within _propsSet) of the Properties that was modified
+     */
+    public static void propertiesChanged( final LinkedHashMap<String,Properties> _propsSet, final String _label ) {
+        if ( _propsSet instanceof PropertySets )
+            ((PropertySets) _propsSet).propertiesChanged( _label );
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  @param _name the name of the variable (that is, the ___ within ${ASUX::___})
+     *  @return the value from the 1st Properties (in insertion order) that has it, or null
+     */
+    public String getProperty( final String _name ) {
+        final Index ix = this.getIndex();
+        final int k = ix.find( _name, 0 );
+        return ( k < 0 ) ? null : ix.get( _name, k );
+    }
+
+    /**
+     *  @param _name the name of the variable (that is, the ___ within ${ASUX::___})
+     *  @param _from 0 &lt;= _from &lt;= size()
+     *  @return the position (in insertion order) of the 1st Properties, starting with the one @ _from, that has a value for _name.  Else -1.
+     */
+    int find( final String _name, final int _from ) {
+        return this.getIndex().find( _name, _from );
+    }
+
+    /**
+     *  @param _name the name of the variable (that is, the ___ within ${ASUX::___})
+     *  @param _pos as returned by {@link #find(String, int)}
+     *  @return the value of _name, within the Properties @ _pos (in insertion order)
+     */
+    String get( final String _name, final int _pos ) {
+        return this.getIndex().get( _name, _pos );
+    }
+
+    private Index getIndex() {
+        final Index ix = this.index; // volatile read.  No locks.
+        if ( ix != null && ix.labels.length == super.size() && ix.isCurrent() )
+            return ix;
+        synchronized( this.lock ) {
+            if ( this.index == null || this.index.labels.length != super.size() )
+                this.index = new Index( this );
+            for ( int pos = 0; pos < this.index.labels.length; pos ++ )
+                if ( this.index.isStale( pos ) )
+                    this.index = this.index.reindex( pos ); // Just the VersionedProperties that changed
+            return this.index;
+        }
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /**
+     *  <p>Changes to 'live' Properties (see {@link #markLive(String)} - incl. every plain java.util.Properties) are NOT reflected in this version.</p>
+     *  @return a number that is larger than before, every time anything within this set of Properties changes.
+     */
+    public long getVersion() {
+        final Index ix = this.getIndex();
+        long retval = this.structureVersion;
+        for ( int pos = 0; pos < ix.sets.length; pos ++ )
+            if (  !  ix.live[pos] && ix.sets[pos] instanceof VersionedProperties )
+                retval = Math.max( retval, ((VersionedProperties) ix.sets[pos]).getVersion() );
+        return retval;
+    }
+
+    /**
+     *  @param _label the label (key within this map) of a Properties
+     *  @return a number that is larger than before, every time the Properties under that label changes (if it's a {@link VersionedProperties}).  For a plain java.util.Properties (whose changes can NOT be detected), same as {@link #getVersion()}.
+     */
+    public long getVersion( final String _label ) {
+        final Properties p = super.get( _label );
+        return ( p instanceof VersionedProperties ) ? ((VersionedProperties) p).getVersion() : this.getVersion();
+    }
+
+    /**
+     *  <p>Same as {@link Macros#evalThoroughly(boolean, String, LinkedHashMap)}, but the results are cached (until {@link #getVersion()} changes).  So, the same string is NOT re-evaluated again-n-again.</p>
+     *  <p>Results that depended on a 'live' Properties (see {@link #markLive(String)}) are NOT cached, as they could change any time.</p>
+     *  @param _verbose Whether you want deluge of debug-output onto System.out
+     *  @param _s the string which CAN (not required to) contain macro expressions like ${ASUX::___}
+     *  @return the original string as-is (if no macros were detected).. or the altered version
+     *  @throws Macros.MacroException - thrown if any attempt to evaluate MACROs fails
+     */
+    public String evalThoroughly( final boolean _verbose, final String _s ) throws Macros.MacroException
+    {
+        if ( _s == null ) return null;
+        if (  !  MacroTemplate.mightHaveMacros( _s ) ) return _s;
+        return this.evaluate( _verbose, _s ).result;
+    }
+
+    /**
+     *  Same as {@link #evalThoroughly(boolean, String)} on {@link MacroTemplate#getSource()}.  See {@link MacroResolver#resolve(MacroTemplate)}.
+     *  @param _verbose Whether you want deluge of debug-output onto System.out
+     *  @param _template NotNull
+     *  @return the original string as-is (if no macros were detected).. or the altered version
+     *  @throws Macros.MacroException - thrown if any attempt to evaluate MACROs fails
+     */
+    public String evalThoroughly( final boolean _verbose, final MacroTemplate _template ) throws Macros.MacroException
+    {
+        if ( _template.getVariableCount() <= 0 ) return _template.getSource();
+        return this.evaluate( _verbose, _template.getSource(), _template ).result;
+    }
+
+    /**
+     *  See {@link #evalThoroughly(boolean, String)}.  For use by callers that want to cache the result themselves (like: ConfigFileScannerL3 for its current-line).
+     *  @param _s NotNull
+     *  @return NotNull
+     */
+    Evaluation evaluate( final boolean _verbose, final String _s ) throws Macros.MacroException
+    {
+        return this.evaluate( _verbose, _s, null );
+    }
+
+    /** @param _template null, or the template of _s */
+    private Evaluation evaluate( final boolean _verbose, final String _s, final MacroTemplate _template ) throws Macros.MacroException
+    {
+        final long version = this.getVersion(); // ATTENTION: BEFORE evaluating.  If something changes while evaluating, the result is cached with the older version (and will never be used).
+        if (  !  MacroTemplate.mightHaveMacros( _s ) )
+            return new Evaluation( version, _s, true );
+        final Evaluation cached = this.results.get( _s );
+        if ( cached != null && cached.version == version )
+            return cached;
+
+        final MacroResolver resolver = new MacroResolver( _verbose, this );
+        final Evaluation retval = new Evaluation( version, ( _template != null ) ? resolver.resolve( _template ) : resolver.resolve( _s ), ! resolver.consultedLiveProperties() );
+        if ( retval.cacheable ) {
+            if ( this.results.size() >= RESULTCACHESIZE ) this.results.clear(); // Most entries are for older versions anyway.
+            this.results.put( _s, retval );
+        }
+        return retval;
+    }
+
+    /**
+     *  @param _from 0 &lt;= _from &lt;= size()
+     *  @param _pos the position returned by {@link #find(String, int)}, or -1
+     *  @return true if {@link #find(String, int)} had to look at any 'live' Properties
+     */
+    boolean consultsLive( final int _from, final int _pos ) {
+        for ( int p: this.getIndex().livePositions )
+            if ( p >= _from && ( _pos < 0 || p <= _pos ) ) return true;
+        return false;
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    // Every structural change to this map invalidates the index.
+    // Note: removing via keySet()/values()/entrySet() is caught only if the size changes.  Invoke propertiesChanged(label) otherwise.
+
+    private void invalidate() {
+        this.index = null;
+        this.structureVersion = VersionedProperties.tick();
+    }
+
+    @Override
+    public Properties put( final String _label, final Properties _props ) {
+        try { return super.put( _label, _props ); } finally { this.invalidate(); }
+    }
+
+    @Override
+    public void putAll( final Map<? extends String, ? extends Properties> _m ) {
+        try { super.putAll( _m ); } finally { this.invalidate(); }
+    }
+
+    @Override
+    public Properties putIfAbsent( final String _label, final Properties _props ) {
+        try { return super.putIfAbsent( _label, _props ); } finally { this.invalidate(); }
+    }
+
+    @Override
+    public Properties remove( final Object _label ) {
+        try { return super.remove( _label ); } finally { this.invalidate(); }
+    }
+
+    @Override
+    public boolean remove( final Object _label, final Object _props ) {
+        try { return super.remove( _label, _props ); } finally { this.invalidate(); }
+    }
+
+    @Override
+    public Properties replace( final String _label, final Properties _props ) {
+        try { return super.replace( _label, _props ); } finally { this.invalidate(); }
+    }
+
+    @Override
+    public boolean replace( final String _label, final Properties _old, final Properties _props ) {
+        try { return super.replace( _label, _old, _props ); } finally { this.invalidate(); }
+    }
+
+    @Override
+    public void replaceAll( final BiFunction<? super String, ? super Properties, ? extends Properties> _func ) {
+        try { super.replaceAll( _func ); } finally { this.invalidate(); }
+    }
+
+    @Override
+    public Properties computeIfAbsent( final String _label, final Function<? super String, ? extends Properties> _func ) {
+        try { return super.computeIfAbsent( _label, _func ); } finally { this.invalidate(); }
+    }
+
+    @Override
+    public Properties computeIfPresent( final String _label, final BiFunction<? super String, ? super Properties, ? extends Properties> _func ) {
+        try { return super.computeIfPresent( _label, _func ); } finally { this.invalidate(); }
+    }
+
+    @Override
+    public Properties compute( final String _label, final BiFunction<? super String, ? super Properties, ? extends Properties> _func ) {
+        try { return super.compute( _label, _func ); } finally { this.invalidate(); }
+    }
+
+    @Override
+    public Properties merge( final String _label, final Properties _props, final BiFunction<? super Properties, ? super Properties, ? extends Properties> _func ) {
+        try { return super.merge( _label, _props, _func ); } finally { this.invalidate(); }
+    }
+
+    @Override
+    public void clear() {
+        try { super.clear(); } finally { this.invalidate(); }
+    }
+
+    @Override
+    public PropertySets clone() {
+        return new PropertySets( this );
+    }
+
+    private void readObject( final java.io.ObjectInputStream _in ) throws java.io.IOException, ClassNotFoundException {
+        _in.defaultReadObject();
+        this.lock = new Object();
+        this.structureVersion = VersionedProperties.tick();
+        this.results = new ConcurrentHashMap<>();
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** Immutable (once constructed).  So, can be read by any # of threads without any locks. */
+    private static final class Index {
+        final String[] labels;
+        final Properties[] sets;
+        /** key = label, value = its position.  For ${ASUX::label::___}, see {@link Macros#lookup(String, Properties, String)} */
+        final HashMap<String,Integer> positionsByLabel;
+        final boolean[] live;
+        final int[] livePositions;
+
+        /** The version of each (non-live) VersionedProperties, when it was indexed.  0 for all others. */
+        final long[] versions;
+
+        /** key = variable-name.  value = positions (ascending) of the NON-live Properties that have it, and their values */
+        final HashMap<String,Entry> entries;
+
+        private static final class Entry {
+            final int[] positions;
+            final String[] values;
+            Entry( final int[] _positions, final String[] _values ) { this.positions = _positions; this.values = _values; }
+        }
+
+        /** full build */
+        Index( final PropertySets _map ) {
+            final int n = _map.size();
+            this.labels = new String[ n ];
+            this.sets = new Properties[ n ];
+            this.live = new boolean[ n ];
+            this.versions = new long[ n ];
+            int pos = 0;
+            int liveCount = 0;
+            for( Map.Entry<String,Properties> e: _map.entrySet() ) {
+                this.labels[pos] = e.getKey();
+                this.sets[pos] = e.getValue();
+                // a plain java.util.Properties can change without us knowing (there's No version to check).  So, it's 'live' as well.
+                this.live[pos] = _map.liveLabels.contains( e.getKey() ) || e.getValue() == System.getProperties() ||  !  ( e.getValue() instanceof VersionedProperties );
+                if ( this.live[pos] ) liveCount ++;
+                this.versions[pos] = versionOf( this.sets[pos] ); // ATTENTION: BEFORE the contents are read.
+                pos ++;
+            }
+            this.livePositions = new int[ liveCount ];
+            for ( int ix = 0, jx = 0; ix < n; ix ++ )
+                if ( this.live[ix] ) this.livePositions[ jx++ ] = ix;
+            this.positionsByLabel = new HashMap<>( n * 4 / 3 + 1 );
+            for ( int ix = 0; ix < n; ix ++ )
+                this.positionsByLabel.put( this.labels[ix], ix );
+
+            final HashMap<String,ArrayList<Integer>> positions = new HashMap<>();
+            for ( int ix = 0; ix < n; ix ++ ) {
+                if ( this.live[ix] || this.sets[ix] == null ) continue;
+                for ( String name: this.sets[ix].stringPropertyNames() )
+                    positions.computeIfAbsent( name, k -> new ArrayList<>( 2 ) ).add( ix );
+            }
+            this.entries = new HashMap<>( positions.size() * 4 / 3 + 1 );
+            for( Map.Entry<String,ArrayList<Integer>> e: positions.entrySet() ) {
+                final ArrayList<Integer> list = e.getValue();
+                final int[] p = new int[ list.size() ];
+                final String[] v = new String[ list.size() ];
+                for ( int ix = 0; ix < p.length; ix ++ ) {
+                    p[ix] = list.get( ix );
+                    v[ix] = this.sets[ p[ix] ].getProperty( e.getKey() );
+                }
+                this.entries.put( e.getKey(), new Entry( p, v ) );
+            }
+        }
+
+        private Index( final Index _old, final long[] _versions, final HashMap<String,Entry> _entries ) {
+            this.labels = _old.labels;
+            this.sets = _old.sets;
+            this.positionsByLabel = _old.positionsByLabel;
+            this.live = _old.live;
+            this.livePositions = _old.livePositions;
+            this.versions = _versions;
+            this.entries = _entries;
+        }
+
+        private static long versionOf( final Properties _p ) {
+            return ( _p instanceof VersionedProperties ) ? ((VersionedProperties) _p).getVersion() : 0;
+        }
+
+        /** @return true if the VersionedProperties @ _pos has changed since it was indexed */
+        boolean isStale( final int _pos ) {
+            return  !  this.live[ _pos ] && this.sets[ _pos ] instanceof VersionedProperties && ((VersionedProperties) this.sets[ _pos ]).getVersion() != this.versions[ _pos ];
+        }
+
+        /** @return false if any of the VersionedProperties have changed since they were indexed */
+        boolean isCurrent() {
+            for ( int pos = 0; pos < this.sets.length; pos ++ )
+                if ( this.isStale( pos ) ) return false;
+            return true;
+        }
+
+        /** @return a new Index, with only the variables within the Properties @ _pos re-indexed */
+        Index reindex( final int _pos ) {
+            final Properties p = this.sets[ _pos ];
+            final long[] newVersions = this.versions.clone();
+            newVersions[ _pos ] = versionOf( p ); // ATTENTION: BEFORE the contents are read.
+            final Set<String> names = ( p == null ) ? new HashSet<String>() : p.stringPropertyNames();
+            final HashMap<String,Entry> newEntries = new HashMap<>( this.entries );
+            final HashSet<String> affected = new HashSet<>( names );
+            for( Map.Entry<String,Entry> e: this.entries.entrySet() )
+                if ( Arrays.binarySearch( e.getValue().positions, _pos ) >= 0 ) affected.add( e.getKey() );
+
+            for( String name: affected ) {
+                final Entry old = this.entries.get( name );
+                final int oldLen = ( old == null ) ? 0 : old.positions.length;
+                final int[] pos = new int[ oldLen + 1 ];
+                final String[] val = new String[ oldLen + 1 ];
+                int len = 0;
+                boolean added = false;
+                final String v = ( p == null ) ? null : p.getProperty( name );
+                for ( int ix = 0; ix < oldLen; ix ++ ) {
+                    if ( old.positions[ix] == _pos ) continue;
+                    if ( v != null && ! added && old.positions[ix] > _pos ) {
+                        pos[len] = _pos; val[len] = v; len ++; added = true;
+                    }
+                    pos[len] = old.positions[ix]; val[len] = old.values[ix]; len ++;
+                }
+                if ( v != null && ! added ) {
+                    pos[len] = _pos; val[len] = v; len ++;
+                }
+                if ( len == 0 )
+                    newEntries.remove( name );
+                else
+                    newEntries.put( name, new Entry( Arrays.copyOf( pos, len ), Arrays.copyOf( val, len ) ) );
+            }
+            return new Index( this, newVersions, newEntries );
+        }
+
+        int find( final String _name, final int _from ) {
+            int retval = this.findQualified( _name, _from );
+            final Entry e = this.entries.get( _name );
+            if ( e != null ) {
+                for ( int p: e.positions )
+                    if ( p >= _from ) { if ( retval < 0 || p < retval ) retval = p; break; }
+            }
+            for ( int p: this.livePositions ) {
+                if ( p < _from ) continue;
+                if ( retval >= 0 && p > retval ) break;
+                if ( this.sets[p] != null && Macros.lookup( this.labels[p], this.sets[p], _name ) != null ) return p;
+            }
+            return retval;
+        }
+
+        String get( final String _name, final int _pos ) {
+            if ( this.live[ _pos ] )
+                return this.sets[ _pos ] == null ? null : Macros.lookup( this.labels[ _pos ], this.sets[ _pos ], _name );
+            final String key = this.qualifiedKey( _name, _pos );
+            if ( key != null ) {
+                final String v = this.getUnqualified( key, _pos );
+                if ( v != null ) return v;
+            }
+            return this.getUnqualified( _name, _pos );
+        }
+
+        private String getUnqualified( final String _name, final int _pos ) {
+            final Entry e = this.entries.get( _name );
+            if ( e == null ) return null;
+            final int ix = Arrays.binarySearch( e.positions, _pos );
+            return ( ix < 0 ) ? null : e.values[ ix ];
+        }
+
+        /** @return the lowest position (at or after _from) of a NON-live Properties, whose label _name is qualified with (like ${ASUX::label::key}) AND that has a value for that key.  Else -1. */
+        private int findQualified( final String _name, final int _from ) {
+            int retval = -1;
+            for ( int ix = _name.indexOf( Macros.NAMESPACE_SEPARATOR ); ix > 0; ix = _name.indexOf( Macros.NAMESPACE_SEPARATOR, ix + 1 ) ) {
+                final Integer pos = this.positionsByLabel.get( _name.substring( 0, ix ) ); // just 1 HashMap lookup.  No need to walk thru all the Properties.
+                if ( pos == null || pos < _from || this.live[ pos ] || ( retval >= 0 && pos > retval ) ) continue;
+                final String key = this.qualifiedKey( _name, pos );
+                if ( key != null && this.getUnqualified( key, pos ) != null ) retval = pos;
+            }
+            return retval;
+        }
+
+        /** @return the key, if _name is qualified with the label of the Properties @ _pos (like ${ASUX::label::key}).  Else null.  Must match {@link Macros#lookup(String, Properties, String)} */
+        private String qualifiedKey( final String _name, final int _pos ) {
+            final String label = this.labels[ _pos ];
+            final int len = ( label == null ) ? -1 : label.length() + Macros.NAMESPACE_SEPARATOR.length();
+            if ( label == null || _name.length() <= len || ! _name.startsWith( label ) || ! _name.startsWith( Macros.NAMESPACE_SEPARATOR, label.length() ) ) return null;
+            return _name.substring( len );
+        }
+    }
+
+}
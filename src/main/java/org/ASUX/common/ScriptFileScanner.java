@@ -71,6 +71,7 @@ import static org.junit.Assert.*;
  *     But, you have the sophisticated ability is to safely <b>avoid errors</b>, by putting a '?' prefix for the property and setProperty commands<br>
  *     '<code>setProperty ?K=V</code>' command means, if 'K' is <b>NOT ALREADY</b> set.. then set K to V.<br>
  *     '<code>properties label=?&gt;Properties-FILE&gt;</code> command means if the file does NOT exist, don't barf/exit.  Keep quiet about that line, and Keep processing the rest of the Script file.</p>
+ *  <p>To run the same script over-n-over (each time with different properties), compile it ONCE using {@link CompiledScript} and run it using {@link CompiledScript.Executor}.</p>
  */
 public class ScriptFileScanner extends ConfigFileScannerL3 {
 
@@ -135,17 +136,18 @@ assertTrue( false ); // Just to find out ..which code is using this constructor?
     public static LinkedHashMap<String,Properties> initProperties( final LinkedHashMap<String,Properties> _allProps ) {
         final Properties existing = _allProps.get( GLOBALVARIABLES );
         if ( existing == null )
-            _allProps.put( GLOBALVARIABLES, new Properties() );
+            _allProps.put( GLOBALVARIABLES, new VersionedProperties() );
         return _allProps;
     }
 
     /**
      *  <p>Creates a well-initialized list of java.util.Properties objects, for use by ScriptFileScanner or it's subclasses.</p>
      *  <p>Currently, the list is just size=1, with the Properties object labelled {@link #GLOBALVARIABLES}</p>
+     *  <p>The object returned is a {@link PropertySets}, so that Macro-evaluation can use its lock-free index.</p>
      *  @return a NotNull object
      */
     public static LinkedHashMap<String,Properties> initProperties() {
-        LinkedHashMap<String,Properties> allProps = new LinkedHashMap<String,Properties>();
+        LinkedHashMap<String,Properties> allProps = new PropertySets();
         allProps = ScriptFileScanner.initProperties( allProps );
         return allProps;
     }
@@ -218,148 +220,159 @@ assertTrue( false ); // Just to find out ..which code is using this constructor?
     //==============================================================================
 
     /**
-     *  <p>This method is used to simply tell whether 'current-line' matches the REGEXP patterns that execBuiltInCommand() will be processing 'internally' within this class</p>
-     *  <p>In this class, those would be the REGEXP for 'print ...' and 'include @...'</p>
-     *  @param nextLn current line or 'peek-forward' line
-     *  @return true if the line will be processed 'internally'
+     *  <p>Registers (in addition to those of the super-class) the 'sleep ..', 'setProperty ..=..' and 'properties ..=..' built-in commands.  See {@link ConfigFileScannerL3#registerBuiltInCommands(BuiltInCommands)}</p>
+     *  @param _commands NotNull
      */
     @Override
-    protected boolean isBuiltInCommand( final String nextLn )
-    {   final String HDR = CLASSNAME +": isBuiltInCommand(): ";
-
-        if ( super.isBuiltInCommand(nextLn) )
-            return true;
-
-        if ( nextLn == null ) return false;
-        final String noprefix = removeEchoPrefix( nextLn );
-        if ( this.verbose ) System.out.println( HDR +"noprefix="+ noprefix );
-        final boolean retb = noprefix.matches( REGEXP_SLEEP ) || noprefix.matches( REGEXP_SETPROP ) || noprefix.matches( REGEXP_PROPSFILE );
-        if ( this.verbose ) System.out.println( HDR +"retb="+ retb );
-        return retb;
+    protected void registerBuiltInCommands( final BuiltInCommands _commands ) {
+        super.registerBuiltInCommands( _commands );
+        _commands.register( "sleep",       REGEXP_SLEEP,     m -> this.onSleepCmd( m ) );
+        _commands.register( "setProperty", REGEXP_SETPROP,   m -> this.onSetPropertyCmd( m ) );
+        _commands.register( "properties",  REGEXP_PROPSFILE, m -> this.onPropertiesCmd( m ) );
     }
 
     //==============================================================================
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     //==============================================================================
 
-    /** <p>New Method added to this subclass.  Implement your command parsing and do as appropriate.</p>
-     *  <p>ATTENTION: Safely assume that any 'echo' prefix parsing and any 'print' parsing has happened already in a TRANSAPARENT way.</p>
-     *  <p>This method is automatically invoked _WITHIN_ nextLine().  nextLine() is inherited from the parent {@link org.ASUX.common.ConfigFileScannerL3}.</p>
-     *  @return true if all 'normal', and false IF-AND-ONLY-IF we hit a 'include @filename' line in the batchfile
-     *  @throws Exception This class does NOT.  But .. subclasses may have overridden this method and can throw exception(s).  Example: org.ASUX.yaml.BatchFileGrammer.java
-     */
-    @Override
-    protected boolean execBuiltInCommand() throws Exception
+    private void onSleepCmd( final Matcher sleepMatcher ) throws Exception
     {
-        if ( super.execBuiltInCommand() )
-            return true; // Don't bother to do anything for lines that are auto-processed internally by super.class
+        final String HDR = CLASSNAME +": onSleepCmd(): ";
+        if ( this.verbose ) System.out.println( HDR +"I found the text "+ sleepMatcher.group() +" starting at index "+  sleepMatcher.start() +" and ending at index "+ sleepMatcher.end() );
+        final int sleepDuration = Integer.parseInt( sleepMatcher.group(1) ); // super.currentLine().sub string( sleepMatcher.start(), sleepMatcher.end() );
+        ScriptFileScanner.sleep( this.verbose, this.output, sleepDuration );
+    }
 
-        final String HDR = CLASSNAME +": execBuiltInCommand(): ";
-        if ( this.verbose ) System.out.println( HDR + this.getState() );
+    private void onSetPropertyCmd( final Matcher setPropMatcher ) throws Exception
+    {
+        final String HDR = CLASSNAME +": onSetPropertyCmd(): ";
+        if ( this.verbose ) System.out.println( HDR +"I found the text "+ setPropMatcher.group() +" starting at index "+  setPropMatcher.start() +" and ending at index "+ setPropMatcher.end() );
+        ScriptFileScanner.setProperty( this.verbose, this.propsSetRef, setPropMatcher.group(1), setPropMatcher.group(2), this::getState );
+    }
 
-        try {
+    private void onPropertiesCmd( final Matcher propsMatcher ) throws Exception
+    {
+        final String HDR = CLASSNAME +": onPropertiesCmd(): ";
+        if ( this.verbose ) System.out.println( HDR +"I found the text "+ propsMatcher.group() +" starting at index "+  propsMatcher.start() +" and ending at index "+ propsMatcher.end() );
+        ScriptFileScanner.loadProperties( this.verbose, this.propsSetRef, propsMatcher.group(1), propsMatcher.group(2), this::getState );
+    }
 
-            Pattern sleepPattern = Pattern.compile( REGEXP_SLEEP );
-            Matcher sleepMatcher    = sleepPattern.matcher( super.currentLine() );
-            if (sleepMatcher.find()) {
-                if ( this.verbose ) System.out.println( HDR +"I found the text "+ sleepMatcher.group() +" starting at index "+  sleepMatcher.start() +" and ending at index "+ sleepMatcher.end() );
-                final int sleepDuration = Integer.parseInt( sleepMatcher.group(1) ); // super.currentLine().sub string( sleepMatcher.start(), sleepMatcher.end() );
-                if ( this.verbose ) System.out.println( "\t sleep=[" + sleepDuration +"]" );
-                System.err.println("\n\tsleeping for (seconds) "+ sleepDuration );
-                Thread.sleep( sleepDuration * 1000 );
-                return true;
-            }
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+    // What the built-in commands do.  These are static, so that {@link CompiledScript.Executor} does exactly the same.
 
-            Pattern setPropPattern = Pattern.compile( REGEXP_SETPROP );
-            Matcher setPropMatcher    = setPropPattern.matcher( super.currentLine() );
-            if (setPropMatcher.find()) {
-                if ( this.verbose ) Debug.printAllProps( HDR +"(REGEXP_SETPROP) FULL DUMP of this.propsSetRef = ", this.propsSetRef );
-                if ( this.verbose ) System.out.println( HDR +"I found the text "+ setPropMatcher.group() +" starting at index "+  setPropMatcher.start() +" and ending at index "+ setPropMatcher.end() );
-                final String key = setPropMatcher.group(1);
-                final String val = setPropMatcher.group(2);
-                if ( this.verbose ) System.out.println( "\t detected KVPair=[" + key +","+ val +"]" );
-                String keywom = Macros.evalThoroughly( this.verbose, key, this.propsSetRef );
-                final String valwom = Macros.evalThoroughly( this.verbose, val, this.propsSetRef );
-
-                final boolean bOkIfAlreadyExists = keywom.startsWith("?"); // that is, the script-file line was:- 'properties kwom=?fnwom'
-                keywom = keywom.startsWith("?") ? keywom.substring(1) : keywom; // remove the '?' prefix from key/lhs string
-                final Properties globalVariables = this.propsSetRef.get( GLOBALVARIABLES );
-                final String preexisting = globalVariables.getProperty( keywom );
-
-                if ( preexisting != null ) {
-                    if ( bOkIfAlreadyExists ) {
-                        // Do Nothing, as it means:- if we've already defined this property already .. and .. the script-file line was:- 'setProperty ?key=...'
-                        if ( this.verbose ) System.out.println( HDR +"ALREADY EXISTING KVPair: keywom=" + keywom +", pre-existing value="+ preexisting +", - with new-value="+ val +".   But because of '?' prefix to 'key', ignoring "+ super.getState() );
-                    } else {
-                        if ( this.verbose ) System.out.println( HDR +"!! WARNING !! OVERRIDING/OVERWRITING EXISTING KVPair: keywom=" + keywom +", pre-existing value="+ preexisting +", - with new-value="+ val +" .. "+ super.getState() );
-                        globalVariables.setProperty( keywom, val );
-                    }
-                } else { // no pre-existing kvpair with 'key'
-                    globalVariables.setProperty( keywom, val );
-                }
-				return true;
-            }
+    /**
+     *  <p>The 'sleep nnn' built-in command.</p>
+     *  @param _verbose Whether you want deluge of debug-output onto System.out.
+     *  @param _output NotNull.  Flushed before sleeping, so that all the output so far is visible during the sleep
+     *  @param sleepDuration in seconds
+     *  @throws InterruptedException if interrupted while sleeping
+     *  @throws java.io.IOException any trouble flushing _output
+     */
+    static void sleep( final boolean _verbose, final OutputSink _output, final int sleepDuration ) throws InterruptedException, java.io.IOException
+    {
+        if ( _verbose ) System.out.println( "\t sleep=[" + sleepDuration +"]" );
+        _output.flush();
+        System.err.println("\n\tsleeping for (seconds) "+ sleepDuration );
+        Thread.sleep( sleepDuration * 1000 );
+    }
 
-            Pattern propsPattern = Pattern.compile( REGEXP_PROPSFILE );
-            Matcher propsMatcher    = propsPattern.matcher( super.currentLine() );
-            if (propsMatcher.find()) {
-                if ( this.verbose ) Debug.printAllProps( HDR +"(REGEXP_PROPSFILE) FULL DUMP of this.propsSetRef = ", this.propsSetRef );
-                if ( this.verbose ) System.out.println( HDR +"I found the text "+ propsMatcher.group() +" starting at index "+  propsMatcher.start() +" and ending at index "+ propsMatcher.end() );
-                final String key = propsMatcher.group(1);
-                final String val = propsMatcher.group(2);
-                if ( this.verbose ) System.out.println( "\t detected PropsFile-KVPair=[" + key +","+ val +"]" );
-                final String kwom = Macros.evalThoroughly( this.verbose, key, this.propsSetRef );
-                final String fnwom = Macros.evalThoroughly( this.verbose, val, this.propsSetRef ); // fwom === file-name-without-macros
-
-                final boolean bOkIfNotExists = fnwom.startsWith("?"); // that is, the script-file line was:- 'properties kwom=?fnwom'
-                final String filenameWWOAt = fnwom.startsWith("?") ? fnwom.substring(1) : fnwom; // remove the '?' prefix from file's name/path.
-                // 'WWOAt' === With-OR-Without-@-symbol ... as,  we're Not sure if there is an '@' prefix (to the file-name).
-
-                final String filename = filenameWWOAt.startsWith("@") ? filenameWWOAt.substring(1) : filenameWWOAt;
-
-                final Properties props = new Properties();
-                if ( this.verbose ) System.out.println( HDR +"Checking to see if filename=[" + filename +" exists.. .." );
-                final File fileObj = new File ( filename );
-                if ( fileObj.exists() && fileObj.canRead() ) {
-                    if ( this.verbose ) System.out.println( HDR +"Filename=[" + fileObj.getAbsolutePath() +"] exists!" );
-                    props.putAll( Utils.parseProperties( this.verbose, "@"+ fileObj.getAbsolutePath(), this.propsSetRef ) );
-                    // Note: ConfigFileScanner and ScriptFileScanners are meant to support INLINE String content (provided via cmdline-line)
-                    // So: Without a '@' prefix, the file-name will be treated as an 'inline-string' (and the file will NOT be opened.)
-                    if ( this.verbose ) System.out.println( HDR +" Loaded following properties, from file-name=["+ fileObj.getAbsolutePath() +"]");
-                    if ( this.verbose ) props.list( System.out );
-                } else {
-                    if ( bOkIfNotExists ) {
-                        // Do Nothing, as it means:- if filename does NOT exist.. no problem.
-                        if ( this.verbose ) System.out.println( HDR +"(REGEXP_PROPSFILE): File DOES NOT EXIST: filename=[" + filename +" exists.   But because of '?' prefix to filename, ignoring error "+ super.getState() );
-                    } else {
-                        throw new FileNotFoundException("File: "+ filename +" does Not exist.  See "+ super.getState() );
-                    }
-                }
-
-                final Properties existingPropsObj = this.propsSetRef.get( kwom );
-                if ( existingPropsObj != null ) {
-                    if ( this.verbose ) System.out.println( HDR +" FOUND Existing properties under the label=["+ kwom +"]");
-                    if ( this.verbose ) existingPropsObj.list( System.out );
-                    existingPropsObj.putAll( props );
-                    // if ( this.verbose ) existingPropsObj.list( System.out );
-                } else {
-                    if ( this.verbose ) System.out.println( HDR +" __NO__ properties under the label=["+ kwom +"]");
-                    this.propsSetRef.put( kwom, props ); // This line is the action taken by this 'PropertyFile' line of the batchfile
-                }
-                if ( this.verbose ) this.propsSetRef.get( kwom ).list( System.out );
-				return true;
+    //==============================================================================
+    /**
+     *  <p>The 'setProperty K=V' built-in command.  The property is set within the Properties labelled {@link #GLOBALVARIABLES}.</p>
+     *  @param _verbose Whether you want deluge of debug-output onto System.out.
+     *  @param _propsSet NotNull, with a Properties labelled {@link #GLOBALVARIABLES}
+     *  @param key the LHS of '=' (possibly with a '?' prefix), as-is within the script-file
+     *  @param val the RHS of '=', as-is within the script-file
+     *  @param _state for messages.  See {@link #getState()}
+     *  @throws Exception if the macros within key or val can Not be evaluated
+     */
+    static void setProperty( final boolean _verbose, final LinkedHashMap<String,Properties> _propsSet, final String key, final String val,
+                            final java.util.function.Supplier<String> _state ) throws Exception
+    {
+        final String HDR = CLASSNAME +": setProperty(): ";
+        if ( _verbose ) Debug.printAllProps( HDR +"(REGEXP_SETPROP) FULL DUMP of this.propsSetRef = ", _propsSet );
+        if ( _verbose ) System.out.println( "\t detected KVPair=[" + key +","+ val +"]" );
+        String keywom = Macros.evalThoroughly( _verbose, key, _propsSet );
+        final String valwom = Macros.evalThoroughly( _verbose, val, _propsSet );
+
+        final boolean bOkIfAlreadyExists = keywom.startsWith("?"); // that is, the script-file line was:- 'properties kwom=?fnwom'
+        keywom = keywom.startsWith("?") ? keywom.substring(1) : keywom; // remove the '?' prefix from key/lhs string
+        final Properties globalVariables = _propsSet.get( GLOBALVARIABLES );
+        final String preexisting = globalVariables.getProperty( keywom );
+
+        if ( preexisting != null ) {
+            if ( bOkIfAlreadyExists ) {
+                // Do Nothing, as it means:- if we've already defined this property already .. and .. the script-file line was:- 'setProperty ?key=...'
+                if ( _verbose ) System.out.println( HDR +"ALREADY EXISTING KVPair: keywom=" + keywom +", pre-existing value="+ preexisting +", - with new-value="+ val +".   But because of '?' prefix to 'key', ignoring "+ _state.get() );
+            } else {
+                if ( _verbose ) System.out.println( HDR +"!! WARNING !! OVERRIDING/OVERWRITING EXISTING KVPair: keywom=" + keywom +", pre-existing value="+ preexisting +", - with new-value="+ val +" .. "+ _state.get() );
+                globalVariables.setProperty( keywom, val );
             }
+        } else { // no pre-existing kvpair with 'key'
+            globalVariables.setProperty( keywom, val );
+        }
+        PropertySets.propertiesChanged( _propsSet, GLOBALVARIABLES );
+    }
 
-            // This class did NOT process the current line
-            return false; // see javadoc for this method (and for super-class), as to why 'false'
+    //==============================================================================
+    /**
+     *  <p>The 'properties label=@file' built-in command.</p>
+     *  @param _verbose Whether you want deluge of debug-output onto System.out.
+     *  @param _propsSet NotNull
+     *  @param key the label (LHS of '='), as-is within the script-file
+     *  @param val the file-name (RHS of '=', possibly with a '?' prefix), as-is within the script-file
+     *  @param _state for messages.  See {@link #getState()}
+     *  @throws FileNotFoundException if the file does Not exist (and the file-name does NOT have a '?' prefix)
+     *  @throws Exception if the macros within key or val can Not be evaluated, or any trouble reading the file
+     */
+    static void loadProperties( final boolean _verbose, final LinkedHashMap<String,Properties> _propsSet, final String key, final String val,
+                            final java.util.function.Supplier<String> _state ) throws FileNotFoundException, Exception
+    {
+        final String HDR = CLASSNAME +": loadProperties(): ";
+        if ( _verbose ) Debug.printAllProps( HDR +"(REGEXP_PROPSFILE) FULL DUMP of this.propsSetRef = ", _propsSet );
+        if ( _verbose ) System.out.println( "\t detected PropsFile-KVPair=[" + key +","+ val +"]" );
+        final String kwom = Macros.evalThoroughly( _verbose, key, _propsSet );
+        final String fnwom = Macros.evalThoroughly( _verbose, val, _propsSet ); // fwom === file-name-without-macros
+
+        final boolean bOkIfNotExists = fnwom.startsWith("?"); // that is, the script-file line was:- 'properties kwom=?fnwom'
+        final String filenameWWOAt = fnwom.startsWith("?") ? fnwom.substring(1) : fnwom; // remove the '?' prefix from file's name/path.
+        // 'WWOAt' === With-OR-Without-@-symbol ... as,  we're Not sure if there is an '@' prefix (to the file-name).
+
+        final String filename = filenameWWOAt.startsWith("@") ? filenameWWOAt.substring(1) : filenameWWOAt;
+
+        final Properties props = new VersionedProperties();
+        if ( _verbose ) System.out.println( HDR +"Checking to see if filename=[" + filename +" exists.. .." );
+        final File fileObj = new File ( filename );
+        if ( fileObj.exists() && fileObj.canRead() ) {
+            if ( _verbose ) System.out.println( HDR +"Filename=[" + fileObj.getAbsolutePath() +"] exists!" );
+            props.putAll( Utils.parseProperties( _verbose, "@"+ fileObj.getAbsolutePath(), _propsSet ) );
+            // Note: ConfigFileScanner and ScriptFileScanners are meant to support INLINE String content (provided via cmdline-line)
+            // So: Without a '@' prefix, the file-name will be treated as an 'inline-string' (and the file will NOT be opened.)
+            if ( _verbose ) System.out.println( HDR +" Loaded following properties, from file-name=["+ fileObj.getAbsolutePath() +"]");
+            if ( _verbose ) props.list( System.out );
+        } else {
+            if ( bOkIfNotExists ) {
+                // Do Nothing, as it means:- if filename does NOT exist.. no problem.
+                if ( _verbose ) System.out.println( HDR +"(REGEXP_PROPSFILE): File DOES NOT EXIST: filename=[" + filename +" exists.   But because of '?' prefix to filename, ignoring error "+ _state.get() );
+            } else {
+                throw new FileNotFoundException("File: "+ filename +" does Not exist.  See "+ _state.get() );
+            }
+        }
 
-        } catch (PatternSyntaxException e) {
-			e.printStackTrace(System.err); // too serious an internal-error.  Immediate bug-fix required.  The application/Program will exit .. in 2nd line below.
-			System.err.println( HDR + ": Unexpected Internal ERROR, while checking for pattern ("+ REGEXP_ECHO +")." );
-			System.exit(91); // This is a serious failure. Shouldn't be happening.
+        final Properties existingPropsObj = _propsSet.get( kwom );
+        if ( existingPropsObj != null ) {
+            if ( _verbose ) System.out.println( HDR +" FOUND Existing properties under the label=["+ kwom +"]");
+            if ( _verbose ) existingPropsObj.list( System.out );
+            existingPropsObj.putAll( props );
+            PropertySets.propertiesChanged( _propsSet, kwom );
+            // if ( _verbose ) existingPropsObj.list( System.out );
+        } else {
+            if ( _verbose ) System.out.println( HDR +" __NO__ properties under the label=["+ kwom +"]");
+            _propsSet.put( kwom, props ); // This line is the action taken by this 'PropertyFile' line of the batchfile
         }
-        // we shouldn't be getting here, due to 'System.exit()' within above catch()
-        return false; // This class did NOT process the current line
+        if ( _verbose ) _propsSet.get( kwom ).list( System.out );
     }
 
     //==============================================================================
@@ -403,10 +416,16 @@ assertTrue( false ); // Just to find out ..which code is using this constructor?
                 ix ++;
                 verbose = true;
             }
+            boolean preload = false;
+            if ( "--preloadIncludes".equals(args[ix]) ) { // to check for cyclic 'include's, before a single line is processed.
+                ix ++;
+                preload = true;
+            }
             final ScriptFileScanner o = new ScriptFileScanner( verbose, ScriptFileScanner.initProperties() );
             o.useDelimiter( ";|"+System.lineSeparator() );
-            o.propsSetRef.put( GLOBALVARIABLES, new Properties() );
+            o.propsSetRef.put( GLOBALVARIABLES, new VersionedProperties() );
             o.openFile( args[ix], true, true );
+            if ( preload ) o.preloadIncludes( null );
             while (o.hasNextLine()) {
                 if ( verbose ) System.out.println("^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^");
                 System.out.println();
@@ -0,0 +1,167 @@
+/*
+ BSD 3-Clause License
+
+ Copyright (c) 2019, Udaybhaskar Sarma Seetamraju
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ * Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ * Neither the name of the copyright holder nor the names of its
+ contributors may be used to endorse or promote products derived from
+ this software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.ASUX.common;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ *  <p>This is part of org.ASUX.common GitHub.com project and the <a href="https://github.com/org-asux/org-ASUX.github.io/wiki">org.ASUX.cmdline</a> GitHub.com projects.</p>
+ *  <p>A java.util.Properties that tells you whether it has changed.  Every mutation (put, setProperty, load, remove, clear, ..) bumps {@link #getVersion()}.</p>
+ *  <p>Versions are taken from a single JVM-wide counter, so they are not just monotonically increasing for each instance, but also comparable ACROSS instances.
+ *     That's what lets {@link PropertySets#getVersion()} be a single number for an entire set of Properties.</p>
+ *  <p>ATTENTION: Removing entries via keySet()/values()/entrySet() is NOT detected.  Invoke {@link #touch()} after doing so.</p>
+ */
+public class VersionedProperties extends Properties {
+
+    private static final long serialVersionUID = 1L;
+    public static final String CLASSNAME = VersionedProperties.class.getName();
+
+    private static final AtomicLong CLOCK = new AtomicLong( 0 );
+
+    private volatile long version = VersionedProperties.tick();
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    public VersionedProperties() {
+        super();
+    }
+
+    /** @param _defaults see java.util.Properties(Properties).  Changes to _defaults are NOT detected (unless you invoke {@link #touch()}). */
+    public VersionedProperties( final Properties _defaults ) {
+        super( _defaults );
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+
+    /** @return a new value from the JVM-wide counter (that all versions are taken from) */
+    static long tick() {
+        return CLOCK.incrementAndGet();
+    }
+
+    /** @return a number that is larger than before, every time this object is modified */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /** Bump the version, without modifying anything.  Use this, if you've modified the contents in a way that this class can NOT detect. */
+    public void touch() {
+        this.version = VersionedProperties.tick(); // ATTENTION: always AFTER the modification.  Else, a reader can see the new version with the old contents.
+    }
+
+    //==============================================================================
+    //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
+    //==============================================================================
+    // Note: setProperty(), load() and loadFromXML() all end up invoking put()
+
+    @Override
+    public synchronized Object put( final Object _key, final Object _value ) {
+        try { return super.put( _key, _value ); } finally { this.touch(); }
+    }
+
+    @Override
+    public synchronized void putAll( final Map<?,?> _m ) {
+        try { super.putAll( _m ); } finally { this.touch(); }
+    }
+
+    @Override
+    public synchronized Object putIfAbsent( final Object _key, final Object _value ) {
+        try { return super.putIfAbsent( _key, _value ); } finally { this.touch(); }
+    }
+
+    @Override
+    public synchronized Object remove( final Object _key ) {
+        try { return super.remove( _key ); } finally { this.touch(); }
+    }
+
+    @Override
+    public synchronized boolean remove( final Object _key, final Object _value ) {
+        try { return super.remove( _key, _value ); } finally { this.touch(); }
+    }
+
+    @Override
+    public synchronized Object replace( final Object _key, final Object _value ) {
+        try { return super.replace( _key, _value ); } finally { this.touch(); }
+    }
+
+    @Override
+    public synchronized boolean replace( final Object _key, final Object _old, final Object _value ) {
+        try { return super.replace( _key, _old, _value ); } finally { this.touch(); }
+    }
+
+    @Override
+    public synchronized void replaceAll( final BiFunction<? super Object, ? super Object, ?> _func ) {
+        try { super.replaceAll( _func ); } finally { this.touch(); }
+    }
+
+    @Override
+    public synchronized Object computeIfAbsent( final Object _key, final Function<? super Object, ?> _func ) {
+        try { return super.computeIfAbsent( _key, _func ); } finally { this.touch(); }
+    }
+
+    @Override
+    public synchronized Object computeIfPresent( final Object _key, final BiFunction<? super Object, ? super Object, ?> _func ) {
+        try { return super.computeIfPresent( _key, _func ); } finally { this.touch(); }
+    }
+
+    @Override
+    public synchronized Object compute( final Object _key, final BiFunction<? super Object, ? super Object, ?> _func ) {
+        try { return super.compute( _key, _func ); } finally { this.touch(); }
+    }
+
+    @Override
+    public synchronized Object merge( final Object _key, final Object _value, final BiFunction<? super Object, ? super Object, ?> _func ) {
+        try { return super.merge( _key, _value, _func ); } finally { this.touch(); }
+    }
+
+    @Override
+    public synchronized void clear() {
+        try { super.clear(); } finally { this.touch(); }
+    }
+
+    @Override
+    public synchronized Object clone() {
+        final VersionedProperties copy = (VersionedProperties) super.clone();
+        copy.touch();
+        return copy;
+    }
+
+}